@@ -0,0 +1,32 @@
+package powergrid.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * عداد الذاكرة المحجوزة لكل خيط (امتداد HotSpot) - للقياسات التي تعمل خارج JMH
+ */
+final class Allocations {
+    private static final com.sun.management.ThreadMXBean THREADS = lookup();
+
+    private Allocations() {
+    }
+
+    private static com.sun.management.ThreadMXBean lookup() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * الذاكرة المحجوزة على الخيط الحالي منذ بدايته، أو -1 إذا لم يدعمها JVM
+     */
+    static long currentThread() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+}
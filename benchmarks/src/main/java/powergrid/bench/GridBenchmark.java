@@ -0,0 +1,45 @@
+package powergrid.bench;
+
+import powergrid.model.Grid;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * المعاملات المشتركة لكل قياسات الخوارزميات - الشبكة تُبنى مرة لكل تركيبة معاملات
+ * شبكة 4096x4096 تحتاج قرابة 2 جيجابايت، لذلك الحد الأعلى للذاكرة 8 جيجابايت
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+public abstract class GridBenchmark {
+    static final long SEED = 42;
+
+    @Param({"16", "64", "256", "1024", "4096"})
+    public int size;
+
+    @Param({"0.0", "0.1", "0.3"})
+    public double obstacleDensity;
+
+    @Param({"PLAIN", "MIXED", "RUGGED"})
+    public GridFixture.Terrain terrain;
+
+    protected Grid grid;
+
+    @Setup(Level.Trial)
+    public void buildGrid() {
+        grid = GridFixture.build(size, obstacleDensity, terrain, SEED);
+    }
+}
@@ -0,0 +1,88 @@
+package powergrid.bench;
+
+import powergrid.model.Cell;
+import powergrid.model.ChunkedGrid;
+import powergrid.model.Grid;
+import powergrid.model.House;
+import powergrid.model.PowerSource;
+import powergrid.utils.Constants;
+import java.util.SplittableRandom;
+
+/**
+ * بناء شبكات قياس ثابتة حسب البذرة: تضاريس عشوائية، شبكة أسلاك على شكل مشط
+ * (عمود رئيسي عند x = 0 وصف أسلاك كل 4 صفوف) ومنازل بجانب الأسلاك، ثم عوائق بالكثافة المطلوبة
+ * العوائق تقطع الأسلاك، فكلما زادت الكثافة قل الجزء الموصول من الشبكة
+ */
+public final class GridFixture {
+    public static final int MAX_HOUSES = 1000;
+
+    /**
+     * نسب الماء والجبال في الخلايا غير المشغولة
+     */
+    public enum Terrain {
+        PLAIN(0.0, 0.0),
+        MIXED(0.10, 0.05),
+        RUGGED(0.25, 0.15);
+
+        final double water;
+        final double mountain;
+
+        Terrain(double water, double mountain) {
+            this.water = water;
+            this.mountain = mountain;
+        }
+    }
+
+    private GridFixture() {
+    }
+
+    public static Grid build(int size, double obstacleDensity, Terrain terrain, long seed) {
+        return build(size, obstacleDensity, terrain, seed, MAX_HOUSES);
+    }
+
+    /**
+     * @param maxHouses الحد الأعلى لعدد المنازل (المنازل الزائدة تبقى أرضاً فارغة)
+     */
+    public static Grid build(int size, double obstacleDensity, Terrain terrain, long seed, int maxHouses) {
+        Grid grid = new Grid(size, size);
+        grid.reset();
+        ChunkedGrid cells = grid.getCellStore();
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int houses = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int type;
+                double roll = random.nextDouble();
+                if (x == 0 || (y & 3) == 0) {
+                    type = Constants.WIRE;
+                } else if ((y & 3) == 1 && (x & 7) == 4 && houses < maxHouses) {
+                    type = Constants.HOUSE;
+                } else if (roll < terrain.water) {
+                    type = Constants.WATER;
+                } else if (roll < terrain.water + terrain.mountain) {
+                    type = Constants.MOUNTAIN;
+                } else {
+                    type = Constants.EMPTY;
+                }
+
+                if (type != Constants.HOUSE && random.nextDouble() < obstacleDensity) {
+                    type = Constants.OBSTACLE;
+                }
+                if (type == Constants.HOUSE) {
+                    grid.getHouses().add(new House(x, y));
+                    houses++;
+                }
+                Cell.initializeState(cells, x, y, type);
+            }
+        }
+
+        // المصدر في الزاوية، والهدف في الزاوية المقابلة قابل للمرور دائماً
+        Cell.initializeState(cells, 0, 0, Constants.POWER_SOURCE);
+        grid.getPowerSources().add(new PowerSource(0, 0));
+        if (size > 1) {
+            Cell.initializeState(cells, size - 1, size - 1, Constants.EMPTY);
+        }
+        return grid;
+    }
+}
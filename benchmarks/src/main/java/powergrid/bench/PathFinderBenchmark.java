@@ -0,0 +1,33 @@
+package powergrid.bench;
+
+import powergrid.algorithms.PathFinder;
+import powergrid.model.Cell;
+import powergrid.model.House;
+import org.openjdk.jmh.annotations.Benchmark;
+import java.util.List;
+
+/**
+ * البحث عن المسارات من الزاوية (0,0) إلى الزاوية المقابلة، والمنازل القابلة للوصول من المصدر
+ */
+public class PathFinderBenchmark extends GridBenchmark {
+
+    @Benchmark
+    public List<Cell> shortestPathBFS() {
+        return PathFinder.findShortestPathBFS(grid, 0, 0, size - 1, size - 1);
+    }
+
+    @Benchmark
+    public List<Cell> cheapestPathUCS() {
+        return PathFinder.findCheapestPathUCS(grid, 0, 0, size - 1, size - 1);
+    }
+
+    @Benchmark
+    public List<Cell> pathAStar() {
+        return PathFinder.findPathAStar(grid, 0, 0, size - 1, size - 1);
+    }
+
+    @Benchmark
+    public List<House> reachableHouses() {
+        return PathFinder.findReachableHouses(grid, 0, 0);
+    }
+}
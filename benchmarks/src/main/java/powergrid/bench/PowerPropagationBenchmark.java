@@ -0,0 +1,22 @@
+package powergrid.bench;
+
+import powergrid.algorithms.BFS;
+import powergrid.algorithms.DFS;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * نشر الكهرباء من المصدر عبر شبكة الأسلاك وفحص اتصال الشبكة
+ * spreadPower يعيد كتابة نفس الحالة في كل استدعاء، فالعمل ثابت بين الاستدعاءات
+ */
+public class PowerPropagationBenchmark extends GridBenchmark {
+
+    @Benchmark
+    public void spreadPower() {
+        BFS.spreadPower(grid, 0, 0);
+    }
+
+    @Benchmark
+    public boolean isGridConnected() {
+        return DFS.isGridConnected(grid);
+    }
+}
@@ -0,0 +1,201 @@
+package powergrid.bench;
+
+import powergrid.algorithms.BFS;
+import powergrid.manager.EffectManager;
+import powergrid.manager.GameManager;
+import powergrid.model.Cell;
+import powergrid.model.Grid;
+import powergrid.ui.GameCanvas;
+import javax.swing.SwingUtilities;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * قياس رسم GameCanvas بدون شاشة (java.awt.headless=true): رسم الإطار في BufferedImage
+ * لسيناريوهات ثابتة، وقياس زمن الإطار والذاكرة المحجوزة لكل إطار على خيط الواجهة
+ *
+ * السيناريوهات:
+ *   IDLE        - شبكة موصولة بدون كوارث
+ *   BIG_QUAKE   - زلزال بقوة 9 في المركز مع موجات الصدمة (يُعاد كل 1.5 ثانية حتى لا تنتهي التأثيرات)
+ *   FULL_DAMAGE - كل خلية متضررة مع مؤشرات التلف
+ *   ZOOMED_OUT  - شبكة كبيرة مرسومة بمقياس مصغر (اللوحة لا تدعم التكبير، فالتصغير عبر Graphics2D.scale)
+ *
+ * التشغيل:
+ *   java -Djava.awt.headless=true -cp benchmarks/target/benchmarks.jar powergrid.bench.RenderBenchmark
+ *        [--size 15] [--zoom-size 120] [--frames 200] [--warmup 50] [--out benchmarks/render-results.json]
+ */
+public final class RenderBenchmark {
+    private static final long SEED = 42;
+    private static final int CELL_SIZE = 50; // ثابت في GameCanvas.paintComponent
+    private static final int QUAKE_MAGNITUDE = 9;
+    private static final long QUAKE_REPEAT_MILLIS = 1500;
+
+    private enum Scenario { IDLE, BIG_QUAKE, FULL_DAMAGE, ZOOMED_OUT }
+
+    private int size = 15;
+    private int zoomSize = 120;
+    private int frames = 200;
+    private int warmup = 50;
+    private Path out = Paths.get("benchmarks", "render-results.json");
+
+    private RenderBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        RenderBenchmark benchmark = new RenderBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+        System.exit(0); // مؤقت الرسوم المتحركة في اللوحة يبقي خيط الواجهة حياً
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--size": size = Integer.parseInt(value); i++; break;
+                case "--zoom-size": zoomSize = Integer.parseInt(value); i++; break;
+                case "--frames": frames = Integer.parseInt(value); i++; break;
+                case "--warmup": warmup = Integer.parseInt(value); i++; break;
+                case "--out": out = Paths.get(value); i++; break;
+                default:
+                    throw new IllegalArgumentException("معامل غير معروف: " + args[i]);
+            }
+        }
+        if (frames <= 0) {
+            throw new IllegalArgumentException("عدد الإطارات يجب أن يكون موجباً");
+        }
+    }
+
+    private void run() throws Exception {
+        List<String> entries = new ArrayList<>();
+        for (Scenario scenario : Scenario.values()) {
+            entries.add(measure(scenario));
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"jvm\": \"").append(System.getProperty("java.vm.name")).append(' ')
+            .append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"headless\": ").append(java.awt.GraphicsEnvironment.isHeadless()).append(",\n");
+        json.append("  \"frames\": ").append(frames).append(",\n");
+        json.append("  \"warmup\": ").append(warmup).append(",\n");
+        json.append("  \"results\": [\n");
+        for (int i = 0; i < entries.size(); i++) {
+            json.append(entries.get(i)).append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.write(out, json.toString().getBytes(StandardCharsets.UTF_8));
+        System.out.println("النتائج في " + out.toAbsolutePath());
+    }
+
+    /**
+     * تجهيز السيناريو ثم رسم الإطارات - كل إطار يُرسم على خيط الواجهة كما في اللعبة،
+     * ومؤقت الرسوم المتحركة يعمل بين الإطارات
+     * @return سطر JSON للنتيجة
+     */
+    private String measure(Scenario scenario) throws Exception {
+        int mapSize = scenario == Scenario.ZOOMED_OUT ? zoomSize : size;
+        double scale = scenario == Scenario.ZOOMED_OUT ? (double) size / zoomSize : 1.0;
+
+        Grid grid = GridFixture.build(mapSize, 0.0, GridFixture.Terrain.MIXED, SEED);
+        BFS.spreadPower(grid, 0, 0);
+        EffectManager effectManager = new EffectManager(grid);
+        GameManager gameManager = new GameManager(grid, effectManager, false, GameManager.Difficulty.EASY);
+        gameManager.setSeed(SEED);
+
+        GameCanvas[] holder = new GameCanvas[1];
+        SwingUtilities.invokeAndWait(() -> {
+            holder[0] = new GameCanvas(gameManager);
+            holder[0].setSize(mapSize * CELL_SIZE, mapSize * CELL_SIZE);
+        });
+        GameCanvas canvas = holder[0];
+
+        int center = mapSize / 2;
+        if (scenario == Scenario.BIG_QUAKE) {
+            // الضرر الحقيقي يصل للوحة عبر مستمع التأثيرات (invokeLater)
+            gameManager.execute(() -> effectManager.triggerEarthquake(center, center, QUAKE_MAGNITUDE));
+        } else if (scenario == Scenario.FULL_DAMAGE) {
+            gameManager.execute(() -> {
+                for (int x = 0; x < mapSize; x++) {
+                    for (int y = 0; y < mapSize; y++) {
+                        Cell cell = grid.getCell(x, y);
+                        cell.applyDamage(3 + (x + y) % 7);
+                        grid.addDamagedCell(cell);
+                    }
+                }
+            });
+            SwingUtilities.invokeAndWait(() -> {
+                for (int x = 0; x < mapSize; x++) {
+                    for (int y = 0; y < mapSize; y++) {
+                        canvas.notifyDamage(x, y, grid.getCell(x, y).getDamageLevel());
+                    }
+                }
+            });
+        }
+
+        int imageSize = (int) Math.ceil(mapSize * CELL_SIZE * scale);
+        BufferedImage image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_ARGB);
+        long[] frameNanos = new long[frames];
+        long[] frameBytes = new long[frames];
+        long[] lastQuake = {Long.MIN_VALUE};
+
+        for (int i = -warmup; i < frames; i++) {
+            int index = i;
+            SwingUtilities.invokeAndWait(() -> {
+                if (scenario == Scenario.BIG_QUAKE) {
+                    long now = System.currentTimeMillis();
+                    if (now - lastQuake[0] >= QUAKE_REPEAT_MILLIS) {
+                        canvas.triggerEarthquakeVisual(center, center, QUAKE_MAGNITUDE);
+                        lastQuake[0] = now;
+                    }
+                }
+
+                long allocatedBefore = Allocations.currentThread();
+                long start = System.nanoTime();
+                Graphics2D g = image.createGraphics();
+                g.scale(scale, scale);
+                canvas.paint(g);
+                g.dispose();
+                long elapsed = System.nanoTime() - start;
+                long allocated = allocatedBefore < 0 ? -1 : Allocations.currentThread() - allocatedBefore;
+                if (index >= 0) {
+                    frameNanos[index] = elapsed;
+                    frameBytes[index] = allocated;
+                }
+            });
+        }
+
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < frames; i++) {
+            totalNanos += frameNanos[i];
+            totalBytes += frameBytes[i];
+        }
+        boolean allocationSupported = frameBytes[0] >= 0;
+        Arrays.sort(frameNanos);
+
+        String entry = String.format(Locale.ROOT,
+            "    {\"scenario\": \"%s\", \"mapSize\": %d, \"imageSize\": %d, \"scale\": %.3f, "
+            + "\"msPerFrame\": %.3f, \"p50Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f, \"bytesPerFrame\": %d}",
+            scenario, mapSize, imageSize, scale,
+            totalNanos / 1e6 / frames,
+            TickBenchmark.percentile(frameNanos, 50) / 1e6, TickBenchmark.percentile(frameNanos, 99) / 1e6,
+            frameNanos[frames - 1] / 1e6,
+            allocationSupported ? totalBytes / frames : -1);
+        System.out.println(entry.trim());
+        return entry;
+    }
+}
@@ -0,0 +1,308 @@
+package powergrid.bench;
+
+import powergrid.algorithms.BFS;
+import powergrid.manager.EffectListener;
+import powergrid.manager.EffectManager;
+import powergrid.manager.GameManager;
+import powergrid.model.Grid;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * قياس شامل لدورة اللعبة: تشغيل GameManager بدون مؤقت (step = updateGame) لعدد من الأيام
+ * على شبكات مولدة بأحجام متزايدة مع الكوارث، ثم كتابة النتائج بصيغة JSON للمقارنة بين البنيات
+ *
+ * لكل حجم ولكل عدد خيوط: كل خيط يشغل جلسة مستقلة (شبكة ومدير خاص به) كما يفعل المجدول المشترك،
+ * ويُسجل زمن كل دورة بدقة (ترتيب كامل للعينات، لا خانات تقريبية) والذاكرة المحجوزة لكل دورة
+ *
+ * أثناء القياس يُوجه System.out إلى مجرى فارغ حتى لا تدخل رسائل اللعبة في زمن الدورة،
+ * وعند انتهاء اللعبة تُبنى الجلسة من جديد خارج الوقت المقاس (الشبكة المتضررة لا تعود مع startNewGame)
+ *
+ * التشغيل:
+ *   java -cp benchmarks/target/benchmarks.jar powergrid.bench.TickBenchmark
+ *        [--sizes 64,128,256,512] [--ticks 2000] [--warmup 500] [--threads 1,2,4]
+ *        [--quake-every 20] [--out benchmarks/tick-results.json]
+ */
+public final class TickBenchmark {
+    private static final long SEED = 42;
+    private static final double OBSTACLE_DENSITY = 0.0; // العوائق تقطع المشط فتخسر اللعبة مبكراً - الضرر من الزلازل فقط
+    private static final int MAX_HOUSES = 256;          // أقل من GridFixture.MAX_HOUSES حتى لا تُربح اللعبة بالنقاط من أول يوم
+
+    private int[] sizes = {64, 128, 256, 512};
+    private int[] threadCounts = {1, 2, 4};
+    private int ticks = 2000;
+    private int warmup = 500;
+    private int quakeEvery = 20; // زلزال إضافي كل N دورة فوق احتمال الصعوبة (0 = بدون)
+    private Path out = Paths.get("benchmarks", "tick-results.json");
+    private final PrintStream console = System.out;
+
+    /**
+     * نتيجة جلسة واحدة على خيط واحد
+     */
+    private static final class SessionResult {
+        long[] tickNanos;
+        long allocatedBytes;   // -1 إذا لم يدعمه JVM
+        int earthquakes;
+        int restarts;
+        long rebuildNanos;     // الوقت المقاس في إعادة بناء الجلسات (خارج الدورات)
+    }
+
+    /**
+     * مدير اللعبة ومصدر الزلازل لجلسة واحدة - يُستبدلان معاً عند إعادة البدء
+     */
+    private static final class Session {
+        final GameManager gameManager;
+        final Runnable quake;
+
+        Session(GameManager gameManager, Runnable quake) {
+            this.gameManager = gameManager;
+            this.quake = quake;
+        }
+    }
+
+    private TickBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        TickBenchmark benchmark = new TickBenchmark();
+        benchmark.parse(args);
+        benchmark.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--sizes": sizes = parseList(value); i++; break;
+                case "--threads": threadCounts = parseList(value); i++; break;
+                case "--ticks": ticks = Integer.parseInt(value); i++; break;
+                case "--warmup": warmup = Integer.parseInt(value); i++; break;
+                case "--quake-every": quakeEvery = Integer.parseInt(value); i++; break;
+                case "--out": out = Paths.get(value); i++; break;
+                default:
+                    throw new IllegalArgumentException("معامل غير معروف: " + args[i]);
+            }
+        }
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("عدد الدورات يجب أن يكون موجباً");
+        }
+    }
+
+    private static int[] parseList(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("قائمة فارغة");
+        }
+        return Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    private void run() throws Exception {
+        List<String> entries = new ArrayList<>();
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int size : sizes) {
+                for (int threads : threadCounts) {
+                    entries.add(measure(size, threads));
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"jvm\": \"").append(System.getProperty("java.vm.name")).append(' ')
+            .append(System.getProperty("java.version")).append("\",\n");
+        json.append("  \"cores\": ").append(Runtime.getRuntime().availableProcessors()).append(",\n");
+        json.append("  \"ticks\": ").append(ticks).append(",\n");
+        json.append("  \"warmup\": ").append(warmup).append(",\n");
+        json.append("  \"quakeEvery\": ").append(quakeEvery).append(",\n");
+        json.append("  \"results\": [\n");
+        for (int i = 0; i < entries.size(); i++) {
+            json.append(entries.get(i)).append(i + 1 < entries.size() ? ",\n" : "\n");
+        }
+        json.append("  ]\n}\n");
+
+        if (out.getParent() != null) {
+            Files.createDirectories(out.getParent());
+        }
+        Files.write(out, json.toString().getBytes(StandardCharsets.UTF_8));
+        console.println("النتائج في " + out.toAbsolutePath());
+    }
+
+    /**
+     * تشغيل جلسة على كل خيط بالتوازي ودمج العينات
+     * @return سطر JSON للنتيجة
+     */
+    private String measure(int size, int threads) throws InterruptedException {
+        SessionResult[] results = new SessionResult[threads];
+        Throwable[] failure = new Throwable[1];
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int index = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    results[index] = runSession(size, SEED + index, ready, start);
+                } catch (Throwable e) {
+                    synchronized (failure) {
+                        failure[0] = e;
+                    }
+                    ready.countDown();
+                }
+            }, "tick-bench-" + t);
+            workers[t].start();
+        }
+        ready.await();
+        long wallStart = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+        if (failure[0] != null) {
+            throw new IllegalStateException("فشلت جلسة القياس (الحجم " + size + ")", failure[0]);
+        }
+
+        long[] all = new long[threads * ticks];
+        long rebuildNanos = 0;
+        long allocated = 0;
+        boolean allocationSupported = true;
+        int earthquakes = 0;
+        int restarts = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(results[t].tickNanos, 0, all, t * ticks, ticks);
+            rebuildNanos = Math.max(rebuildNanos, results[t].rebuildNanos);
+            if (results[t].allocatedBytes < 0) {
+                allocationSupported = false;
+            }
+            allocated += results[t].allocatedBytes;
+            earthquakes += results[t].earthquakes;
+            restarts += results[t].restarts;
+        }
+        Arrays.sort(all);
+
+        long totalTicks = (long) threads * ticks;
+        // الخيوط تعمل بالتوازي، فيُطرح من الوقت الكلي أطول زمن قضاه خيط في إعادة البناء بين الألعاب
+        double ticksPerSecond = totalTicks * 1e9 / (wallNanos - rebuildNanos);
+        String entry = String.format(Locale.ROOT,
+            "    {\"size\": %d, \"threads\": %d, \"ticksPerSecond\": %.1f, "
+            + "\"p50Micros\": %.2f, \"p99Micros\": %.2f, \"p999Micros\": %.2f, \"maxMicros\": %.2f, "
+            + "\"allocatedBytesPerTick\": %d, \"earthquakes\": %d, \"restarts\": %d, \"restartsPerTick\": %.4f}",
+            size, threads, ticksPerSecond,
+            percentile(all, 50) / 1e3, percentile(all, 99) / 1e3, percentile(all, 99.9) / 1e3,
+            all[all.length - 1] / 1e3,
+            allocationSupported ? allocated / totalTicks : -1, earthquakes, restarts,
+            (double) restarts / totalTicks);
+        console.println(entry.trim());
+        return entry;
+    }
+
+    private SessionResult runSession(int size, long seed, CountDownLatch ready, CountDownLatch start)
+            throws InterruptedException {
+        SessionResult result = new SessionResult();
+        result.tickNanos = new long[ticks];
+        Session session = newSession(size, seed, result);
+
+        for (int i = 0; i < warmup; i++) {
+            tick(session, i);
+            session = restartIfOver(session, size, seed, result);
+        }
+        result.restarts = 0;
+        result.earthquakes = 0;
+
+        ready.countDown();
+        start.await();
+
+        long allocatedBefore = Allocations.currentThread();
+        long rebuildBytes = 0; // الذاكرة المحجوزة لإعادة البناء لا تُحسب على الدورات
+        for (int i = 0; i < ticks; i++) {
+            long tickStart = System.nanoTime();
+            tick(session, i);
+            result.tickNanos[i] = System.nanoTime() - tickStart;
+            if (!session.gameManager.isGameRunning()) {
+                long rebuildStart = System.nanoTime();
+                long rebuildAllocated = Allocations.currentThread();
+                session = restartIfOver(session, size, seed, result);
+                rebuildBytes += Allocations.currentThread() - rebuildAllocated;
+                result.rebuildNanos += System.nanoTime() - rebuildStart;
+            }
+        }
+        long allocatedAfter = Allocations.currentThread();
+        result.allocatedBytes = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore - rebuildBytes;
+        return result;
+    }
+
+    /**
+     * بناء جلسة جديدة من GridFixture - الشبكة نفسها لنفس البذرة، وبذرة اللعبة تتغير مع كل إعادة
+     */
+    private static Session newSession(int size, long seed, SessionResult result) {
+        Grid grid = GridFixture.build(size, OBSTACLE_DENSITY, GridFixture.Terrain.MIXED, seed, MAX_HOUSES);
+        BFS.spreadPower(grid, 0, 0); // المنازل الموصولة تبقي اللعبة مستمرة بدل الخسارة المبكرة
+        EffectManager effectManager = new EffectManager(grid);
+        GameManager gameManager = new GameManager(grid, effectManager, false, GameManager.Difficulty.HARD);
+        gameManager.setSeed(seed * 31 + result.restarts);
+        effectManager.addListener(new EffectListener() {
+            @Override
+            public void onEarthquakeStarted(int magnitude, int affectedCells) {
+                result.earthquakes++;
+            }
+
+            @Override
+            public void onEarthquakeEnded() {
+            }
+
+            @Override
+            public void onDamageReported(int x, int y, String damageType, int severity) {
+            }
+
+            @Override
+            public void onCellDamaged(int x, int y, int damageLevel) {
+            }
+
+            @Override
+            public void onRepairNeeded(int x, int y, int repairCost) {
+            }
+
+            @Override
+            public void onCellRepaired(int x, int y) {
+            }
+        });
+        return new Session(gameManager, effectManager::triggerRandomEarthquake);
+    }
+
+    /**
+     * دورة واحدة: زلزال مجدول (إن وجد) ثم updateGame
+     */
+    private void tick(Session session, int index) {
+        if (quakeEvery > 0 && index % quakeEvery == quakeEvery - 1) {
+            session.gameManager.execute(session.quake);
+        }
+        session.gameManager.step();
+    }
+
+    /**
+     * إذا انتهت اللعبة تُبنى جلسة جديدة حتى يستمر القياس على شبكة سليمة (خارج وقت الدورة)
+     */
+    private static Session restartIfOver(Session session, int size, long seed, SessionResult result) {
+        if (session.gameManager.isGameRunning()) {
+            return session;
+        }
+        result.restarts++;
+        return newSession(size, seed, result);
+    }
+
+    static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
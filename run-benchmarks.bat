@@ -0,0 +1,5 @@
+@echo off
+cd /d "%~dp0"
+call mvn -q -f benchmarks\pom.xml package
+java -jar benchmarks\target\benchmarks.jar -prof gc -rf json -rff benchmarks\results.json %*
+pause
@@ -0,0 +1,5 @@
+@echo off
+cd /d "%~dp0"
+call mvn -q -f benchmarks\pom.xml package
+java -Djava.awt.headless=true -cp benchmarks\target\benchmarks.jar powergrid.bench.RenderBenchmark --out benchmarks\render-results.json %*
+pause
@@ -0,0 +1,5 @@
+@echo off
+cd /d "%~dp0"
+call mvn -q -f benchmarks\pom.xml package
+java -cp benchmarks\target\benchmarks.jar powergrid.bench.TickBenchmark --out benchmarks\tick-results.json %*
+pause
@@ -1,10 +1,19 @@
 package powergrid;
 
 import powergrid.manager.*;
+import powergrid.metrics.MetricsRegistry;
+import powergrid.metrics.export.MetricsFileSink;
+import powergrid.metrics.export.PrometheusEndpoint;
 import powergrid.model.*;
 import powergrid.ui.*;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
     public static void main(String[] args) {
@@ -18,6 +27,7 @@ public class Main {
                 
                 // 3. إنشاء مدير اللعبة
                 GameManager gameManager = new GameManager(grid, effectManager);
+                startMetricsExport(gameManager);
                 
                 // 4. إنشاء النافذة الرئيسية
                 JFrame frame = new JFrame("⚡ Power Grid - محاكاة إدارة الشبكة الكهربائية");
@@ -25,7 +35,7 @@ public class Main {
                 frame.setLayout(new BorderLayout(5, 5));
                 
                 // 5. إنشاء وحدات واجهة المستخدم
-                GameCanvas gameCanvas = new GameCanvas(grid, effectManager);
+                GameCanvas gameCanvas = new GameCanvas(gameManager);
                 ObstaclePanel obstaclePanel = new ObstaclePanel(effectManager);
                 GameInfoPanel gameInfoPanel = new GameInfoPanel(gameManager);
                 
@@ -69,6 +79,57 @@ public class Main {
         });
     }
     
+    /**
+     * تصدير المقاييس (اختياري) حسب خصائص النظام:
+     * -Dpowergrid.metrics.file=metrics.csv   ملف لقطات دوري (CSV أو line protocol حسب الامتداد)
+     * -Dpowergrid.metrics.port=9400          نقطة Prometheus على /metrics (على localhost فقط)
+     * -Dpowergrid.metrics.bind=0.0.0.0       عنوان آخر للنقطة - لعرضها على الشبكة صراحة
+     * -Dpowergrid.metrics.interval=10        فترة الكتابة في الملف بالثواني
+     */
+    private static void startMetricsExport(GameManager gameManager) {
+        String file = System.getProperty("powergrid.metrics.file");
+        String port = System.getProperty("powergrid.metrics.port");
+        if (file == null && port == null) {
+            return;
+        }
+        MetricsRegistry.setEnabled(true);
+        
+        try {
+            int portNumber = port == null ? -1 : parsePort(port);
+            if (file != null) {
+                Path path = Paths.get(file);
+                MetricsFileSink sink = new MetricsFileSink(path, MetricsFileSink.Format.forFile(path),
+                                                           MetricsRegistry.shared(), gameManager::getStats);
+                sink.start(Long.getLong("powergrid.metrics.interval", 10), TimeUnit.SECONDS);
+            }
+            if (port != null) {
+                String bind = System.getProperty("powergrid.metrics.bind");
+                InetSocketAddress address = bind == null
+                        ? new InetSocketAddress(InetAddress.getLoopbackAddress(), portNumber)
+                        : new InetSocketAddress(bind, portNumber);
+                PrometheusEndpoint endpoint = new PrometheusEndpoint(address, MetricsRegistry.shared(),
+                                                                     gameManager::getStats);
+                endpoint.start();
+                System.out.println("📊 المقاييس على http://" + endpoint.getAddress().getHostString() + ":"
+                                   + endpoint.getPort() + PrometheusEndpoint.PATH);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("تعذر بدء تصدير المقاييس: " + e.getMessage());
+        }
+    }
+
+    private static int parsePort(String port) {
+        try {
+            int value = Integer.parseInt(port.trim());
+            if (value >= 0 && value <= 0xFFFF) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // نفس الرسالة أدناه
+        }
+        throw new IllegalArgumentException("منفذ غير صالح في powergrid.metrics.port: " + port);
+    }
+    
     private static JMenuBar createMenuBar(GameManager gameManager) {
         JMenuBar menuBar = new JMenuBar();
         
@@ -99,13 +160,14 @@ public class Main {
         JMenuItem showStats = new JMenuItem("عرض الإحصائيات");
         
         showStats.addActionListener(e -> {
+            GameStats gameStats = gameManager.getStats();
             String stats = "📈 إحصائيات اللعبة:\n\n" +
-                          "النقاط: " + gameManager.getScore() + "\n" +
-                          "اليوم: " + gameManager.getDay() + "\n" +
-                          "الزلازل: " + gameManager.getEarthquakesTriggered() + "\n" +
-                          "الإصلاحات: " + gameManager.getRepairsCompleted() + "\n" +
-                          "تكلفة الأضرار: $" + gameManager.getTotalDamageCost() + "\n" +
-                          "كفاءة الطاقة: " + String.format("%.1f%%", gameManager.getPowerEfficiency() * 100);
+                          "النقاط: " + gameStats.getScore() + "\n" +
+                          "اليوم: " + gameStats.getDay() + "\n" +
+                          "الزلازل: " + gameStats.getEarthquakesTriggered() + "\n" +
+                          "الإصلاحات: " + gameStats.getRepairsCompleted() + "\n" +
+                          "تكلفة الأضرار: $" + gameStats.getTotalDamageCost() + "\n" +
+                          "كفاءة الطاقة: " + String.format("%.1f%%", gameStats.getPowerEfficiency() * 100);
             
             JOptionPane.showMessageDialog(null, stats, "الإحصائيات", 
                 JOptionPane.INFORMATION_MESSAGE);
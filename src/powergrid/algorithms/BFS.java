@@ -1,5 +1,7 @@
 package powergrid.algorithms;
 
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.jfr.PowerPropagationEvent;
 import powergrid.model.*;
 import powergrid.utils.Constants;
 import java.util.*;
@@ -61,6 +63,8 @@ public class BFS {
     }
     
     public static void spreadPower(Grid grid, int startX, int startY) {
+        PowerPropagationEvent event = new PowerPropagationEvent();
+        event.begin();
         boolean[][] visited = new boolean[grid.getWidth()][grid.getHeight()];
         Queue<Cell> queue = new LinkedList<>();
         
@@ -70,9 +74,11 @@ public class BFS {
         
         int[] dx = {0, 1, 0, -1};
         int[] dy = {1, 0, -1, 0};
+        int visitedCount = 0;
         
         while (!queue.isEmpty()) {
             Cell current = queue.poll();
+            visitedCount++;
             
             // توصيل الكهرباء للخلية الحالية
             current.setPowered(true);
@@ -106,5 +112,15 @@ public class BFS {
                 }
             }
         }
+        EngineMetrics.BFS_CELLS_VISITED.record(visitedCount);
+        event.end();
+        if (event.shouldCommit()) {
+            event.sourceX = startX;
+            event.sourceY = startY;
+            event.width = grid.getWidth();
+            event.height = grid.getHeight();
+            event.cellsVisited = visitedCount;
+            event.commit();
+        }
     }
 }
\ No newline at end of file
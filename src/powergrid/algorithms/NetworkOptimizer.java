@@ -0,0 +1,721 @@
+package powergrid.algorithms;
+
+import powergrid.model.GridSnapshot;
+import powergrid.utils.Constants;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * محسّن تصميم الشبكة بميزانية محددة: أي الأسلاك تُمد لتشغيل أكبر عدد من المنازل (أو السكان)
+ * دون تجاوز الميزانية - مسألة شتاينر بجوائز (Prize-Collecting) مع بحث محلي
+ *
+ * البناء الأولي:
+ *   - العامل 0: شجرة WiringPlanner لكل المنازل، ثم تقليمها بمضاعف لاغرانج (λ) حتى تدخل الميزانية،
+ *     أي إبقاء الفروع التي جائزتها أكبر من λ × تكلفتها، والبحث الثنائي عن أصغر λ مناسب
+ *   - باقي العمال: إضافة جشعة من الشبكة الحالية (أفضل جائزة / تكلفة توصيل في كل خطوة)
+ * البحث المحلي (لكل عامل بسلسلة عشوائية خاصة): قطع فروع عشوائية ثم إعادة الملء الجشع بالميزانية المحررة،
+ * وكل عدة تكرارات إعادة حساب شجرة شتاينر للمنازل الموصولة نفسها (إذا كانت أرخص يُستخدم الفرق للتوسع)
+ *
+ * يعمل على مجموعة خيوط ويرسل كل حل أفضل فوراً (anytime) - يمكن إيقافه في أي وقت بـ cancel()
+ * المحولات تنقل الكهرباء مثل الأسلاك تماماً (BFS.spreadPower) وبتكلفة أعلى، فالحلول أسلاك فقط
+ */
+public class NetworkOptimizer {
+    private static final int STALL_LIMIT = 60;     // تكرارات بلا تحسن قبل توقف العامل
+    private static final int MAX_CUTS = 6;         // أقصى عدد فروع تُقطع في الاضطراب الواحد
+    private static final int REOPTIMIZE_EVERY = 8; // إعادة حساب الشجرة كل N تكرار
+    private static final int LAMBDA_STEPS = 40;
+    private static final double NOISE = 0.5;       // تشويش نسبة الاختيار الجشع (GRASP) للتنويع
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    /**
+     * ما يُعظَّم
+     */
+    public enum Objective { HOUSES, POPULATION }
+
+    /**
+     * حل: الأسلاك بترتيب المد من الشبكة (كل بادئة موصولة) مع قيمته
+     */
+    public static final class Solution {
+        private final int width;
+        private final int height;
+        private final int[] cells; // y * width + x
+        private final int cost;
+        private final long prize;
+        private final int poweredHouses;
+        private final int newHouses;
+        private final long population;
+        private final int worker;
+        private final int iteration;
+        private final long elapsedNanos;
+
+        Solution(int width, int height, int[] cells, int cost, long prize, int poweredHouses, int newHouses,
+                 long population, int worker, int iteration, long elapsedNanos) {
+            this.width = width;
+            this.height = height;
+            this.cells = cells;
+            this.cost = cost;
+            this.prize = prize;
+            this.poweredHouses = poweredHouses;
+            this.newHouses = newHouses;
+            this.population = population;
+            this.worker = worker;
+            this.iteration = iteration;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getWireCount() { return cells.length; }
+        public int getX(int i) { return cells[i] % width; }
+        public int getY(int i) { return cells[i] / width; }
+        public int getCost() { return cost; }
+        public long getPrize() { return prize; }
+        public int getPoweredHouses() { return poweredHouses; }
+        public int getNewlyConnectedHouses() { return newHouses; }
+        public long getPopulation() { return population; }
+        public int getWorker() { return worker; }
+        public int getIteration() { return iteration; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        /**
+         * خطة قابلة للتطبيق عبر GameEngine.applyWiringPlan
+         */
+        public WiringPlanner.Plan toPlan() {
+            return new WiringPlanner.Plan(width, height, cells, cost, newHouses, 0, 0, elapsedNanos);
+        }
+
+        boolean isBetterThan(Solution other) {
+            return other == null || prize > other.prize || (prize == other.prize && cost < other.cost);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("حل: %d منزل (%d نسمة) بـ %d سلك تكلفة $%d - العامل %d، التكرار %d (%.1f ms)",
+                                 poweredHouses, population, cells.length, cost, worker, iteration,
+                                 elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * تشغيل جارٍ - للإيقاف من الواجهة وقراءة أفضل حل
+     */
+    public static final class Optimization {
+        private final ExecutorService executor;
+        private final CountDownLatch done;
+        private final Consumer<Solution> listener;
+        private volatile Solution best;
+
+        Optimization(ExecutorService executor, int workers, Consumer<Solution> listener) {
+            this.executor = executor;
+            this.done = new CountDownLatch(workers);
+            this.listener = listener;
+        }
+
+        /**
+         * إيقاف العمال (مقاطعة) - أفضل حل حتى الآن يبقى متاحاً
+         */
+        public void cancel() {
+            executor.shutdownNow();
+        }
+
+        public boolean isDone() { return done.getCount() == 0; }
+        public Solution getBest() { return best; }
+
+        /**
+         * انتظار انتهاء كل العمال
+         * @return false إذا انتهت المهلة قبل ذلك
+         */
+        public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+            return done.await(timeout, unit);
+        }
+
+        // الحلول تُرسل بالترتيب وكل حل أفضل من السابق - المستمع يُستدعى على خيط العامل
+        synchronized void offer(Solution solution) {
+            if (solution.isBetterThan(best)) {
+                best = solution;
+                if (listener != null) {
+                    listener.accept(solution);
+                }
+            }
+        }
+
+        void workerFinished() {
+            done.countDown();
+            if (done.getCount() == 0) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private final int threads;
+
+    public NetworkOptimizer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public NetworkOptimizer(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * بدء التحسين في الخلفية
+     * @param snapshot نسخة الشبكة
+     * @param budget الميزانية المتاحة (مثل GameEngine.getBudget)
+     * @param objective عدد المنازل أو مجموع السكان (Cell.getPopulation)
+     * @param seed بذرة سلاسل العمال العشوائية
+     * @param listener يستقبل كل حل أفضل على خيط العامل (الواجهة تستخدم invokeLater)
+     */
+    public Optimization start(GridSnapshot snapshot, int budget, Objective objective, long seed,
+                              Consumer<Solution> listener) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("الميزانية لا يمكن أن تكون سالبة");
+        }
+        Problem problem = new Problem(snapshot, budget, objective);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "optimizer-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Optimization optimization = new Optimization(executor, threads, listener);
+
+        // تقسيم السلاسل بالترتيب قبل التشغيل
+        SplittableRandom root = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        for (int w = 0; w < threads; w++) {
+            int worker = w;
+            SplittableRandom random = root.split();
+            executor.execute(() -> {
+                try {
+                    new Search(problem, worker, random, optimization, start).run();
+                } catch (InterruptedException e) {
+                    // إيقاف من المستدعي
+                } finally {
+                    optimization.workerFinished();
+                }
+            });
+        }
+        return optimization;
+    }
+
+    /**
+     * بيانات المسألة الثابتة - يقرأها كل العمال
+     */
+    private static final class Problem {
+        final GridSnapshot snapshot;
+        final int budget;
+        final int width;
+        final int height;
+        final int[] cost;          // تكلفة مد سلك (خلية فارغة)، 0 للخلايا الموصلة، -1 لا تُعبر
+        final boolean[] conductor; // سلك أو محول أو منزل موجود
+        final boolean[] house;
+        final int[] prize;         // جائزة المنزل حسب الهدف
+        final int[] population;
+        final int[] sources;
+        final int[] component;     // مجموعة الخلايا الموصلة المتصلة، -1 لغيرها
+        final int[] componentCell; // خلية ممثلة لكل مجموعة لها جائزة، -1 لغيرها
+        final long[] componentPrize;
+        final int componentCount;
+
+        Problem(GridSnapshot snapshot, int budget, Objective objective) {
+            this.snapshot = snapshot;
+            this.budget = budget;
+            this.width = snapshot.getWidth();
+            this.height = snapshot.getHeight();
+            int size = width * height;
+            this.cost = new int[size];
+            this.conductor = new boolean[size];
+            this.house = new boolean[size];
+            this.prize = new int[size];
+            this.population = new int[size];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int cell = y * width + x;
+                    int type = snapshot.getType(x, y);
+                    switch (type) {
+                        case Constants.EMPTY:
+                            cost[cell] = PathFinder.getTerrainCost(type);
+                            break;
+                        case Constants.HOUSE:
+                            population[cell] = snapshot.getPopulation(x, y);
+                            prize[cell] = objective == Objective.HOUSES ? 1 : population[cell];
+                            conductor[cell] = true;
+                            house[cell] = true;
+                            break;
+                        case Constants.WIRE:
+                        case Constants.TRANSFORMER:
+                            conductor[cell] = true;
+                            break;
+                        default: // المصادر لا تنقل الكهرباء بينها (BFS.spreadPower)
+                            cost[cell] = -1;
+                            break;
+                    }
+                }
+            }
+
+            this.sources = new int[snapshot.getPowerSourceCount()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = snapshot.getPowerSourceY(i) * width + snapshot.getPowerSourceX(i);
+            }
+
+            // مجموعات الخلايا الموصلة: توصيل أي خلية منها يشغل كل منازلها
+            this.component = new int[size];
+            Arrays.fill(component, -1);
+            int[] queue = new int[size];
+            int[] representatives = new int[size];
+            long[] prizes = new long[size];
+            int count = 0;
+            for (int cell = 0; cell < size; cell++) {
+                if (!conductor[cell] || component[cell] >= 0) {
+                    continue;
+                }
+                int head = 0, tail = 0;
+                long total = 0;
+                component[cell] = count;
+                queue[tail++] = cell;
+                while (head < tail) {
+                    int current = queue[head++];
+                    total += prize[current];
+                    int x = current % width, y = current / width;
+                    for (int d = 0; d < 4; d++) {
+                        int nx = x + DX[d], ny = y + DY[d];
+                        if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                            continue;
+                        }
+                        int next = ny * width + nx;
+                        if (conductor[next] && component[next] < 0) {
+                            component[next] = count;
+                            queue[tail++] = next;
+                        }
+                    }
+                }
+                prizes[count] = total;
+                representatives[count++] = total > 0 ? cell : -1;
+            }
+            this.componentCount = count;
+            this.componentCell = Arrays.copyOf(representatives, count);
+            this.componentPrize = Arrays.copyOf(prizes, count);
+        }
+    }
+
+    /**
+     * عامل بحث واحد: حل حالي يُحسّن بالاضطراب والملء الجشع
+     */
+    private static final class Search {
+        private final Problem problem;
+        private final int worker;
+        private final SplittableRandom random;
+        private final Optimization optimization;
+        private final long start;
+        private final int size;
+
+        // الحل الحالي
+        private boolean[] built;
+        private int cost;
+        private long prize;
+        private int houses;
+        private long population;
+
+        // نتيجة التقييم (BFS من المصادر)
+        private final boolean[] powered;
+        private final int[] treeParent;
+        private final int[] order;
+        private int orderCount;
+
+        // حقل الإضافة الجشعة
+        private final int[] distance;
+        private final int[] fieldParent;
+        private final int[] queue;
+        private final boolean[] tabu;
+        private final WiringPlanner.Heap heap = new WiringPlanner.Heap();
+        private int iteration;
+        private int initialHouses; // الموصولة قبل أي سلك جديد
+
+        Search(Problem problem, int worker, SplittableRandom random, Optimization optimization, long start) {
+            this.problem = problem;
+            this.worker = worker;
+            this.random = random;
+            this.optimization = optimization;
+            this.start = start;
+            this.size = problem.width * problem.height;
+            this.built = new boolean[size];
+            this.powered = new boolean[size];
+            this.treeParent = new int[size];
+            this.order = new int[size];
+            this.distance = new int[size];
+            this.fieldParent = new int[size];
+            this.queue = new int[size];
+            this.tabu = new boolean[problem.componentCount];
+        }
+
+        void run() throws InterruptedException {
+            evaluate();
+            initialHouses = houses;
+            if (worker == 0) {
+                // شجرة لكل المنازل ثم تقليمها للميزانية
+                applySteiner(new WiringPlanner(1).plan(problem.snapshot));
+                prune(problem.budget);
+            }
+            // العاملان 0 و 1 يبدآن بالاختيار الجشع الدقيق، والباقون بالمشوش لتنويع البدايات
+            greedyFill(worker <= 1 ? 0 : NOISE);
+            publish();
+
+            int stall = 0;
+            while (stall < STALL_LIMIT) {
+                checkInterrupted();
+                iteration++;
+                boolean[] saved = built.clone();
+                int savedCost = cost;
+                long savedPrize = prize;
+
+                perturb();
+                greedyFill(NOISE);
+                if (iteration % REOPTIMIZE_EVERY == 0) {
+                    reoptimize();
+                }
+
+                if (prize > savedPrize || (prize == savedPrize && cost < savedCost)) {
+                    stall = 0;
+                    publish();
+                } else if (prize == savedPrize && cost == savedCost) {
+                    stall++; // حل مكافئ - يُقبل للتنقل على الهضبة
+                } else {
+                    stall++;
+                    built = saved;
+                    evaluate();
+                }
+            }
+        }
+
+        private void publish() {
+            int[] cells = new int[orderCount];
+            int count = 0;
+            for (int i = 0; i < orderCount; i++) {
+                if (built[order[i]]) {
+                    cells[count++] = order[i];
+                }
+            }
+            optimization.offer(new Solution(problem.width, problem.height, Arrays.copyOf(cells, count), cost, prize,
+                                            houses, houses - initialHouses, population, worker, iteration,
+                                            System.nanoTime() - start));
+        }
+
+        // ===== التقييم =====
+
+        /**
+         * BFS من المصادر عبر الخلايا الموصلة والأسلاك المبنية (قواعد BFS.spreadPower)
+         * يحسب القيمة والتكلفة وشجرة التوصيل، ويزيل الأسلاك المبنية غير الموصولة
+         */
+        private void evaluate() {
+            Arrays.fill(powered, false);
+            orderCount = 0;
+            for (int source : problem.sources) {
+                if (!powered[source]) {
+                    powered[source] = true;
+                    treeParent[source] = -1;
+                    order[orderCount++] = source;
+                }
+            }
+            int width = problem.width, height = problem.height;
+            for (int head = 0; head < orderCount; head++) {
+                int cell = order[head];
+                int x = cell % width, y = cell / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    if (!powered[next] && (problem.conductor[next] || built[next])) {
+                        powered[next] = true;
+                        treeParent[next] = cell;
+                        order[orderCount++] = next;
+                    }
+                }
+            }
+
+            cost = 0;
+            prize = 0;
+            houses = 0;
+            population = 0;
+            for (int cell = 0; cell < size; cell++) {
+                if (built[cell] && !powered[cell]) {
+                    built[cell] = false;
+                }
+            }
+            for (int i = 0; i < orderCount; i++) {
+                int cell = order[i];
+                if (built[cell]) {
+                    cost += problem.cost[cell];
+                }
+                if (problem.house[cell]) {
+                    prize += problem.prize[cell];
+                    population += problem.population[cell];
+                    houses++;
+                }
+            }
+        }
+
+        // ===== التقليم بمضاعف لاغرانج =====
+
+        /**
+         * إبقاء الفروع ذات القيمة الموجبة (الجائزة - λ × التكلفة) على شجرة التوصيل،
+         * بأصغر λ يجعل التكلفة ضمن الميزانية - الفروع المبنية بلا جائزة تُزال دائماً
+         */
+        private void prune(int budget) {
+            double[] value = new double[size];
+            boolean[] kept = new boolean[size];
+            double low = 1e-9;
+            double high = Math.max(1.0, (double) prize) + 1.0;
+            if (keptCost(low, value, kept) > budget) {
+                for (int step = 0; step < LAMBDA_STEPS; step++) {
+                    double middle = (low + high) / 2;
+                    if (keptCost(middle, value, kept) > budget) {
+                        low = middle;
+                    } else {
+                        high = middle;
+                    }
+                }
+                low = high;
+            }
+            keptCost(low, value, kept);
+            for (int i = 0; i < orderCount; i++) {
+                int cell = order[i];
+                if (built[cell] && !kept[cell]) {
+                    built[cell] = false;
+                }
+            }
+            evaluate();
+        }
+
+        private long keptCost(double lambda, double[] value, boolean[] kept) {
+            for (int i = 0; i < orderCount; i++) {
+                int cell = order[i];
+                value[cell] = problem.prize[cell] - (built[cell] ? lambda * problem.cost[cell] : 0);
+            }
+            for (int i = orderCount - 1; i > 0; i--) {
+                int cell = order[i];
+                int parent = treeParent[cell];
+                if (parent >= 0 && value[cell] > 0) {
+                    value[parent] += value[cell];
+                }
+            }
+            long total = 0;
+            for (int i = 0; i < orderCount; i++) {
+                int cell = order[i];
+                int parent = treeParent[cell];
+                // الخلايا الموصلة الموجودة لا تُقطع، والمبنية تبقى إذا كان فرعها مربحاً
+                kept[cell] = parent < 0 || (kept[parent] && (!built[cell] || value[cell] > 0));
+                if (kept[cell] && built[cell]) {
+                    total += problem.cost[cell];
+                }
+            }
+            return total;
+        }
+
+        // ===== الملء الجشع =====
+
+        /**
+         * إضافة أفضل مجموعة منازل (جائزة / تكلفة توصيل) ما دامت الميزانية تكفي
+         * الحقل من الشبكة الموصولة يُحدّث تدريجياً بعد كل إضافة (المسار الجديد مصدر بمسافة صفر)
+         * @param noise تشويش عشوائي نسبي على النسبة (0 = الأفضل دائماً)
+         */
+        private void greedyFill(double noise) throws InterruptedException {
+            int remaining = problem.budget - cost;
+            Arrays.fill(distance, UNREACHED);
+            for (int i = 0; i < orderCount; i++) {
+                distance[order[i]] = 0;
+                fieldParent[order[i]] = -1;
+                heap.push(0, order[i]);
+            }
+            expand(remaining);
+
+            while (true) {
+                int best = -1;
+                double bestRatio = 0;
+                for (int c = 0; c < problem.componentCount; c++) {
+                    int cell = problem.componentCell[c];
+                    if (cell < 0 || tabu[c] || distance[cell] == 0 || distance[cell] > remaining) {
+                        continue;
+                    }
+                    // خلايا المجموعة كلها بنفس المسافة (تكلفتها صفر)
+                    double ratio = problem.componentPrize[c] / (double) Math.max(1, distance[cell]);
+                    if (noise > 0) {
+                        ratio *= 1 + noise * random.nextDouble();
+                    }
+                    if (ratio > bestRatio) {
+                        bestRatio = ratio;
+                        best = cell;
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+
+                remaining -= distance[best];
+                int path = 0;
+                for (int cell = best; cell >= 0 && distance[cell] > 0; cell = fieldParent[cell]) {
+                    if (problem.cost[cell] > 0) {
+                        built[cell] = true;
+                    }
+                    queue[path++] = cell;
+                }
+                for (int i = 0; i < path; i++) {
+                    distance[queue[i]] = 0;
+                    fieldParent[queue[i]] = -1;
+                    heap.push(0, queue[i]);
+                }
+                spreadZero(path);
+                expand(remaining);
+            }
+            Arrays.fill(tabu, false);
+            evaluate();
+        }
+
+        // المجموعات الموصلة الملاصقة للمسار الجديد (أول tail خلية في queue) صارت موصولة أيضاً
+        private void spreadZero(int tail) {
+            int head = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell % problem.width, y = cell / problem.width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= problem.width || ny >= problem.height) {
+                        continue;
+                    }
+                    int next = ny * problem.width + nx;
+                    if (distance[next] != 0 && problem.conductor[next]) {
+                        distance[next] = 0;
+                        fieldParent[next] = -1;
+                        heap.push(0, next);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Dijkstra من عناصر الكومة حتى تفرغ، بدون تجاوز الميزانية المتبقية
+         */
+        private void expand(int remaining) throws InterruptedException {
+            int width = problem.width, height = problem.height;
+            int pops = 0;
+            while (!heap.isEmpty()) {
+                long key = heap.topKey();
+                int cell = heap.topCell();
+                heap.pop();
+                if (key != distance[cell]) {
+                    continue;
+                }
+                if ((++pops & 0xFFFF) == 0) {
+                    checkInterrupted();
+                }
+                int x = cell % width, y = cell / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    int step = problem.cost[next];
+                    if (step < 0) {
+                        continue;
+                    }
+                    long candidate = key + step;
+                    if (candidate <= remaining && candidate < distance[next]) {
+                        distance[next] = (int) candidate;
+                        fieldParent[next] = cell;
+                        heap.push(candidate, next);
+                    }
+                }
+            }
+        }
+
+        // ===== الاضطراب وإعادة الحساب =====
+
+        /**
+         * قطع فروع عشوائية من الأسلاك المبنية، ومنع إعادة المجموعات المقطوعة في هذا التكرار
+         */
+        private void perturb() {
+            int builtCount = 0;
+            for (int i = 0; i < orderCount; i++) {
+                if (built[order[i]]) {
+                    builtCount++;
+                }
+            }
+            if (builtCount == 0) {
+                return;
+            }
+            boolean[] cut = new boolean[size];
+            int cuts = 1 + random.nextInt(MAX_CUTS);
+            for (int k = 0; k < cuts; k++) {
+                int pick = random.nextInt(builtCount);
+                for (int i = 0; i < orderCount; i++) {
+                    if (built[order[i]] && pick-- == 0) {
+                        cut[order[i]] = true;
+                        break;
+                    }
+                }
+            }
+            for (int i = 0; i < orderCount; i++) {
+                int cell = order[i];
+                int parent = treeParent[cell];
+                if (parent >= 0 && cut[parent]) {
+                    cut[cell] = true;
+                }
+                if (cut[cell]) {
+                    if (problem.component[cell] >= 0) {
+                        tabu[problem.component[cell]] = true;
+                    }
+                    built[cell] = false;
+                }
+            }
+            evaluate();
+        }
+
+        /**
+         * شجرة شتاينر جديدة للمنازل الموصولة حالياً - إذا كانت أرخص تحل محل الأسلاك الحالية
+         * والفرق يُستخدم في الملء الجشع
+         */
+        private void reoptimize() throws InterruptedException {
+            boolean[] targets = new boolean[size];
+            for (int i = 0; i < orderCount; i++) {
+                if (problem.prize[order[i]] > 0) {
+                    targets[order[i]] = true;
+                }
+            }
+            WiringPlanner.Plan plan = new WiringPlanner(1).plan(problem.snapshot, targets);
+            if (plan.getTotalCost() >= cost) {
+                return;
+            }
+            boolean[] saved = built.clone();
+            int savedCost = cost;
+            long savedPrize = prize;
+            applySteiner(plan);
+            greedyFill(0);
+            if (prize < savedPrize || (prize == savedPrize && cost >= savedCost)) {
+                built = saved;
+                evaluate();
+            }
+        }
+
+        private void applySteiner(WiringPlanner.Plan plan) {
+            Arrays.fill(built, false);
+            for (int i = 0; i < plan.getWireCount(); i++) {
+                built[plan.getY(i) * problem.width + plan.getX(i)] = true;
+            }
+            evaluate();
+        }
+
+        private void checkInterrupted() throws InterruptedException {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+}
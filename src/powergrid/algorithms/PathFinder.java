@@ -1,5 +1,8 @@
 package powergrid.algorithms;
 
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.MetricsRegistry;
+import powergrid.metrics.jfr.PathQueryEvent;
 import powergrid.model.*;
 import powergrid.utils.Constants;
 import java.util.*;
@@ -32,6 +35,9 @@ public class PathFinder {
             return path;
         }
         
+        long start = MetricsRegistry.start();
+        PathQueryEvent event = beginQuery("BFS", grid.getWidth(), grid.getHeight(), startX, startY, targetX, targetY);
+        int expanded = 0;
         boolean[][] visited = new boolean[grid.getWidth()][grid.getHeight()];
         Cell[][] parent = new Cell[grid.getWidth()][grid.getHeight()];
         Queue<Cell> queue = new LinkedList<>();
@@ -45,10 +51,13 @@ public class PathFinder {
         
         while (!queue.isEmpty()) {
             Cell current = queue.poll();
+            expanded++;
             
             // إذا وصلنا للهدف
             if (current.getX() == targetX && current.getY() == targetY) {
-                return reconstructPath(parent, startCell, current);
+                List<Cell> path = reconstructPath(parent, startCell, current);
+                recordQuery(start, event, expanded, path.size());
+                return path;
             }
             
             // استكشاف الجيران
@@ -69,9 +78,73 @@ public class PathFinder {
             }
         }
         
+        recordQuery(start, event, expanded, -1);
         return new ArrayList<>(); // لا يوجد مسار
     }
     
+    /**
+     * حساب طول أقصر مسار على نسخة ثابتة من الشبكة باستخدام BFS
+     * نفس قواعد findShortestPathBFS لكن بمصفوفات بدائية، لذا يمكن تشغيلها خارج خيط الواجهة
+     * @param snapshot نسخة الشبكة
+     * @param startX نقطة البداية X
+     * @param startY نقطة البداية Y
+     * @param targetX نقطة الهدف X
+     * @param targetY نقطة الهدف Y
+     * @return عدد خلايا المسار (بدون نقطة البداية)، أو -1 إذا لم يوجد مسار
+     */
+    public static int findShortestPathLength(GridSnapshot snapshot, int startX, int startY,
+                                             int targetX, int targetY) {
+        if (!snapshot.isValidPosition(startX, startY) || !snapshot.isValidPosition(targetX, targetY)) {
+            return -1;
+        }
+        
+        if (startX == targetX && startY == targetY) {
+            return 1;
+        }
+        
+        int width = snapshot.getWidth();
+        int height = snapshot.getHeight();
+        int[] distance = new int[width * height];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[width * height];
+        int head = 0, tail = 0;
+        
+        long startNanos = MetricsRegistry.start();
+        PathQueryEvent event = beginQuery("BFS-length", width, height, startX, startY, targetX, targetY);
+        int start = startY * width + startX;
+        int target = targetY * width + targetX;
+        queue[tail++] = start;
+        distance[start] = 0;
+        
+        int[][] directions = {{0, 1}, {1, 0}, {0, -1}, {-1, 0}};
+        
+        while (head < tail) {
+            int current = queue[head++];
+            if (current == target) {
+                recordQuery(startNanos, event, head, distance[current]);
+                return distance[current];
+            }
+            
+            int x = current % width;
+            int y = current / width;
+            for (int[] dir : directions) {
+                int newX = x + dir[0];
+                int newY = y + dir[1];
+                
+                if (snapshot.isValidPosition(newX, newY)) {
+                    int next = newY * width + newX;
+                    if (distance[next] < 0 && isPassableType(snapshot.getType(newX, newY))) {
+                        distance[next] = distance[current] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        
+        recordQuery(startNanos, event, head, -1);
+        return -1;
+    }
+    
     /**
      * إيجاد المسار بأقل تكلفة باستخدام Uniform Cost Search
      * @param grid الشبكة
@@ -84,6 +157,9 @@ public class PathFinder {
     public static List<Cell> findCheapestPathUCS(Grid grid, int startX, int startY,
                                                  int targetX, int targetY) {
         // تنفيذ UCS
+        long start = MetricsRegistry.start();
+        PathQueryEvent event = beginQuery("UCS", grid.getWidth(), grid.getHeight(), startX, startY, targetX, targetY);
+        int expanded = 0;
         PriorityQueue<Node> frontier = new PriorityQueue<>(Comparator.comparingInt(n -> n.cost));
         boolean[][] visited = new boolean[grid.getWidth()][grid.getHeight()];
         Cell[][] parent = new Cell[grid.getWidth()][grid.getHeight()];
@@ -109,10 +185,13 @@ public class PathFinder {
             }
             
             visited[currentCell.getX()][currentCell.getY()] = true;
+            expanded++;
             
             // إذا وصلنا للهدف
             if (currentCell.getX() == targetX && currentCell.getY() == targetY) {
-                return reconstructPath(parent, startCell, currentCell);
+                List<Cell> path = reconstructPath(parent, startCell, currentCell);
+                recordQuery(start, event, expanded, path.size());
+                return path;
             }
             
             // استكشاف الجيران
@@ -137,6 +216,7 @@ public class PathFinder {
             }
         }
         
+        recordQuery(start, event, expanded, -1);
         return new ArrayList<>();
     }
     
@@ -152,6 +232,9 @@ public class PathFinder {
     public static List<Cell> findPathAStar(Grid grid, int startX, int startY,
                                            int targetX, int targetY) {
         // تنفيذ A* Star
+        long start = MetricsRegistry.start();
+        PathQueryEvent event = beginQuery("A*", grid.getWidth(), grid.getHeight(), startX, startY, targetX, targetY);
+        int expanded = 0;
         PriorityQueue<AStarNode> openSet = new PriorityQueue<>(
             Comparator.comparingInt(n -> n.fCost)
         );
@@ -181,9 +264,12 @@ public class PathFinder {
         while (!openSet.isEmpty()) {
             AStarNode current = openSet.poll();
             Cell currentCell = current.cell;
+            expanded++;
             
             if (currentCell.getX() == targetX && currentCell.getY() == targetY) {
-                return reconstructPath(cameFrom, startCell, currentCell);
+                List<Cell> path = reconstructPath(cameFrom, startCell, currentCell);
+                recordQuery(start, event, expanded, path.size());
+                return path;
             }
             
             closedSet[currentCell.getX()][currentCell.getY()] = true;
@@ -220,6 +306,7 @@ public class PathFinder {
             }
         }
         
+        recordQuery(start, event, expanded, -1);
         return new ArrayList<>();
     }
     
@@ -317,6 +404,36 @@ public class PathFinder {
     
     // ============ الدوال المساعدة ============
     
+    // بدء حدث JFR للاستعلام - الحقول تُملأ فقط إذا كان الحدث مفعلاً
+    private static PathQueryEvent beginQuery(String algorithm, int width, int height,
+                                             int startX, int startY, int targetX, int targetY) {
+        PathQueryEvent event = new PathQueryEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.algorithm = algorithm;
+            event.width = width;
+            event.height = height;
+            event.startX = startX;
+            event.startY = startY;
+            event.targetX = targetX;
+            event.targetY = targetY;
+        }
+        return event;
+    }
+    
+    // تسجيل استعلام مسار في المقاييس (عدد العقد الموسعة والزمن) وفي JFR إذا تجاوز الحد
+    private static void recordQuery(long start, PathQueryEvent event, int expanded, int pathLength) {
+        EngineMetrics.PATH_QUERIES.increment();
+        EngineMetrics.PATH_EXPANDED.record(expanded);
+        EngineMetrics.PATH_DURATION.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodesExpanded = expanded;
+            event.pathLength = pathLength;
+            event.commit();
+        }
+    }
+    
     private static List<Cell> reconstructPath(Cell[][] parent, Cell start, Cell end) {
         List<Cell> path = new ArrayList<>();
         Cell current = end;
@@ -333,11 +450,15 @@ public class PathFinder {
     private static boolean isPassable(Cell cell) {
         if (cell == null) return false;
         
-        return cell.getType() == Constants.EMPTY ||
-               cell.getType() == Constants.WIRE ||
-               cell.getType() == Constants.TRANSFORMER ||
-               cell.getType() == Constants.HOUSE ||
-               cell.getType() == Constants.POWER_SOURCE;
+        return isPassableType(cell.getType());
+    }
+    
+    private static boolean isPassableType(int type) {
+        return type == Constants.EMPTY ||
+               type == Constants.WIRE ||
+               type == Constants.TRANSFORMER ||
+               type == Constants.HOUSE ||
+               type == Constants.POWER_SOURCE;
     }
     
     private static boolean isPowerTransmittable(Cell cell) {
@@ -369,7 +490,14 @@ public class PathFinder {
     }
     
     private static int getTerrainCost(Cell cell) {
-        switch (cell.getType()) {
+        return getTerrainCost(cell.getType());
+    }
+    
+    /**
+     * تكلفة مد سلك في خلية حسب نوع التضاريس (نفس النموذج لكل المخططات)
+     */
+    public static int getTerrainCost(int type) {
+        switch (type) {
             case Constants.EMPTY:
                 return Constants.WIRE_COST;
             case Constants.WATER:
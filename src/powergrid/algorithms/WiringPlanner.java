@@ -0,0 +1,657 @@
+package powergrid.algorithms;
+
+import powergrid.model.ChunkedGrid;
+import powergrid.model.GridSnapshot;
+import powergrid.utils.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * مخطط توصيل تلقائي: شبكة أسلاك قريبة من أقل تكلفة تصل كل المنازل غير الموصولة بالشبكة الحالية
+ * (شجرة شتاينر تقريبية بطريقة Mehlhorn - لا تزيد عن ضعف الأمثل)
+ *
+ * 1. حقل مسافات من كل الأطراف معاً (Dijkstra متعدد المصادر): لكل خلية أقرب طرف والمسافة إليه
+ *    الأطراف هي المنازل غير الموصولة، والشبكة الموصولة بالمصادر طرف واحد
+ * 2. كل خليتين متجاورتين من منطقتين مختلفتين تعطي حافة بين طرفيهما بطول المسارين
+ * 3. شجرة الامتداد الأصغر (Kruskal) على هذه الحواف، ثم فرد كل حافة إلى مسارها في الحقل
+ *
+ * التكلفة من PathFinder.getTerrainCost للخلايا الفارغة، والخلايا الموصلة (أسلاك، محولات، منازل) مجانية
+ * الأسلاك تُمد على الخلايا الفارغة فقط (مثل GameEngine.placeWire)، فالماء والجبال لا تُعبر
+ *
+ * الحقل يُحسب بالتوازي على مربعات 64x64 (حجم قطع ChunkedGrid): كل مربع يشغل Dijkstra محلياً،
+ * ثم يقرأ حدود جيرانه من نسخة ثابتة، وتتكرر الجولات حتى لا يتغير شيء
+ * النتيجة نفسها مهما كان عدد الخيوط
+ */
+public class WiringPlanner {
+    private static final int TILE_SIZE = ChunkedGrid.CHUNK_SIZE;
+    private static final long INFINITE = Long.MAX_VALUE;
+    private static final int NETWORK = 0; // رقم طرف الشبكة الموصولة
+
+    /**
+     * خطة التوصيل: الخلايا بترتيب المد - كل بادئة من الخطة موصولة بالشبكة،
+     * فتطبيق جزء منها (عند نفاد الميزانية) لا يترك أسلاكاً معزولة
+     */
+    public static final class Plan {
+        private final int width;
+        private final int height;
+        private final int[] cells; // y * width + x
+        private final int totalCost;
+        private final int connectedHouses;
+        private final int unreachableHouses;
+        private final int rounds;
+        private final long elapsedNanos;
+
+        Plan(int width, int height, int[] cells, int totalCost, int connectedHouses, int unreachableHouses,
+             int rounds, long elapsedNanos) {
+            this.width = width;
+            this.height = height;
+            this.cells = cells;
+            this.totalCost = totalCost;
+            this.connectedHouses = connectedHouses;
+            this.unreachableHouses = unreachableHouses;
+            this.rounds = rounds;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getWireCount() { return cells.length; }
+        public int getX(int i) { return cells[i] % width; }
+        public int getY(int i) { return cells[i] / width; }
+        public int getTotalCost() { return totalCost; }
+        public int getConnectedHouses() { return connectedHouses; }
+        public int getUnreachableHouses() { return unreachableHouses; }
+        public int getRounds() { return rounds; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("خطة توصيل: %d سلك بتكلفة $%d، %d منزل موصول، %d منزل لا يمكن الوصول إليه (%.1f ms)",
+                                 cells.length, totalCost, connectedHouses, unreachableHouses, elapsedNanos / 1e6);
+        }
+    }
+
+    /**
+     * كومة أولوية بدائية (مفتاح + خلية) - واحدة لكل خيط
+     */
+    static final class Heap {
+        private long[] keys = new long[256];
+        private int[] cells = new int[256];
+        private int size;
+
+        void push(long key, int cell) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                keys[i] = keys[parent];
+                cells[i] = cells[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+        }
+
+        long topKey() { return keys[0]; }
+        int topCell() { return cells[0]; }
+        boolean isEmpty() { return size == 0; }
+
+        void pop() {
+            long key = keys[--size];
+            int cell = cells[size];
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (keys[child] >= key) {
+                    break;
+                }
+                keys[i] = keys[child];
+                cells[i] = cells[child];
+                i = child;
+            }
+            keys[i] = key;
+            cells[i] = cell;
+        }
+    }
+
+    private interface TileWork {
+        void run(int tile, Heap heap);
+    }
+
+    private final int threads;
+
+    public WiringPlanner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WiringPlanner(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * حساب خطة التوصيل
+     * @param snapshot نسخة الشبكة (من GameManager.getGridSnapshot أو GridSnapshot.capture)
+     */
+    public Plan plan(GridSnapshot snapshot) throws InterruptedException {
+        return plan(snapshot, null);
+    }
+
+    /**
+     * خطة توصيل لجزء من المنازل فقط (يستخدمها NetworkOptimizer)
+     * @param targets المنازل المطلوبة حسب رقم الخلية (null للكل) - باقي المنازل خلايا موصلة عادية
+     */
+    Plan plan(GridSnapshot snapshot, boolean[] targets) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "wiring-worker");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        try {
+            Run run = new Run(snapshot, targets, executor);
+            return run.solve(start);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * حالة تخطيط واحد
+     * المفتاح لكل خلية = (المسافة << 32) | رقم الطرف، فالمقارنة بالمسافة ثم برقم الطرف
+     */
+    private final class Run {
+        private final ExecutorService executor;
+        private final int width;
+        private final int height;
+        private final int tilesX;
+        private final int tileCount;
+
+        private final int[] cost;       // تكلفة دخول الخلية، -1 لا تُعبر
+        private final long[] key;
+        private final int[] parent;     // الخلية السابقة نحو الطرف، -1 للطرف نفسه
+        private final long[] border;    // نسخة مفاتيح حدود المربعات - تقرأها المربعات المجاورة
+        private final boolean[] dirty;  // خلايا تغيرت وتحتاج توسيعاً في المربع
+
+        private final boolean[] tileActive;
+        private final boolean[] borderChanged;
+        private int terminals;
+        private int[] housesPerTerminal;
+
+        Run(GridSnapshot snapshot, boolean[] targets, ExecutorService executor) {
+            this.executor = executor;
+            this.width = snapshot.getWidth();
+            this.height = snapshot.getHeight();
+            this.tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+            this.tileCount = tilesX * ((height + TILE_SIZE - 1) / TILE_SIZE);
+
+            int size = width * height;
+            this.cost = new int[size];
+            this.key = new long[size];
+            this.parent = new int[size];
+            this.border = new long[size];
+            this.dirty = new boolean[size];
+            this.tileActive = new boolean[tileCount];
+            this.borderChanged = new boolean[tileCount];
+            Arrays.fill(key, INFINITE);
+            Arrays.fill(parent, -1);
+            Arrays.fill(border, INFINITE);
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    cost[y * width + x] = cellCost(snapshot.getType(x, y));
+                }
+            }
+            seedTerminals(snapshot, targets);
+        }
+
+        private int cellCost(int type) {
+            switch (type) {
+                case Constants.EMPTY:
+                    return PathFinder.getTerrainCost(type);
+                case Constants.WIRE:
+                case Constants.TRANSFORMER:
+                case Constants.HOUSE:
+                case Constants.POWER_SOURCE:
+                    return 0;
+                default:
+                    return -1;
+            }
+        }
+
+        /**
+         * الشبكة الموصولة (BFS من المصادر بقواعد BFS.spreadPower) طرف رقم 0،
+         * وكل مجموعة منازل متصلة ببعضها (مباشرة أو بأسلاك) خارجها طرف واحد
+         */
+        private void seedTerminals(GridSnapshot snapshot, boolean[] targets) {
+            int[] queue = new int[width * height];
+            int[] houses = new int[width * height + 1];
+            for (int i = 0; i < snapshot.getPowerSourceCount(); i++) {
+                int cell = snapshot.getPowerSourceY(i) * width + snapshot.getPowerSourceX(i);
+                if (key[cell] == INFINITE) {
+                    houses[NETWORK] += flood(snapshot, cell, NETWORK, queue);
+                }
+            }
+
+            terminals = 1;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    int cell = y * width + x;
+                    if (key[cell] == INFINITE && snapshot.getType(x, y) == Constants.HOUSE
+                        && (targets == null || targets[cell])) {
+                        houses[terminals] = flood(snapshot, cell, terminals, queue);
+                        terminals++;
+                    }
+                }
+            }
+            housesPerTerminal = Arrays.copyOf(houses, terminals);
+        }
+
+        /**
+         * تعيين كل الخلايا الموصلة المتصلة بالخلية لنفس الطرف بمسافة صفر
+         * @return عدد المنازل في المجموعة
+         */
+        private int flood(GridSnapshot snapshot, int start, int owner, int[] queue) {
+            int head = 0, tail = 0;
+            int houses = 0;
+            seed(start, owner);
+            queue[tail++] = start;
+            while (head < tail) {
+                int cell = queue[head++];
+                int x = cell % width, y = cell / width;
+                if (snapshot.getType(x, y) == Constants.HOUSE) {
+                    houses++;
+                }
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    int type = snapshot.getType(nx, ny);
+                    if (key[next] == INFINITE && (type == Constants.WIRE || type == Constants.TRANSFORMER
+                                                  || type == Constants.HOUSE)) {
+                        seed(next, owner);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return houses;
+        }
+
+        private void seed(int cell, int owner) {
+            key[cell] = owner;
+            dirty[cell] = true;
+            tileActive[tileOf(cell % width, cell / width)] = true;
+        }
+
+        Plan solve(long start) throws InterruptedException {
+            int rounds = computeField();
+            long[] edges = collectEdges();
+
+            // Kruskal على الأطراف
+            int[] sets = new int[terminals];
+            for (int i = 0; i < terminals; i++) {
+                sets[i] = i;
+            }
+            long[] accepted = new long[Math.max(0, terminals - 1)];
+            int acceptedCount = 0;
+            for (long edge : edges) {
+                int u = (int) (edge & 0xFFFFFFFFL) >>> 1;
+                int v = (edge & 1) == 0 ? u + 1 : u + width;
+                int a = find(sets, owner(u));
+                int b = find(sets, owner(v));
+                if (a != b) {
+                    sets[a] = b;
+                    accepted[acceptedCount++] = edge;
+                    if (acceptedCount == accepted.length) {
+                        break;
+                    }
+                }
+            }
+
+            // فرد الحواف الموصولة بالشبكة إلى مساراتها
+            int network = find(sets, NETWORK);
+            boolean[] inTree = new boolean[width * height];
+            for (int i = 0; i < acceptedCount; i++) {
+                int u = (int) (accepted[i] & 0xFFFFFFFFL) >>> 1;
+                int v = (accepted[i] & 1) == 0 ? u + 1 : u + width;
+                if (find(sets, owner(u)) == network) {
+                    markPath(u, inTree);
+                    markPath(v, inTree);
+                }
+            }
+
+            int connected = 0;
+            int unreachable = 0;
+            for (int t = 1; t < terminals; t++) {
+                if (find(sets, t) == network) {
+                    connected += housesPerTerminal[t];
+                } else {
+                    unreachable += housesPerTerminal[t];
+                }
+            }
+            int[] order = orderFromNetwork(inTree);
+            int totalCost = 0;
+            for (int cell : order) {
+                totalCost += cost[cell];
+            }
+            return new Plan(width, height, order, totalCost, connected, unreachable,
+                            rounds, System.nanoTime() - start);
+        }
+
+        // ===== حقل المسافات =====
+
+        /**
+         * جولات متكررة: Dijkstra محلي في المربعات النشطة، ثم تبادل الحدود مع الجيران
+         * @return عدد الجولات
+         */
+        private int computeField() throws InterruptedException {
+            int[] active = new int[tileCount];
+            int[] exchange = new int[tileCount];
+            boolean[] queued = new boolean[tileCount];
+            int rounds = 0;
+            while (true) {
+                int activeCount = 0;
+                for (int t = 0; t < tileCount; t++) {
+                    if (tileActive[t]) {
+                        tileActive[t] = false;
+                        active[activeCount++] = t;
+                    }
+                }
+                if (activeCount == 0) {
+                    return rounds;
+                }
+                rounds++;
+                forEachTile(active, activeCount, this::relaxTile);
+
+                // المربعات المجاورة لحدود تغيرت تقرأ الحدود الجديدة
+                int exchangeCount = 0;
+                for (int i = 0; i < activeCount; i++) {
+                    int t = active[i];
+                    if (!borderChanged[t]) {
+                        continue;
+                    }
+                    borderChanged[t] = false;
+                    int tx = t % tilesX, ty = t / tilesX;
+                    for (int d = 0; d < 4; d++) {
+                        int nx = tx + DX[d], ny = ty + DY[d];
+                        int n = ny * tilesX + nx;
+                        if (nx >= 0 && ny >= 0 && nx < tilesX && n < tileCount && !queued[n]) {
+                            queued[n] = true;
+                            exchange[exchangeCount++] = n;
+                        }
+                    }
+                }
+                for (int i = 0; i < exchangeCount; i++) {
+                    queued[exchange[i]] = false;
+                }
+                forEachTile(exchange, exchangeCount, (tile, heap) -> pullBorder(tile));
+            }
+        }
+
+        // Dijkstra داخل المربع من الخلايا المتغيرة - يكتب في خلايا المربع فقط
+        private void relaxTile(int tile, Heap heap) {
+            int x0 = (tile % tilesX) * TILE_SIZE, y0 = (tile / tilesX) * TILE_SIZE;
+            int x1 = Math.min(width, x0 + TILE_SIZE), y1 = Math.min(height, y0 + TILE_SIZE);
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    int cell = y * width + x;
+                    if (dirty[cell]) {
+                        dirty[cell] = false;
+                        heap.push(key[cell], cell);
+                    }
+                }
+            }
+
+            while (!heap.isEmpty()) {
+                long current = heap.topKey();
+                int cell = heap.topCell();
+                heap.pop();
+                if (current != key[cell]) {
+                    continue; // قيمة قديمة
+                }
+                int x = cell % width, y = cell / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < x0 || ny < y0 || nx >= x1 || ny >= y1) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    if (cost[next] < 0) {
+                        continue;
+                    }
+                    long candidate = current + ((long) cost[next] << 32);
+                    if (candidate < key[next]) {
+                        key[next] = candidate;
+                        parent[next] = cell;
+                        heap.push(candidate, next);
+                    }
+                }
+            }
+
+            // نشر نسخة الحدود للجيران
+            boolean changed = false;
+            for (int y = y0; y < y1; y++) {
+                int step = (y == y0 || y == y1 - 1) ? 1 : Math.max(1, x1 - x0 - 1);
+                for (int x = x0; x < x1; x += step) {
+                    int cell = y * width + x;
+                    if (border[cell] != key[cell]) {
+                        border[cell] = key[cell];
+                        changed = true;
+                    }
+                }
+            }
+            borderChanged[tile] = changed;
+        }
+
+        // تحسين خلايا حدود المربع من نسخة حدود الجيران - يكتب في خلايا المربع فقط
+        private void pullBorder(int tile) {
+            int x0 = (tile % tilesX) * TILE_SIZE, y0 = (tile / tilesX) * TILE_SIZE;
+            int x1 = Math.min(width, x0 + TILE_SIZE), y1 = Math.min(height, y0 + TILE_SIZE);
+            boolean improved = false;
+            for (int y = y0; y < y1; y++) {
+                int step = (y == y0 || y == y1 - 1) ? 1 : Math.max(1, x1 - x0 - 1);
+                for (int x = x0; x < x1; x += step) {
+                    int cell = y * width + x;
+                    if (cost[cell] < 0) {
+                        continue;
+                    }
+                    for (int d = 0; d < 4; d++) {
+                        int nx = x + DX[d], ny = y + DY[d];
+                        if (nx < 0 || ny < 0 || nx >= width || ny >= height
+                            || (nx >= x0 && ny >= y0 && nx < x1 && ny < y1)) {
+                            continue;
+                        }
+                        int next = ny * width + nx;
+                        if (border[next] == INFINITE) {
+                            continue;
+                        }
+                        long candidate = border[next] + ((long) cost[cell] << 32);
+                        if (candidate < key[cell]) {
+                            key[cell] = candidate;
+                            parent[cell] = next;
+                            dirty[cell] = true;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+            if (improved) {
+                tileActive[tile] = true;
+            }
+        }
+
+        // ===== الحواف بين المناطق =====
+
+        /**
+         * حواف بين خلايا متجاورة من منطقتين مختلفتين، مرتبة بالطول
+         * الحافة = (الطول << 32) | (الخلية << 1) | الاتجاه (0 يمين، 1 أسفل)
+         */
+        private long[] collectEdges() throws InterruptedException {
+            long[][] perTile = new long[tileCount][];
+            int[] counts = new int[tileCount];
+            int[] tiles = new int[tileCount];
+            for (int t = 0; t < tileCount; t++) {
+                tiles[t] = t;
+            }
+            forEachTile(tiles, tileCount, (tile, heap) -> {
+                int x0 = (tile % tilesX) * TILE_SIZE, y0 = (tile / tilesX) * TILE_SIZE;
+                int x1 = Math.min(width, x0 + TILE_SIZE), y1 = Math.min(height, y0 + TILE_SIZE);
+                long[] found = new long[64];
+                int count = 0;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = x0; x < x1; x++) {
+                        int cell = y * width + x;
+                        if (key[cell] == INFINITE) {
+                            continue;
+                        }
+                        for (int dir = 0; dir < 2; dir++) {
+                            int next = dir == 0 ? (x + 1 < width ? cell + 1 : -1)
+                                                : (y + 1 < height ? cell + width : -1);
+                            if (next < 0 || key[next] == INFINITE || owner(next) == owner(cell)) {
+                                continue;
+                            }
+                            long length = (key[cell] >>> 32) + (key[next] >>> 32);
+                            if (count == found.length) {
+                                found = Arrays.copyOf(found, count * 2);
+                            }
+                            found[count++] = (length << 32) | ((long) cell << 1) | dir;
+                        }
+                    }
+                }
+                perTile[tile] = found;
+                counts[tile] = count;
+            });
+
+            int total = 0;
+            for (int count : counts) {
+                total += count;
+            }
+            long[] edges = new long[total];
+            int offset = 0;
+            for (int t = 0; t < tileCount; t++) {
+                System.arraycopy(perTile[t], 0, edges, offset, counts[t]);
+                offset += counts[t];
+            }
+            Arrays.sort(edges);
+            return edges;
+        }
+
+        private int owner(int cell) {
+            return (int) key[cell];
+        }
+
+        private void markPath(int cell, boolean[] inTree) {
+            while (cell >= 0 && !inTree[cell]) {
+                inTree[cell] = true;
+                cell = parent[cell];
+            }
+        }
+
+        /**
+         * ترتيب خلايا المد بالعرض من الشبكة الحالية عبر خلايا الشجرة
+         * خلايا الأطراف (مسافة صفر) تُعبر أيضاً: مساران إلى نفس مجموعة المنازل قد ينتهيان في خليتين مختلفتين منها
+         */
+        private int[] orderFromNetwork(boolean[] inTree) {
+            int[] queue = new int[width * height];
+            int head = 0, tail = 0;
+            boolean[] visited = new boolean[width * height];
+            for (int cell = 0; cell < key.length; cell++) {
+                if (inTree[cell] && key[cell] == NETWORK) {
+                    visited[cell] = true;
+                    queue[tail++] = cell;
+                }
+            }
+            int[] order = new int[width * height];
+            int count = 0;
+            while (head < tail) {
+                int cell = queue[head++];
+                if (cost[cell] > 0) {
+                    order[count++] = cell;
+                }
+                int x = cell % width, y = cell / width;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + DX[d], ny = y + DY[d];
+                    if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                        continue;
+                    }
+                    int next = ny * width + nx;
+                    if ((inTree[next] || (key[next] >>> 32) == 0) && !visited[next]) {
+                        visited[next] = true;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return Arrays.copyOf(order, count);
+        }
+
+        private int tileOf(int x, int y) {
+            return (y / TILE_SIZE) * tilesX + x / TILE_SIZE;
+        }
+
+        /**
+         * تشغيل عمل على قائمة مربعات بالتوازي - كل خيط يأخذ المربع التالي
+         */
+        private void forEachTile(int[] tiles, int count, TileWork work) throws InterruptedException {
+            if (executor == null || count <= 1) {
+                Heap heap = new Heap();
+                for (int i = 0; i < count; i++) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedException();
+                    }
+                    work.run(tiles[i], heap);
+                }
+                return;
+            }
+            AtomicInteger next = new AtomicInteger();
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < Math.min(threads, count); t++) {
+                tasks.add(() -> {
+                    Heap heap = new Heap();
+                    int i;
+                    while ((i = next.getAndIncrement()) < count) {
+                        work.run(tiles[i], heap);
+                    }
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("فشل حساب حقل المسافات", e.getCause());
+            }
+        }
+    }
+
+    private static final int[] DX = {0, 1, 0, -1};
+    private static final int[] DY = {1, 0, -1, 0};
+
+    private static int find(int[] sets, int i) {
+        while (sets[i] != i) {
+            sets[i] = sets[sets[i]];
+            i = sets[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,87 @@
+package powergrid.effects;
+
+import powergrid.model.Cell;
+import powergrid.model.Grid;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * زلزال واحد: يضر الخلايا في مربع حول المركز بقوة تقل مع المسافة
+ * نموذج الضرر (damageAt و HIT_CHANCE) مشترك مع DisasterRiskAnalyzer
+ */
+public class EarthquakeEffect {
+    public static final double HIT_CHANCE = 0.7;
+    private static final int TICKS_PER_MAGNITUDE = 2;
+
+    private final int epicenterX;
+    private final int epicenterY;
+    private final int magnitude;
+    private final List<Cell> affectedCells;
+    private final Random random;
+    private int remainingTicks;
+
+    /**
+     * @param random مصدر المحاكاة (EffectManager) حتى تتبع الإصابات بذرة setSeed
+     */
+    public EarthquakeEffect(int epicenterX, int epicenterY, int magnitude, Random random) {
+        this.epicenterX = epicenterX;
+        this.epicenterY = epicenterY;
+        this.magnitude = magnitude;
+        this.affectedCells = new ArrayList<>();
+        this.random = random;
+        this.remainingTicks = magnitude * TICKS_PER_MAGNITUDE;
+    }
+
+    /**
+     * تطبيق الضرر على الشبكة وتسجيل الخلايا المتأثرة
+     */
+    public void applyEffect(Grid grid) {
+        int minX = Math.max(0, epicenterX - magnitude);
+        int maxX = Math.min(grid.getWidth() - 1, epicenterX + magnitude);
+        int minY = Math.max(0, epicenterY - magnitude);
+        int maxY = Math.min(grid.getHeight() - 1, epicenterY + magnitude);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                int damage = damageAt(magnitude, x - epicenterX, y - epicenterY);
+                if (damage <= 0 || random.nextDouble() >= HIT_CHANCE) {
+                    continue;
+                }
+
+                Cell cell = grid.getCell(x, y);
+                cell.applyDamage(damage);
+                grid.addDamagedCell(cell);
+                affectedCells.add(cell);
+            }
+        }
+    }
+
+    /**
+     * ضرر الخلية على بعد (dx, dy) من المركز: القوة ناقص المسافة المقربة (صفر أو أقل = لا ضرر)
+     * تُصاب الخلية فعلاً باحتمال HIT_CHANCE
+     */
+    public static int damageAt(int magnitude, int dx, int dy) {
+        return magnitude - (int) Math.round(Math.sqrt(dx * dx + dy * dy));
+    }
+
+    /**
+     * تحديث لكل دورة - الزلزال يبقى نشطاً لفترة تتناسب مع قوته
+     */
+    public void update() {
+        if (remainingTicks > 0) {
+            remainingTicks--;
+        }
+    }
+
+    public boolean isActive() {
+        return remainingTicks > 0;
+    }
+
+    // ============ دوال الوصول ============
+
+    public int getEpicenterX() { return epicenterX; }
+    public int getEpicenterY() { return epicenterY; }
+    public int getMagnitude() { return magnitude; }
+    public List<Cell> getAffectedCells() { return affectedCells; }
+}
@@ -2,8 +2,12 @@ package powergrid.game;
 
 import powergrid.model.*;
 import powergrid.algorithms.*;
+import powergrid.manager.ActionRecorder;
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.MetricsRegistry;
 import powergrid.utils.Constants;
-import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 public class GameEngine {
@@ -14,14 +18,24 @@ public class GameEngine {
     private boolean gameRunning;
     private Random random;
     private int totalHousesConnected;
+    private List<LevelListener> levelListeners;
+    private ActionRecorder recorder;
+    private final LevelCache levelCache;
+    private volatile GridSnapshot gridSnapshot; // آخر نسخة ثابتة بعد توزيع الكهرباء
     
     public GameEngine() {
+        this(LevelCache.engine());
+    }
+    
+    public GameEngine(LevelCache levelCache) {
+        this.levelCache = levelCache;
         this.budget = Constants.INITIAL_BUDGET;
         this.score = 0;
         this.currentLevelNumber = 1;
         this.gameRunning = true;
         this.random = new Random();
         this.totalHousesConnected = 0;
+        this.levelListeners = new ArrayList<>();
         
         // إنشاء الشبكة وتهيئة المستوى الأول
         grid = new Grid(Constants.GRID_SIZE, Constants.GRID_SIZE);
@@ -29,100 +43,29 @@ public class GameEngine {
     }
     
     private void initializeLevel(int levelNumber) {
-        // تنظيف الشبكة أولاً
-        clearGrid();
-        
-        // إعداد المستوى حسب الرقم
-        switch(levelNumber) {
-            case 1:
-                // مستوى تعليمي بسيط
-                grid.addPowerSource(0, 0);
-                grid.addHouse(4, 4);
-                grid.addHouse(8, 8);
-                break;
-                
-            case 2:
-                // مستوى مع عوائق
-                grid.addPowerSource(0, 0);
-                grid.addHouse(7, 7);
-                grid.addHouse(3, 10);
-                grid.addHouse(10, 3);
-                
-                // إضافة عوائق
-                for (int i = 3; i < 8; i++) {
-                    grid.addObstacle(i, 5, Constants.OBSTACLE);
-                }
-                break;
-                
-            case 3:
-                // مستوى مع تضاريس
-                grid.addPowerSource(0, 0);
-                grid.addHouse(12, 12);
-                grid.addHouse(4, 12);
-                grid.addHouse(12, 4);
-                grid.addHouse(7, 7);
-                
-                // إضافة ماء
-                for (int i = 5; i < 10; i++) {
-                    for (int j = 5; j < 7; j++) {
-                        grid.addObstacle(i, j, Constants.WATER);
-                    }
-                }
-                break;
-                
-            case 4:
-                // مستوى متقدم بمصدرين
-                grid.addPowerSource(0, 0);
-                grid.addPowerSource(14, 0);
-                
-                // 6 منازل عشوائية
-                for (int i = 0; i < 6; i++) {
-                    int x, y;
-                    do {
-                        x = random.nextInt(12) + 1;
-                        y = random.nextInt(12) + 1;
-                    } while (grid.getCell(x, y).getType() != Constants.EMPTY);
-                    grid.addHouse(x, y);
-                }
-                break;
-                
-            case 5:
-                // المستوى النهائي
-                grid.addPowerSource(7, 7); // في المنتصف
-                
-                // منازل في الزوايا والأطراف
-                grid.addHouse(2, 2);
-                grid.addHouse(2, 12);
-                grid.addHouse(12, 2);
-                grid.addHouse(12, 12);
-                grid.addHouse(7, 2);
-                grid.addHouse(2, 7);
-                grid.addHouse(12, 7);
-                grid.addHouse(7, 12);
-                break;
+        // المستوى من ملفه في مجلد levels/engine (محمل مرة واحدة في الذاكرة)
+        LevelData level = levelCache.get(levelNumber);
+        if (level == null) {
+            // لا بديل مدمج للتخطيطات - الأفضل أن يفشل التشغيل برسالة تقول أين بحثنا وكيف يُصلح
+            throw new IllegalStateException("ملف المستوى " + levelNumber + " غير موجود في "
+                                            + levelCache.getDirectory().toAbsolutePath()
+                                            + " - شغّل اللعبة من مجلد المشروع أو حدد مجلد المستويات بـ -D"
+                                            + LevelCache.DIRECTORY_PROPERTY + "=المسار");
         }
+        level.applyTo(grid, random);
         
         // تحديث توزيع الكهرباء
         updatePowerDistribution();
     }
     
-    private void clearGrid() {
-        // إعادة تعيين جميع الخلايا
-        for (int i = 0; i < grid.getWidth(); i++) {
-            for (int j = 0; j < grid.getHeight(); j++) {
-                grid.getCell(i, j).setType(Constants.EMPTY);
-            }
-        }
-        
-        // مسح القوائم
-        grid.getHouses().clear();
-        grid.getPowerSources().clear();
-    }
-    
     public boolean placeWire(int x, int y) {
         if (budget >= Constants.WIRE_COST && grid.getCell(x, y).getType() == Constants.EMPTY) {
             grid.addWire(x, y);
             budget -= Constants.WIRE_COST;
+            if (recorder != null) {
+                recorder.onWirePlaced(x, y);
+                recorder.onBudgetChanged(-Constants.WIRE_COST);
+            }
             updatePowerDistribution();
             return true;
         }
@@ -133,13 +76,53 @@ public class GameEngine {
         if (budget >= Constants.TRANSFORMER_COST && grid.getCell(x, y).getType() == Constants.EMPTY) {
             grid.addTransformer(x, y);
             budget -= Constants.TRANSFORMER_COST;
+            if (recorder != null) {
+                recorder.onTransformerPlaced(x, y);
+                recorder.onBudgetChanged(-Constants.TRANSFORMER_COST);
+            }
             updatePowerDistribution();
             return true;
         }
         return false;
     }
     
+    /**
+     * تطبيق خطة توصيل دفعة واحدة (من WiringPlanner) - نفس قواعد placeWire
+     * لكن نشر الكهرباء مرة واحدة في النهاية بدلاً من كل سلك
+     * الخطة مرتبة من الشبكة للخارج، فإذا نفدت الميزانية تبقى الأسلاك الممدودة موصولة
+     * @return عدد الأسلاك الممدودة
+     */
+    public int applyWiringPlan(WiringPlanner.Plan plan) {
+        if (plan.getWidth() != grid.getWidth() || plan.getHeight() != grid.getHeight()) {
+            throw new IllegalArgumentException("الخطة محسوبة لشبكة " + plan.getWidth() + "x" + plan.getHeight()
+                                               + " وليس " + grid.getWidth() + "x" + grid.getHeight());
+        }
+
+        int placed = 0;
+        for (int i = 0; i < plan.getWireCount() && budget >= Constants.WIRE_COST; i++) {
+            int x = plan.getX(i);
+            int y = plan.getY(i);
+            if (grid.getCell(x, y).getType() != Constants.EMPTY) {
+                continue; // تغيرت الشبكة بعد حساب الخطة
+            }
+            grid.getCell(x, y).setType(Constants.WIRE);
+            budget -= Constants.WIRE_COST;
+            if (recorder != null) {
+                recorder.onWirePlaced(x, y);
+                recorder.onBudgetChanged(-Constants.WIRE_COST);
+            }
+            placed++;
+        }
+
+        if (placed > 0) {
+            updatePowerDistribution();
+        }
+        return placed;
+    }
+
     private void updatePowerDistribution() {
+        long start = MetricsRegistry.start();
+        
         // إعادة تعيين الكهرباء
         grid.resetPower();
         
@@ -149,9 +132,13 @@ public class GameEngine {
                 BFS.spreadPower(grid, source.getX(), source.getY());
             }
         }
+        EngineMetrics.PROPAGATION_DURATION.recordSince(start);
         
         // حساب النقاط والإحصائيات
         calculateScore();
+        
+        // كل تعديل على الشبكة ينتهي هنا، فتُنشر النسخة للقراء مرة واحدة
+        gridSnapshot = GridSnapshot.capture(grid);
     }
     
     private void calculateScore() {
@@ -197,40 +184,30 @@ public class GameEngine {
     }
     
     private void showLevelCompleteMessage() {
-        SwingUtilities.invokeLater(() -> {
-            JOptionPane.showMessageDialog(null,
-                "<html><div style='text-align: center;'>"
-                + "<h2>🎉 مستوى مكتمل! 🎉</h2>"
-                + "<hr>"
-                + "<p>تم الانتقال للمستوى " + currentLevelNumber + "</p>"
-                + "<p>مكافأة: +500 نقطة</p>"
-                + "<p>ميزانية إضافية: +300$</p>"
-                + "<br>"
-                + "<p>🏠 المنازل الجديدة: " + grid.getHouses().size() + "</p>"
-                + "<p>⚡ مصادر الطاقة: " + grid.getPowerSources().size() + "</p>"
-                + "</div></html>",
-                "تهانينا!",
-                JOptionPane.INFORMATION_MESSAGE);
-        });
+        for (LevelListener listener : levelListeners) {
+            listener.onLevelCompleted(currentLevelNumber, grid.getHouses().size(), grid.getPowerSources().size());
+        }
     }
     
     private void showGameCompleteMessage() {
-        SwingUtilities.invokeLater(() -> {
-            JOptionPane.showMessageDialog(null,
-                "<html><div style='text-align: center;'>"
-                + "<h1>🏆 فوز! 🏆</h1>"
-                + "<h3>لقد أكملت جميع مستويات اللعبة!</h3>"
-                + "<hr>"
-                + "<p>النقاط النهائية: " + score + "</p>"
-                + "<p>آخر ميزانية: $" + budget + "</p>"
-                + "<p>إجمالي المنازل الموصولة: " + totalHousesConnected + "</p>"
-                + "<br>"
-                + "<p>شكراً للعب <b>Power Grid</b>!</p>"
-                + "<p>لقد أتقنت خوارزميات BFS و DFS بنجاح.</p>"
-                + "</div></html>",
-                "إكمال اللعبة",
-                JOptionPane.INFORMATION_MESSAGE);
-        });
+        for (LevelListener listener : levelListeners) {
+            listener.onGameCompleted(score, budget, totalHousesConnected);
+        }
+    }
+    
+    /**
+     * ربط سجل أحداث (null لإيقافه)
+     */
+    public void setRecorder(ActionRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    public void addLevelListener(LevelListener listener) {
+        levelListeners.add(listener);
+    }
+    
+    public void removeLevelListener(LevelListener listener) {
+        levelListeners.remove(listener);
     }
     
     public void triggerDisaster(String disasterType) {
@@ -260,6 +237,7 @@ public class GameEngine {
     // ============ دوال الوصول (Getters) ============
     
     public Grid getGrid() { return grid; }
+    public GridSnapshot getGridSnapshot() { return gridSnapshot; }
     public int getBudget() { return budget; }
     public int getScore() { return score; }
     public boolean isGameRunning() { return gameRunning; }
@@ -9,30 +9,21 @@ public class Level {
     
     public Level(int levelNumber) {
         this.levelNumber = levelNumber;
-        setupLevelParameters();
+        setupLevelParameters(LevelCache.shared().get(levelNumber));
     }
     
-    private void setupLevelParameters() {
-        switch(levelNumber) {
-            case 1:
-                housesToPower = 3;
-                maxBudget = 1000;
-                terrainType = "PLAIN";
-                hasDisasters = false;
-                break;
-            case 2:
-                housesToPower = 5;
-                maxBudget = 1500;
-                terrainType = "URBAN";
-                hasDisasters = false;
-                break;
-            case 3:
-                housesToPower = 8;
-                maxBudget = 2000;
-                terrainType = "MOUNTAIN";
-                hasDisasters = true;
-                break;
-            // إضافة مستويات إضافية
+    public Level(LevelData data) {
+        this.levelNumber = data.getNumber();
+        setupLevelParameters(data);
+    }
+    
+    // المعاملات من ملف المستوى (مستوى بلا ملف يبقى بالقيم الافتراضية)
+    private void setupLevelParameters(LevelData data) {
+        if (data != null) {
+            housesToPower = data.getHousesToPower();
+            maxBudget = data.getMaxBudget();
+            terrainType = data.getTerrainType();
+            hasDisasters = data.hasDisasters();
         }
     }
     
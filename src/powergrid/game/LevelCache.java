@@ -0,0 +1,141 @@
+package powergrid.game;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ذاكرة المستويات المحملة - كل ملف يُقرأ مرة واحدة، والتبديل بين المستويات يعيد استخدام القالب
+ * يبحث عن levelN.pgl أولاً ثم levelN.txt في مجلد المستويات
+ * المجلد الافتراضي levels بجانب مكان التشغيل، ويمكن تغييره بـ -Dpowergrid.levels=المسار
+ */
+public class LevelCache {
+    public static final String DIRECTORY_PROPERTY = "powergrid.levels";
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty(DIRECTORY_PROPERTY, "levels"));
+    // تخطيطات GameEngine الأصلية تختلف عن مستويات LevelManager فلها مجلدها
+    public static final Path ENGINE_DIRECTORY = DEFAULT_DIRECTORY.resolve("engine");
+    private static final String FILE_PREFIX = "level";
+
+    private static volatile LevelCache shared;
+    private static volatile LevelCache engine;
+
+    private final Path directory;
+    private final Map<Integer, LevelData> levels;
+
+    public LevelCache(Path directory) {
+        this.directory = directory;
+        this.levels = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * الذاكرة المشتركة على مجلد المستويات الافتراضي
+     */
+    public static LevelCache shared() {
+        LevelCache cache = shared;
+        if (cache == null) {
+            synchronized (LevelCache.class) {
+                cache = shared;
+                if (cache == null) {
+                    cache = new LevelCache(DEFAULT_DIRECTORY);
+                    shared = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * الذاكرة المشتركة على مجلد levels/engine (مستويات GameEngine)
+     */
+    public static LevelCache engine() {
+        LevelCache cache = engine;
+        if (cache == null) {
+            synchronized (LevelCache.class) {
+                cache = engine;
+                if (cache == null) {
+                    cache = new LevelCache(ENGINE_DIRECTORY);
+                    engine = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * @return المستوى أو null إذا لم يكن له ملف
+     */
+    public LevelData get(int level) {
+        LevelData data = levels.get(level);
+        if (data != null) {
+            return data;
+        }
+        try {
+            Path path = find(level);
+            if (path == null) {
+                return null;
+            }
+            data = LevelLoader.load(path);
+            LevelData existing = levels.putIfAbsent(level, data);
+            return existing != null ? existing : data;
+        } catch (IOException e) {
+            throw new UncheckedIOException("تعذر تحميل المستوى " + level, e);
+        }
+    }
+
+    /**
+     * تحميل كل المستويات في المجلد مسبقاً (مثلاً أثناء شاشة البداية)
+     * @return عدد المستويات المحملة
+     */
+    public int preloadAll() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                int level = levelNumber(file.getFileName().toString());
+                if (level > 0 && !levels.containsKey(level)) {
+                    get(level);
+                }
+            }
+        }
+        return levels.size();
+    }
+
+    public boolean contains(int level) {
+        return levels.containsKey(level) || find(level) != null;
+    }
+
+    public void clear() {
+        levels.clear();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private Path find(int level) {
+        Path binary = directory.resolve(FILE_PREFIX + level + LevelLoader.BINARY_EXTENSION);
+        if (Files.isRegularFile(binary)) {
+            return binary;
+        }
+        Path text = directory.resolve(FILE_PREFIX + level + LevelLoader.TEXT_EXTENSION);
+        return Files.isRegularFile(text) ? text : null;
+    }
+
+    private static int levelNumber(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot <= FILE_PREFIX.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(FILE_PREFIX.length(), dot));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
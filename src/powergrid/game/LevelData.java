@@ -0,0 +1,127 @@
+package powergrid.game;
+
+import powergrid.model.Cell;
+import powergrid.model.ChunkedGrid;
+import powergrid.model.Grid;
+import powergrid.model.House;
+import powergrid.model.PowerSource;
+import powergrid.utils.Constants;
+import java.util.Random;
+
+/**
+ * مستوى محمل وجاهز للتطبيق: قالب خلايا (ChunkedGrid) ومواقع الكيانات ومعاملات المستوى
+ * التطبيق على الشبكة ينسخ مصفوفات القالب (Grid.loadFrom) بدلاً من إعادة ضبط كل خلية
+ */
+public class LevelData {
+    private final int number;
+    private final int width;
+    private final int height;
+    private final ChunkedGrid template;
+    private final int[] housePositions;  // y * width + x
+    private final int[] sourcePositions;
+    private final int maxBudget;
+    private final int housesToPower;
+    private final String terrainType;
+    private final boolean hasDisasters;
+    private final String description;
+    private final String message;
+
+    // عناصر عشوائية تُضاف عند كل تطبيق (مثل المستوى 4)
+    private final int randomHouses;
+    private final int randomMinX, randomMinY, randomMaxX, randomMaxY;
+    private final int randomObstacles;
+
+    LevelData(int number, int width, int height, ChunkedGrid template,
+              int[] housePositions, int[] sourcePositions,
+              int maxBudget, int housesToPower, String terrainType, boolean hasDisasters,
+              String description, String message,
+              int randomHouses, int randomMinX, int randomMinY, int randomMaxX, int randomMaxY,
+              int randomObstacles) {
+        this.number = number;
+        this.width = width;
+        this.height = height;
+        this.template = template;
+        this.housePositions = housePositions;
+        this.sourcePositions = sourcePositions;
+        this.maxBudget = maxBudget;
+        this.housesToPower = housesToPower;
+        this.terrainType = terrainType;
+        this.hasDisasters = hasDisasters;
+        this.description = description;
+        this.message = message;
+        this.randomHouses = randomHouses;
+        this.randomMinX = randomMinX;
+        this.randomMinY = randomMinY;
+        this.randomMaxX = randomMaxX;
+        this.randomMaxY = randomMaxY;
+        this.randomObstacles = randomObstacles;
+    }
+
+    /**
+     * تطبيق المستوى على الشبكة - نسخ مصفوفات القالب دفعة واحدة ثم الكيانات والعناصر العشوائية
+     */
+    public void applyTo(Grid grid, Random random) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("أبعاد المستوى " + number + " (" + width + "x" + height
+                                               + ") لا تطابق الشبكة");
+        }
+
+        grid.loadFrom(template);
+        grid.getHouses().clear();
+        grid.getPowerSources().clear();
+        for (int position : sourcePositions) {
+            grid.getPowerSources().add(new PowerSource(position % width, position / width));
+        }
+        for (int position : housePositions) {
+            grid.getHouses().add(new House(position % width, position / width));
+        }
+
+        if (randomHouses > 0 || randomObstacles > 0) {
+            ChunkedGrid cells = grid.getCellStore();
+            // LevelLoader يتحقق أن في المنطقة خلايا فارغة تكفي، فالحلقة تنتهي دائماً
+            for (int i = 0; i < randomHouses; i++) {
+                int x, y;
+                do {
+                    x = randomMinX + random.nextInt(randomMaxX - randomMinX + 1);
+                    y = randomMinY + random.nextInt(randomMaxY - randomMinY + 1);
+                } while (cells.getType(x, y) != Constants.EMPTY);
+                Cell.initializeState(cells, x, y, Constants.HOUSE);
+                grid.getHouses().add(new House(x, y));
+            }
+
+            int[] obstacleTypes = {Constants.OBSTACLE, Constants.WATER, Constants.MOUNTAIN};
+            for (int i = 0; i < randomObstacles; i++) {
+                int x = random.nextInt(width);
+                int y = random.nextInt(height);
+                int type = obstacleTypes[random.nextInt(obstacleTypes.length)];
+                if (cells.getType(x, y) == Constants.EMPTY) {
+                    Cell.initializeState(cells, x, y, type);
+                }
+            }
+        }
+    }
+
+    // ============ دوال الوصول ============
+
+    public int getNumber() { return number; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getMaxBudget() { return maxBudget; }
+    public int getHousesToPower() { return housesToPower; }
+    public String getTerrainType() { return terrainType; }
+    public boolean hasDisasters() { return hasDisasters; }
+    public String getDescription() { return description; }
+    public String getMessage() { return message; }
+    public int getHouseCount() { return housePositions.length + randomHouses; }
+    public int getPowerSourceCount() { return sourcePositions.length; }
+
+    ChunkedGrid getTemplate() { return template; }
+    int[] getHousePositions() { return housePositions; }
+    int[] getSourcePositions() { return sourcePositions; }
+    int getRandomHouses() { return randomHouses; }
+    int getRandomMinX() { return randomMinX; }
+    int getRandomMinY() { return randomMinY; }
+    int getRandomMaxX() { return randomMaxX; }
+    int getRandomMaxY() { return randomMaxY; }
+    int getRandomObstacles() { return randomObstacles; }
+}
@@ -0,0 +1,12 @@
+package powergrid.game;
+
+/**
+ * أحداث المستويات - يطلقها محرك اللعبة ومدير المستويات بدلاً من عرض رسائل مباشرة
+ * حتى يمكن تشغيل المحاكاة بدون واجهة رسومية (الواجهة تستخدم LevelDialogs)
+ */
+public interface LevelListener {
+    void onLevelCompleted(int newLevel, int houses, int powerSources);
+    void onLevelStarted(int level, String description);
+    void onGameCompleted(int finalScore, int finalBudget, int totalHousesConnected);
+    void onAllLevelsCompleted();
+}
@@ -0,0 +1,419 @@
+package powergrid.game;
+
+import powergrid.model.Cell;
+import powergrid.model.ChunkedGrid;
+import powergrid.utils.Constants;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * تحميل المستويات من ملفات خارجية بصيغتين:
+ *
+ * النصية (.txt): أسطر "مفتاح قيمة" ثم سطر map ثم صفوف الخريطة حرفاً لكل خلية
+ *   level 1 / size 15 15 / budget 1000 / goal 3 / terrain PLAIN / disasters false
+ *   description ... / message ... / random-houses العدد minX minY maxX maxY / random-obstacles العدد
+ *   الحروف: . فارغ  - سلك  T محول  H منزل  P مصدر طاقة  F مصنع  ~ ماء  ^ جبل  # عائق
+ *
+ * الثنائية (.pgl): نفس المعاملات ثم بايت نوع لكل خلية صفاً بعد صف (تُنتج بـ compile)
+ *
+ * في الصيغتين تُقرأ الخريطة صفاً بعد صف وتُكتب مباشرة في قالب ChunkedGrid بدون كائنات وسيطة
+ */
+public final class LevelLoader {
+    public static final int MAGIC = 0x50474C56; // "PGLV"
+    public static final short VERSION = 1;
+    public static final String TEXT_EXTENSION = ".txt";
+    public static final String BINARY_EXTENSION = ".pgl";
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private LevelLoader() {
+    }
+
+    /**
+     * تحميل حسب الامتداد
+     */
+    public static LevelData load(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(BINARY_EXTENSION)) {
+            return loadBinary(path);
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return loadText(reader, path.toString());
+        }
+    }
+
+    // ============ الصيغة النصية ============
+
+    public static LevelData loadText(Reader source, String name) throws IOException {
+        BufferedReader reader = source instanceof BufferedReader
+                ? (BufferedReader) source : new BufferedReader(source);
+        Header header = new Header();
+
+        // المعاملات حتى سطر map
+        String line;
+        int lineNumber = 0;
+        while (true) {
+            line = reader.readLine();
+            lineNumber++;
+            if (line == null) {
+                throw new IOException(name + ": لا يوجد قسم map");
+            }
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.equals("map")) {
+                break;
+            }
+            int space = line.indexOf(' ');
+            String key = space < 0 ? line : line.substring(0, space);
+            String value = space < 0 ? "" : line.substring(space + 1).trim();
+            try {
+                header.set(key, value);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(name + ":" + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        header.validate(name);
+
+        // الخريطة صفاً بعد صف
+        Builder builder = new Builder(header);
+        for (int y = 0; y < header.height; y++) {
+            lineNumber++;
+            int x = 0;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (c == '\r') {
+                    continue;
+                }
+                if (x >= header.width) {
+                    throw new IOException(name + ":" + lineNumber + ": الصف أطول من " + header.width);
+                }
+                int type = typeOf((char) c);
+                if (type < 0) {
+                    throw new IOException(name + ":" + lineNumber + ": حرف غير معروف '" + (char) c + "'");
+                }
+                builder.set(x++, y, type);
+            }
+            if (x != header.width) {
+                throw new IOException(name + ":" + lineNumber + ": الصف أقصر من " + header.width);
+            }
+        }
+
+        return builder.build(name);
+    }
+
+    private static int typeOf(char c) {
+        switch (c) {
+            case '.': return Constants.EMPTY;
+            case '-': return Constants.WIRE;
+            case 'T': return Constants.TRANSFORMER;
+            case 'H': return Constants.HOUSE;
+            case 'P': return Constants.POWER_SOURCE;
+            case 'F': return Constants.FACTORY;
+            case '~': return Constants.WATER;
+            case '^': return Constants.MOUNTAIN;
+            case '#': return Constants.OBSTACLE;
+            default: return -1;
+        }
+    }
+
+    // ============ الصيغة الثنائية ============
+
+    public static LevelData loadBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.flip();
+
+            fill(channel, buffer, 8);
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("ليس ملف مستوى Power Grid: " + path);
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("إصدار ملف المستوى غير مدعوم: " + version);
+            }
+            buffer.getShort();
+
+            Header header = new Header();
+            fill(channel, buffer, 11 * Integer.BYTES + 1);
+            header.number = buffer.getInt();
+            header.width = buffer.getInt();
+            header.height = buffer.getInt();
+            header.budget = buffer.getInt();
+            header.goal = buffer.getInt();
+            header.disasters = buffer.get() != 0;
+            header.randomHouses = buffer.getInt();
+            header.randomMinX = buffer.getInt();
+            header.randomMinY = buffer.getInt();
+            header.randomMaxX = buffer.getInt();
+            header.randomMaxY = buffer.getInt();
+            header.randomObstacles = buffer.getInt();
+            header.terrain = getString(channel, buffer);
+            header.description = getString(channel, buffer);
+            header.message = getString(channel, buffer);
+            header.validate(path.toString());
+
+            // الصف على أجزاء بحجم المخزن - الصفوف قد تكون أعرض منه
+            Builder builder = new Builder(header);
+            for (int y = 0; y < header.height; y++) {
+                int x = 0;
+                while (x < header.width) {
+                    int count = Math.min(header.width - x, buffer.capacity());
+                    fill(channel, buffer, count);
+                    for (int end = x + count; x < end; x++) {
+                        builder.set(x, y, buffer.get());
+                    }
+                }
+            }
+            return builder.build(path.toString());
+        }
+    }
+
+    /**
+     * تحويل مستوى إلى الصيغة الثنائية
+     */
+    public static void writeBinary(LevelData level, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] terrain = level.getTerrainType().getBytes(StandardCharsets.UTF_8);
+            byte[] description = level.getDescription().getBytes(StandardCharsets.UTF_8);
+            byte[] message = level.getMessage().getBytes(StandardCharsets.UTF_8);
+            checkStringLength("terrain", terrain);
+            checkStringLength("description", description);
+            checkStringLength("message", message);
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, 64 + terrain.length
+                    + description.length + message.length + level.getWidth()));
+
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putInt(level.getNumber());
+            buffer.putInt(level.getWidth());
+            buffer.putInt(level.getHeight());
+            buffer.putInt(level.getMaxBudget());
+            buffer.putInt(level.getHousesToPower());
+            buffer.put((byte) (level.hasDisasters() ? 1 : 0));
+            buffer.putInt(level.getRandomHouses());
+            buffer.putInt(level.getRandomMinX());
+            buffer.putInt(level.getRandomMinY());
+            buffer.putInt(level.getRandomMaxX());
+            buffer.putInt(level.getRandomMaxY());
+            buffer.putInt(level.getRandomObstacles());
+            buffer.putShort((short) terrain.length).put(terrain);
+            buffer.putShort((short) description.length).put(description);
+            buffer.putShort((short) message.length).put(message);
+
+            ChunkedGrid template = level.getTemplate();
+            for (int y = 0; y < level.getHeight(); y++) {
+                if (buffer.remaining() < level.getWidth()) {
+                    flush(channel, buffer);
+                }
+                for (int x = 0; x < level.getWidth(); x++) {
+                    buffer.put((byte) template.getType(x, y));
+                }
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * تحويل ملف نصي إلى ثنائي بجانبه بنفس الاسم
+     */
+    public static Path compile(Path textPath) throws IOException {
+        String name = textPath.getFileName().toString();
+        String base = name.endsWith(TEXT_EXTENSION) ? name.substring(0, name.length() - TEXT_EXTENSION.length()) : name;
+        Path binaryPath = textPath.resolveSibling(base + BINARY_EXTENSION);
+        writeBinary(load(textPath), binaryPath);
+        return binaryPath;
+    }
+
+    private static void checkStringLength(String field, byte[] value) throws IOException {
+        if (value.length > 0xFFFF) {
+            throw new IOException("حقل " + field + " أطول من " + 0xFFFF + " بايت");
+        }
+    }
+
+    /**
+     * ضمان وجود bytes بايت مقروءة في المخزن - لا تتجاوز سعته
+     */
+    private static void fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        if (bytes > buffer.capacity()) {
+            throw new IllegalArgumentException("طلب " + bytes + " بايت أكبر من سعة المخزن " + buffer.capacity());
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            int read = channel.read(buffer);
+            if (read < 0) {
+                throw new IOException("نهاية غير متوقعة لملف المستوى");
+            }
+            if (read == 0) {
+                throw new IOException("تعذرت متابعة قراءة ملف المستوى");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static String getString(FileChannel channel, ByteBuffer buffer) throws IOException {
+        fill(channel, buffer, Short.BYTES);
+        int length = buffer.getShort() & 0xFFFF;
+        // النص قد يكون أطول من المخزن - يُنسخ على أجزاء
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int count = Math.min(length - offset, buffer.capacity());
+            fill(channel, buffer, count);
+            buffer.get(bytes, offset, count);
+            offset += count;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ============ أدوات البناء ============
+
+    /**
+     * معاملات المستوى قبل الخريطة
+     */
+    private static final class Header {
+        int number = -1;
+        int width;
+        int height;
+        int budget = Constants.INITIAL_BUDGET;
+        int goal;
+        String terrain = "PLAIN";
+        boolean disasters;
+        String description = "";
+        String message = "";
+        int randomHouses;
+        int randomMinX, randomMinY, randomMaxX, randomMaxY;
+        int randomObstacles;
+
+        void set(String key, String value) {
+            switch (key) {
+                case "level": number = Integer.parseInt(value); break;
+                case "size": {
+                    String[] parts = parts(key, value, 2);
+                    width = Integer.parseInt(parts[0]);
+                    height = Integer.parseInt(parts[1]);
+                    break;
+                }
+                case "budget": budget = Integer.parseInt(value); break;
+                case "goal": goal = Integer.parseInt(value); break;
+                case "terrain": terrain = value; break;
+                case "disasters": disasters = Boolean.parseBoolean(value); break;
+                case "description": description = value; break;
+                case "message": message = value; break;
+                case "random-houses": {
+                    String[] parts = parts(key, value, 5);
+                    randomHouses = Integer.parseInt(parts[0]);
+                    randomMinX = Integer.parseInt(parts[1]);
+                    randomMinY = Integer.parseInt(parts[2]);
+                    randomMaxX = Integer.parseInt(parts[3]);
+                    randomMaxY = Integer.parseInt(parts[4]);
+                    break;
+                }
+                case "random-obstacles": randomObstacles = Integer.parseInt(value); break;
+                default:
+                    throw new IllegalArgumentException("مفتاح غير معروف: " + key);
+            }
+        }
+
+        private static String[] parts(String key, String value, int count) {
+            String[] parts = value.split("\\s+");
+            if (parts.length != count) {
+                throw new IllegalArgumentException(key + " يحتاج " + count + " قيم وليس " + parts.length);
+            }
+            return parts;
+        }
+
+        void validate(String name) throws IOException {
+            if (number < 1) {
+                throw new IOException(name + ": رقم المستوى مفقود");
+            }
+            if (width <= 0 || height <= 0) {
+                throw new IOException(name + ": أبعاد المستوى مفقودة");
+            }
+            if (randomHouses > 0 && (randomMinX < 0 || randomMinY < 0 || randomMaxX >= width
+                    || randomMaxY >= height || randomMinX > randomMaxX || randomMinY > randomMaxY)) {
+                throw new IOException(name + ": حدود المنازل العشوائية خارج الخريطة");
+            }
+        }
+    }
+
+    /**
+     * يكتب الخلايا مباشرة في القالب ويجمع مواقع الكيانات في مصفوفات أعداد
+     */
+    private static final class Builder {
+        private final Header header;
+        private final ChunkedGrid template;
+        private int[] houses = new int[16];
+        private int houseCount;
+        private int[] sources = new int[4];
+        private int sourceCount;
+
+        Builder(Header header) {
+            this.header = header;
+            this.template = new ChunkedGrid(header.width, header.height);
+        }
+
+        void set(int x, int y, int type) throws IOException {
+            if (type < Constants.EMPTY || type > Constants.OBSTACLE) {
+                throw new IOException("نوع خلية غير صالح في المستوى " + header.number + ": " + type);
+            }
+            Cell.initializeState(template, x, y, type);
+            int position = y * header.width + x;
+            if (type == Constants.HOUSE) {
+                if (houseCount == houses.length) {
+                    houses = Arrays.copyOf(houses, houseCount * 2);
+                }
+                houses[houseCount++] = position;
+            } else if (type == Constants.POWER_SOURCE) {
+                if (sourceCount == sources.length) {
+                    sources = Arrays.copyOf(sources, sourceCount * 2);
+                }
+                sources[sourceCount++] = position;
+            }
+        }
+
+        LevelData build(String name) throws IOException {
+            // المنازل العشوائية تُوضع في خلايا فارغة فقط - بدون مكان كافٍ لن تنتهي حلقة الاختيار
+            if (header.randomHouses > 0) {
+                int free = 0;
+                for (int y = header.randomMinY; y <= header.randomMaxY; y++) {
+                    for (int x = header.randomMinX; x <= header.randomMaxX; x++) {
+                        if (template.getType(x, y) == Constants.EMPTY) {
+                            free++;
+                        }
+                    }
+                }
+                if (free < header.randomHouses) {
+                    throw new IOException(name + ": random-houses " + header.randomHouses
+                                          + " أكثر من الخلايا الفارغة في المنطقة (" + free + ")");
+                }
+            }
+            return new LevelData(header.number, header.width, header.height, template,
+                                 Arrays.copyOf(houses, houseCount), Arrays.copyOf(sources, sourceCount),
+                                 header.budget, header.goal, header.terrain, header.disasters,
+                                 header.description, header.message,
+                                 header.randomHouses, header.randomMinX, header.randomMinY,
+                                 header.randomMaxX, header.randomMaxY, header.randomObstacles);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package powergrid.manager;
+
+import powergrid.model.ChunkedGrid;
+
+/**
+ * مستقبل لكل إجراء يغير حالة اللعبة - يُستخدم لسجل الأحداث وإعادة التشغيل
+ * كل الاستدعاءات من خيط المحاكاة
+ */
+public interface ActionRecorder {
+    void onDayStarted(int day);
+    void onWirePlaced(int x, int y);
+    void onTransformerPlaced(int x, int y);
+    void onEarthquake(int epicenterX, int epicenterY, int magnitude);
+    void onCellState(ChunkedGrid cells, int x, int y); // الحالة الكاملة للخلية بعد التلف
+    void onCellRepaired(int x, int y);
+    void onMoneyChanged(int delta);   // مال GameManager
+    void onBudgetChanged(int delta);  // ميزانية GameEngine (مستقلة عن مال GameManager)
+    void onRandomSeed(long seed);
+}
@@ -0,0 +1,339 @@
+package powergrid.manager;
+
+import powergrid.effects.EarthquakeEffect;
+import powergrid.model.Cell;
+import powergrid.model.ChunkedGrid;
+import powergrid.model.GridSnapshot;
+import powergrid.utils.Constants;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * تحليل مخاطر الكوارث بطريقة مونت كارلو
+ * يفرّع آلاف المحاكيات المستقلة من نسخة الشبكة (نسخ عند الكتابة) ويشغلها بالتوازي،
+ * لكل محاكاة سلسلة SplittableRandom خاصة بها فتكون النتائج نفسها مهما كان عدد الخيوط
+ *
+ * يتبع احتمالات GameManager.checkRandomEvents و EffectManager.triggerEarthquake،
+ * والإصلاحات تُطبق يومياً بنفس قواعد checkRepairNeeds
+ */
+public class DisasterRiskAnalyzer {
+    private static final double POSITIVE_EVENT_CHANCE = 0.05;
+
+    /**
+     * نتيجة التحليل
+     */
+    public static final class Report {
+        private final int runs;
+        private final int days;
+        private final long elapsedNanos;
+        private final double[] peakOutages;   // مرتبة
+        private final int[] repairCosts;      // مرتبة
+        private final int[] lossDays;         // مرتبة - للمحاكيات الخاسرة فقط
+
+        Report(int runs, int days, long elapsedNanos, double[] peakOutages, int[] repairCosts, int[] lossDays) {
+            this.runs = runs;
+            this.days = days;
+            this.elapsedNanos = elapsedNanos;
+            this.peakOutages = peakOutages;
+            this.repairCosts = repairCosts;
+            this.lossDays = lossDays;
+        }
+
+        public int getRuns() { return runs; }
+        public int getDays() { return days; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        public double getRunsPerSecond() {
+            return elapsedNanos > 0 ? runs * 1e9 / elapsedNanos : 0;
+        }
+
+        public double getLossProbability() {
+            return runs > 0 ? (double) lossDays.length / runs : 0;
+        }
+
+        /**
+         * @param p النسبة المئوية (0-100)
+         * @return أقصى نسبة انقطاع للمنازل التي كانت موصولة في البداية (0-1)
+         */
+        public double getOutagePercentile(double p) {
+            return peakOutages.length == 0 ? 0 : peakOutages[rank(peakOutages.length, p)];
+        }
+
+        public int getRepairCostPercentile(double p) {
+            return repairCosts.length == 0 ? 0 : repairCosts[rank(repairCosts.length, p)];
+        }
+
+        /**
+         * @return يوم الخسارة عند النسبة المحددة بين المحاكيات الخاسرة، أو -1 إذا لم تخسر أي محاكاة
+         */
+        public int getDayOfLossPercentile(double p) {
+            return lossDays.length == 0 ? -1 : lossDays[rank(lossDays.length, p)];
+        }
+
+        private static int rank(int length, double p) {
+            int index = (int) Math.ceil(p / 100.0 * length) - 1;
+            return Math.max(0, Math.min(length - 1, index));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "محاكيات: %d × %d يوم (%.0f محاكاة/ثانية)%n"
+                + "الانقطاع الأقصى p50/p90/p99: %.1f%% / %.1f%% / %.1f%%%n"
+                + "تكلفة الإصلاح p50/p90/p99: $%d / $%d / $%d%n"
+                + "احتمال الخسارة: %.1f%% - يوم الخسارة p10/p50/p90: %d / %d / %d",
+                runs, days, getRunsPerSecond(),
+                getOutagePercentile(50) * 100, getOutagePercentile(90) * 100, getOutagePercentile(99) * 100,
+                getRepairCostPercentile(50), getRepairCostPercentile(90), getRepairCostPercentile(99),
+                getLossProbability() * 100,
+                getDayOfLossPercentile(10), getDayOfLossPercentile(50), getDayOfLossPercentile(90));
+        }
+    }
+
+    private final int threads;
+
+    public DisasterRiskAnalyzer() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public DisasterRiskAnalyzer(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * تشغيل التحليل
+     * @param snapshot نسخة الشبكة (من GameManager.getGridSnapshot)
+     * @param difficulty يحدد المال الأولي وأطقم الإصلاح واحتمال الكوارث
+     * @param days عدد الأيام لكل محاكاة
+     * @param runs عدد المحاكيات
+     * @param seed بذرة الجذر
+     */
+    public Report analyze(GridSnapshot snapshot, GameManager.Difficulty difficulty,
+                          int days, int runs, long seed) throws InterruptedException {
+        ChunkedGrid base = snapshot.forkCells();
+        try {
+            int[] houseCells = findPoweredHouses(base);
+            int totalHouses = countHouses(base);
+
+            // تقسيم السلاسل بالترتيب قبل التشغيل حتى لا تعتمد النتائج على جدولة الخيوط
+            SplittableRandom root = new SplittableRandom(seed);
+            SplittableRandom[] streams = new SplittableRandom[runs];
+            for (int i = 0; i < runs; i++) {
+                streams[i] = root.split();
+            }
+
+            double[] peakOutages = new double[runs];
+            int[] repairCosts = new int[runs];
+            int[] lossDays = new int[runs];
+
+            AtomicInteger nextRun = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+                Thread thread = new Thread(r, "risk-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            long start = System.nanoTime();
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    futures.add(executor.submit(() -> {
+                        RunState state = new RunState(base.getWidth() * base.getHeight());
+                        int run;
+                        while ((run = nextRun.getAndIncrement()) < runs && !Thread.currentThread().isInterrupted()) {
+                            simulate(base, houseCells, totalHouses, difficulty, days, streams[run], state);
+                            peakOutages[run] = state.peakOutage;
+                            repairCosts[run] = state.repairCost;
+                            lossDays[run] = state.lossDay;
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("فشلت محاكاة", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(peakOutages);
+            Arrays.sort(repairCosts);
+            int[] losses = Arrays.stream(lossDays).filter(d -> d > 0).sorted().toArray();
+            return new Report(runs, days, elapsed, peakOutages, repairCosts, losses);
+        } finally {
+            base.release();
+        }
+    }
+
+    /**
+     * حالة محاكاة واحدة - يعاد استخدامها لكل المحاكيات على نفس الخيط
+     */
+    private static final class RunState {
+        final int[] damagedCells; // أرقام الخلايا المتضررة بترتيب حدوث التلف
+        int damagedCount;
+        int money;
+        int repairCrews;
+        double peakOutage;
+        int repairCost;
+        int lossDay;
+
+        RunState(int cellCount) {
+            this.damagedCells = new int[cellCount];
+        }
+    }
+
+    private static void simulate(ChunkedGrid base, int[] houseCells, int totalHouses,
+                                 GameManager.Difficulty difficulty, int days,
+                                 SplittableRandom random, RunState state) {
+        ChunkedGrid grid = base.snapshot();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+
+        state.damagedCount = 0;
+        state.money = difficulty.getStartingMoney();
+        state.repairCrews = difficulty.getRepairCrews();
+        state.peakOutage = 0;
+        state.repairCost = 0;
+        state.lossDay = 0;
+
+        try {
+            for (int day = 2; day <= days + 1; day++) {
+                // أحداث عشوائية بنفس ترتيب GameManager.checkRandomEvents
+                if (random.nextDouble() < difficulty.getDisasterChance() && random.nextInt(4) == 0) {
+                    int magnitude = random.nextInt(5) + 3; // 3-7
+                    int epicenterX = random.nextInt(width);
+                    int epicenterY = random.nextInt(height);
+                    applyEarthquake(grid, epicenterX, epicenterY, magnitude, random, state);
+                }
+                if (random.nextDouble() < POSITIVE_EVENT_CHANCE) {
+                    int eventType = random.nextInt(3);
+                    if (eventType == 0) {
+                        state.money += random.nextInt(500) + 500;
+                    } else if (eventType == 1) {
+                        state.repairCrews++;
+                    }
+                }
+
+                repair(grid, state);
+
+                // قياس الانقطاع
+                int lost = 0;
+                int satisfied = 0;
+                for (int cell : houseCells) {
+                    int x = cell % width;
+                    int y = cell / width;
+                    if (grid.getType(x, y) == Constants.HOUSE && grid.isPowered(x, y)) {
+                        satisfied++;
+                    } else {
+                        lost++;
+                    }
+                }
+                if (houseCells.length > 0) {
+                    state.peakOutage = Math.max(state.peakOutage, (double) lost / houseCells.length);
+                }
+
+                // شروط الخسارة كما في GameManager.checkGameConditions
+                boolean bankrupt = state.money <= 0 && state.damagedCount > 10;
+                boolean blackout = satisfied < totalHouses * 0.2 && day > 10;
+                if (bankrupt || blackout) {
+                    state.lossDay = day;
+                    return;
+                }
+            }
+        } finally {
+            grid.release();
+        }
+    }
+
+    private static void applyEarthquake(ChunkedGrid grid, int epicenterX, int epicenterY, int magnitude,
+                                        SplittableRandom random, RunState state) {
+        int width = grid.getWidth();
+        int minX = Math.max(0, epicenterX - magnitude);
+        int maxX = Math.min(width - 1, epicenterX + magnitude);
+        int minY = Math.max(0, epicenterY - magnitude);
+        int maxY = Math.min(grid.getHeight() - 1, epicenterY + magnitude);
+
+        for (int y = minY; y <= maxY; y++) {
+            for (int x = minX; x <= maxX; x++) {
+                // نفس نموذج الضرر الذي يطبقه EarthquakeEffect في اللعبة
+                int damage = EarthquakeEffect.damageAt(magnitude, x - epicenterX, y - epicenterY);
+                if (damage <= 0 || random.nextDouble() >= EarthquakeEffect.HIT_CHANCE) {
+                    continue;
+                }
+
+                boolean wasDamaged = grid.isDamaged(x, y);
+                Cell.view(grid, x, y).applyDamage(damage);
+                if (!wasDamaged) {
+                    state.damagedCells[state.damagedCount++] = y * width + x;
+                }
+
+                // خصم المال للأضرار الكبيرة كما في مستمع GameManager
+                if (damage > 7) {
+                    state.money = Math.max(0, state.money - damage * 50);
+                }
+            }
+        }
+    }
+
+    /**
+     * إصلاح أول الخلايا المتضررة بعدد الأطقم إذا كفى المال (مثل checkRepairNeeds)
+     */
+    private static void repair(ChunkedGrid grid, RunState state) {
+        int width = grid.getWidth();
+        int repairsPossible = Math.min(state.repairCrews, state.damagedCount);
+        int kept = 0;
+
+        for (int i = 0; i < state.damagedCount; i++) {
+            int cell = state.damagedCells[i];
+            int x = cell % width;
+            int y = cell / width;
+
+            if (i < repairsPossible) {
+                int cost = grid.getDamageLevel(x, y) * 100;
+                if (state.money >= cost) {
+                    Cell.view(grid, x, y).repair();
+                    state.money -= cost;
+                    state.repairCost += cost;
+                    continue;
+                }
+            }
+            state.damagedCells[kept++] = cell;
+        }
+        state.damagedCount = kept;
+    }
+
+    private static int[] findPoweredHouses(ChunkedGrid grid) {
+        int width = grid.getWidth();
+        int count = 0;
+        int[] cells = new int[width * grid.getHeight()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid.getType(x, y) == Constants.HOUSE && grid.isPowered(x, y)) {
+                    cells[count++] = y * width + x;
+                }
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    private static int countHouses(ChunkedGrid grid) {
+        int count = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                if (grid.getType(x, y) == Constants.HOUSE) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
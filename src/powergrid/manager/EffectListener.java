@@ -4,5 +4,8 @@ public interface EffectListener {
     void onEarthquakeStarted(int magnitude, int affectedCells);
     void onEarthquakeEnded();
     void onDamageReported(int x, int y, String damageType, int severity);
+    // تلف خلية بعد زلزال - لعرض المؤشرات فقط، تكلفة الضرر تُحسب من onDamageReported
+    void onCellDamaged(int x, int y, int damageLevel);
     void onRepairNeeded(int x, int y, int repairCost);
+    void onCellRepaired(int x, int y);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package powergrid.manager;
 
 import powergrid.effects.*;
+import powergrid.metrics.jfr.EarthquakeEvent;
 import powergrid.model.*;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -9,30 +10,81 @@ public class EffectManager {
     private List<EarthquakeEffect> activeEarthquakes;
     private Grid grid;
     private List<EffectListener> listeners;
+    private EventBus eventBus;
     private Random random;
+    private ActionRecorder recorder;
     
     public EffectManager(Grid grid) {
         this.grid = grid;
         this.activeEarthquakes = new CopyOnWriteArrayList<>();
-        this.listeners = new ArrayList<>();
+        // الواجهة تسجل وتلغي من خيطها بينما خيط المحاكاة يمر على القائمة
+        this.listeners = new CopyOnWriteArrayList<>();
         this.random = new Random();
     }
     
     public void triggerEarthquake(int epicenterX, int epicenterY, int magnitude) {
-        EarthquakeEffect earthquake = new EarthquakeEffect(epicenterX, epicenterY, magnitude);
+        EarthquakeEvent event = new EarthquakeEvent();
+        event.begin();
+        EarthquakeEffect earthquake = new EarthquakeEffect(epicenterX, epicenterY, magnitude, random);
         activeEarthquakes.add(earthquake);
         
         // تطبيق التأثير
         earthquake.applyEffect(grid);
+        if (recorder != null) {
+            recordEarthquake(earthquake);
+        }
         
         // إعلام المستمعين
         notifyEarthquakeTriggered(earthquake);
         
+        // مؤشرات التلف لكل خلية تضررت (لا تمر على حساب تكلفة الضرر)
+        for (Cell cell : earthquake.getAffectedCells()) {
+            if (cell.isDamaged()) {
+                notifyCellDamaged(cell.getX(), cell.getY(), cell.getDamageLevel());
+            }
+        }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.epicenterX = epicenterX;
+            event.epicenterY = epicenterY;
+            event.magnitude = magnitude;
+            event.affectedCells = earthquake.getAffectedCells().size();
+            event.commit();
+        }
+        
         // تأثيرات صوتية ومرئية
         playEarthquakeSound(magnitude);
         startScreenShake(magnitude);
     }
     
+    /**
+     * تثبيت بذرة الأرقام العشوائية لمحاكاة قابلة للتكرار
+     */
+    public void setSeed(long seed) {
+        random.setSeed(seed);
+    }
+    
+    public void setRecorder(ActionRecorder recorder) {
+        this.recorder = recorder;
+    }
+    
+    /**
+     * ناقل الأحداث للمستهلكين غير المتزامنين (يربطه GameManager)
+     */
+    void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+    
+    // تسجيل نتيجة الزلزال (الحالة الكاملة لكل خلية متأثرة) حتى تكون الإعادة مطابقة
+    private void recordEarthquake(EarthquakeEffect earthquake) {
+        recorder.onEarthquake(earthquake.getEpicenterX(), earthquake.getEpicenterY(), earthquake.getMagnitude());
+        ChunkedGrid cells = grid.getCellStore();
+        for (Cell cell : earthquake.getAffectedCells()) {
+            recorder.onCellState(cells, cell.getX(), cell.getY());
+        }
+    }
+    
     public void triggerRandomEarthquake() {
         int x = random.nextInt(grid.getWidth());
         int y = random.nextInt(grid.getHeight());
@@ -65,6 +117,10 @@ public class EffectManager {
         }
     }
     
+    /**
+     * مستمع متزامن على خيط المحاكاة - للمنطق الذي يعدّل حالة اللعبة فقط،
+     * والواجهة تستخدم GameManager.subscribe حتى لا تؤخر الدورة
+     */
     public void addListener(EffectListener listener) {
         listeners.add(listener);
     }
@@ -73,6 +129,39 @@ public class EffectManager {
         listeners.remove(listener);
     }
     
+    /**
+     * إعلام المستمعين بتلف خلية
+     */
+    public void reportDamage(int x, int y, String damageType, int severity) {
+        for (EffectListener listener : listeners) {
+            listener.onDamageReported(x, y, damageType, severity);
+        }
+        if (eventBus != null) {
+            eventBus.publish(EventBus.DAMAGE, x, y, severity, damageType);
+        }
+    }
+    
+    /**
+     * إعلام المستمعين بإصلاح خلية
+     */
+    public void reportRepair(int x, int y) {
+        for (EffectListener listener : listeners) {
+            listener.onCellRepaired(x, y);
+        }
+        if (eventBus != null) {
+            eventBus.publish(EventBus.CELL_REPAIRED, x, y, 0, null);
+        }
+    }
+    
+    private void notifyCellDamaged(int x, int y, int damageLevel) {
+        for (EffectListener listener : listeners) {
+            listener.onCellDamaged(x, y, damageLevel);
+        }
+        if (eventBus != null) {
+            eventBus.publish(EventBus.CELL_DAMAGED, x, y, damageLevel, null);
+        }
+    }
+    
     private void notifyEarthquakeTriggered(EarthquakeEffect earthquake) {
         for (EffectListener listener : listeners) {
             listener.onEarthquakeStarted(
@@ -80,12 +169,19 @@ public class EffectManager {
                 earthquake.getAffectedCells().size()
             );
         }
+        if (eventBus != null) {
+            eventBus.publish(EventBus.EARTHQUAKE_STARTED, earthquake.getMagnitude(),
+                             earthquake.getAffectedCells().size(), 0, null);
+        }
     }
     
     private void notifyEarthquakeEnded(EarthquakeEffect earthquake) {
         for (EffectListener listener : listeners) {
             listener.onEarthquakeEnded();
         }
+        if (eventBus != null) {
+            eventBus.publish(EventBus.EARTHQUAKE_ENDED, 0, 0, 0, null);
+        }
     }
     
     private void playEarthquakeSound(int magnitude) {
@@ -0,0 +1,367 @@
+package powergrid.manager;
+
+import powergrid.manager.GameManager.GameStateListener;
+import powergrid.metrics.EngineMetrics;
+import java.util.Arrays;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ناقل أحداث اللعبة إلى المستهلكين (الواجهة، المقاييس...) - حلقة بكاتب واحد بدون أقفال
+ *
+ * الكاتب هو خيط المحاكاة: يكتب الأحداث في خانات مخصصة مسبقاً (بدون كائنات لكل حدث)
+ * ولا تظهر للمستهلكين إلا عند flush() في نهاية الدورة أو الإجراء، فتصل كل دفعة مرة واحدة
+ * تغييرات العدادات (النقاط، المال، اليوم، الطاقة) تُدمج: حدث حالة واحد بآخر القيم لكل دفعة
+ *
+ * كل مستهلك له خيط ومؤشر قراءة خاص به، فالمستهلك البطيء لا يؤخر المحاكاة:
+ * إذا امتلأت الحلقة أمام أبطأ مستهلك يُسقط حدث التأثيرات ويُحسب في events.dropped
+ * أحداث التحكم (الحالة، التحذير، الهدف، نهاية اللعبة) لها جزء محجوز من الحلقة لا تدخله أحداث التأثيرات،
+ * وإذا امتلأ تنشر الدفعة وتنتظر قليلاً حتى يتقدم المستهلك - لا تُسقط إلا إذا توقف المستهلك تماماً
+ *
+ * المستمعون الذين يعدّلون حالة اللعبة يبقون متزامنين (EffectManager.addListener)،
+ * وكذلك سجل الأحداث (ActionRecorder): الإعادة تحتاج كل حدث بترتيبه وبكامل حالته بدون دمج أو إسقاط
+ */
+public final class EventBus {
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int FIELDS = 5;
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long CONTROL_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long CONTROL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    // أنواع الأحداث
+    static final int STATE = 1;              // score, money, day, demand, supply
+    static final int DISASTER_WARNING = 2;   // severity + النص
+    static final int OBJECTIVE = 3;          // النص
+    static final int GAME_OVER = 4;          // win + النص
+    // ما بعد GAME_OVER أحداث تأثيرات
+    static final int EARTHQUAKE_STARTED = 5; // magnitude, affectedCells
+    static final int EARTHQUAKE_ENDED = 6;
+    static final int DAMAGE = 7;             // x, y, severity + النص
+    static final int REPAIR_NEEDED = 8;      // x, y, cost
+    static final int CELL_REPAIRED = 9;      // x, y
+    static final int CELL_DAMAGED = 10;      // x, y, damageLevel
+
+    // الحلقة - خانات ثابتة يعاد استخدامها
+    private final int mask;
+    private final int reserved; // خانات لأحداث التحكم فقط
+    private final int[] types;
+    private final int[] fields;
+    private final String[] texts;
+
+    // مؤشر النشر: آخر تسلسل مرئي للمستهلكين (حصري)
+    private final AtomicLong published = new AtomicLong();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    // حقول الكاتب (خيط المحاكاة وحده)
+    private long writeSequence;
+    private long cachedGate;
+    private boolean stateDirty;
+    private boolean stateSent;
+    private final int[] state = new int[FIELDS];
+    private final int[] sentState = new int[FIELDS];
+
+    /**
+     * اشتراك مستهلك واحد - خيطه يقرأ الدفعات المنشورة ويستدعي المستمعين بالترتيب
+     */
+    public final class Subscription implements Runnable {
+        private final EffectListener effectListener;
+        private final GameStateListener stateListener;
+        private final AtomicLong cursor;
+        private final Thread thread;
+        private volatile boolean waiting;
+        private volatile boolean closed;
+
+        // آخر حالة سُلمت لهذا المستهلك - لا يُستدعى إلا ما تغير
+        private final int[] delivered = new int[FIELDS];
+        private boolean hasDelivered;
+
+        private Subscription(String name, EffectListener effectListener, GameStateListener stateListener) {
+            this.effectListener = effectListener;
+            this.stateListener = stateListener;
+            this.cursor = new AtomicLong(published.get());
+            this.thread = new Thread(this, "event-bus-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        /**
+         * إيقاف الخيط - الأحداث غير المقروءة تُهمل
+         */
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            long next = cursor.get();
+            while (!closed) {
+                long available = published.get();
+                if (available == next) {
+                    waitForEvents(next);
+                    continue;
+                }
+                deliver(next, available);
+                next = available;
+            }
+        }
+
+        private void waitForEvents(long next) {
+            waiting = true;
+            if (!closed && published.get() == next) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waiting = false;
+        }
+
+        private void deliver(long from, long to) {
+            // مستهلك متأخر عدة دفعات يحتاج آخر حالة فقط
+            long lastState = -1;
+            for (long sequence = from; sequence < to; sequence++) {
+                if (types[(int) sequence & mask] == STATE) {
+                    lastState = sequence;
+                }
+            }
+            for (long sequence = from; sequence < to; sequence++) {
+                int slot = (int) sequence & mask;
+                int type = types[slot];
+                if (type == STATE && sequence != lastState) {
+                    continue;
+                }
+                try {
+                    dispatch(type, slot * FIELDS, texts[slot]);
+                } catch (Throwable t) {
+                    // استثناء المستمع لا يوقف المستهلك
+                    t.printStackTrace();
+                }
+                // تحرير الخانة فوراً حتى يجد الكاتب مكاناً أثناء دفعة طويلة
+                cursor.lazySet(sequence + 1);
+            }
+        }
+
+        private void dispatch(int type, int base, String text) {
+            int a = fields[base], b = fields[base + 1], c = fields[base + 2];
+            if (stateListener != null) {
+                switch (type) {
+                    case STATE: deliverState(base); return;
+                    case DISASTER_WARNING: stateListener.onDisasterWarning(text, a); return;
+                    case OBJECTIVE: stateListener.onNewObjective(text); return;
+                    case GAME_OVER: stateListener.onGameOver(a != 0, text); return;
+                    default: break;
+                }
+            }
+            if (effectListener != null) {
+                switch (type) {
+                    case EARTHQUAKE_STARTED: effectListener.onEarthquakeStarted(a, b); break;
+                    case EARTHQUAKE_ENDED: effectListener.onEarthquakeEnded(); break;
+                    case DAMAGE: effectListener.onDamageReported(a, b, text, c); break;
+                    case REPAIR_NEEDED: effectListener.onRepairNeeded(a, b, c); break;
+                    case CELL_REPAIRED: effectListener.onCellRepaired(a, b); break;
+                    case CELL_DAMAGED: effectListener.onCellDamaged(a, b, c); break;
+                    default: break;
+                }
+            }
+        }
+
+        private void deliverState(int base) {
+            int score = fields[base], money = fields[base + 1], day = fields[base + 2];
+            int demand = fields[base + 3], supply = fields[base + 4];
+            if (!hasDelivered || score != delivered[0]) {
+                stateListener.onScoreChanged(score);
+            }
+            if (!hasDelivered || money != delivered[1]) {
+                stateListener.onMoneyChanged(money);
+            }
+            if (!hasDelivered || day != delivered[2]) {
+                stateListener.onDayChanged(day);
+            }
+            if (!hasDelivered || demand != delivered[3] || supply != delivered[4]) {
+                stateListener.onPowerUpdate(demand, supply);
+            }
+            System.arraycopy(fields, base, delivered, 0, FIELDS);
+            hasDelivered = true;
+        }
+
+        boolean matches(Object listener) {
+            return listener != null && (listener == effectListener || listener == stateListener);
+        }
+    }
+
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity عدد الخانات (يُقرب لأقرب قوة للعدد 2)
+     */
+    public EventBus(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("سعة الحلقة يجب أن تكون موجبة");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.reserved = size >> 3;
+        this.types = new int[size];
+        this.fields = new int[size * FIELDS];
+        this.texts = new String[size];
+    }
+
+    // ===== الاشتراك (من أي خيط) =====
+
+    /**
+     * تسجيل مستهلك بخيط خاص - يستقبل الأحداث المنشورة بعد التسجيل فقط
+     * أحد المستمعين يمكن أن يكون null
+     */
+    public Subscription subscribe(String name, EffectListener effectListener, GameStateListener stateListener) {
+        if (effectListener == null && stateListener == null) {
+            throw new IllegalArgumentException("الاشتراك يحتاج مستمعاً واحداً على الأقل");
+        }
+        Subscription subscription = new Subscription(name, effectListener, stateListener);
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * إلغاء كل اشتراكات المستمع
+     */
+    public void unsubscribe(Object listener) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.matches(listener)) {
+                subscription.close();
+            }
+        }
+    }
+
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    // ===== الكتابة (خيط المحاكاة فقط) =====
+
+    /**
+     * تسجيل آخر قيم العدادات - تُرسل مرة واحدة عند flush إذا تغيرت
+     */
+    void updateState(int score, int money, int day, int demand, int supply) {
+        if (stateDirty) {
+            EngineMetrics.EVENTS_COALESCED.increment();
+        }
+        state[0] = score;
+        state[1] = money;
+        state[2] = day;
+        state[3] = demand;
+        state[4] = supply;
+        stateDirty = true;
+    }
+
+    void publish(int type, int a, int b, int c, String text) {
+        int base = claim(type, text);
+        if (base >= 0) {
+            fields[base] = a;
+            fields[base + 1] = b;
+            fields[base + 2] = c;
+        }
+    }
+
+    /**
+     * حجز الخانة التالية - لا تظهر للمستهلكين قبل flush
+     * @return بداية حقول الخانة، أو -1 إذا لا يوجد مستهلكون أو الحلقة ممتلئة
+     */
+    private int claim(int type, String text) {
+        if (subscriptions.isEmpty()) {
+            return -1; // لا أحد يقرأ - الحلقة تبقى فارغة
+        }
+        long sequence = writeSequence;
+        boolean control = type <= GAME_OVER;
+        int limit = control ? types.length : types.length - reserved;
+        if (sequence - cachedGate >= limit) {
+            cachedGate = minimumCursor(sequence);
+            if (sequence - cachedGate >= limit && !(control && awaitSpace(sequence))) {
+                EngineMetrics.EVENTS_DROPPED.increment();
+                return -1;
+            }
+        }
+        int slot = (int) sequence & mask;
+        types[slot] = type;
+        texts[slot] = text;
+        writeSequence = sequence + 1;
+        EngineMetrics.EVENTS_PUBLISHED.increment();
+        return slot * FIELDS;
+    }
+
+    /**
+     * حدث تحكم والحلقة ممتلئة: نشر ما سبقه حتى يستطيع المستهلكون تفريغه، ثم انتظار قصير
+     * @return true إذا تقدم أبطأ مستهلك بما يكفي لخانة واحدة
+     */
+    private boolean awaitSpace(long sequence) {
+        publishPending();
+        long deadline = System.nanoTime() + CONTROL_WAIT_NANOS;
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(this, CONTROL_PARK_NANOS);
+            cachedGate = minimumCursor(sequence);
+            if (sequence - cachedGate < types.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * نشر الدفعة الحالية (مع حدث الحالة المدمج) وإيقاظ المستهلكين المنتظرين
+     */
+    void flush() {
+        if (stateDirty && (!stateSent || !Arrays.equals(state, sentState))) {
+            int base = claim(STATE, null);
+            if (base >= 0) {
+                System.arraycopy(state, 0, fields, base, FIELDS);
+                System.arraycopy(state, 0, sentState, 0, FIELDS);
+                stateSent = true;
+                stateDirty = false;
+            }
+            // إذا لم يُحجز مكان تبقى الحالة معلقة وتُعاد في flush القادم
+        } else {
+            stateDirty = false;
+        }
+        publishPending();
+    }
+
+    private void publishPending() {
+        if (writeSequence == published.get()) {
+            return;
+        }
+        published.set(writeSequence);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.waiting) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    private long minimumCursor(long sequence) {
+        long minimum = sequence;
+        for (Subscription subscription : subscriptions) {
+            minimum = Math.min(minimum, subscription.cursor.get());
+        }
+        return minimum;
+    }
+
+    // ===== المراقبة =====
+
+    public int getCapacity() { return types.length; }
+    public int getSubscriberCount() { return subscriptions.size(); }
+
+    /**
+     * عدد الأحداث المنشورة التي لم يقرأها أبطأ مستهلك بعد
+     */
+    public long getBacklog() {
+        long head = published.get();
+        return head - minimumCursor(head);
+    }
+}
@@ -2,30 +2,33 @@ package powergrid.manager;
 
 import powergrid.model.*;
 import powergrid.effects.*;
-import powergrid.ui.*;
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.MetricsRegistry;
+import powergrid.metrics.jfr.RepairDispatchEvent;
+import powergrid.metrics.jfr.TickEvent;
 import powergrid.utils.Constants;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class GameManager {
     // المكونات الأساسية
     private Grid grid;
     private EffectManager effectManager;
-    private List<GameStateListener> stateListeners;
+    private final EventBus eventBus; // أحداث الواجهة والمستهلكين على خيوطهم
     
     // حالة اللعبة
     private int score;
     private int money;
     private int day;
-    private boolean isGameRunning;
-    private boolean isGamePaused;
+    private volatile boolean isGameRunning;
+    private volatile boolean isGamePaused;
     private int powerDemand;
     private int powerSupply;
     private int satisfiedHouses;
     private int totalHouses;
     private int repairCrews;
+    private Difficulty difficulty;
     private double disasterProbability;
     
     // إحصائيات
@@ -36,9 +39,20 @@ public class GameManager {
     private int factoriesPowered;
     
     // مؤقتات
-    private ScheduledExecutorService gameTimer;
+    public static final long DAY_MILLIS = 5000; // مدة اليوم بالوقت الحقيقي
+    private final boolean realTime; // false = بدون مؤقت، الأيام تتقدم عبر step()
+    private static final AtomicLong NEXT_SHARD_KEY = new AtomicLong();
+    private final long shardKey = NEXT_SHARD_KEY.getAndIncrement(); // يحدد عامل المجدول المشترك
+    private TickScheduler.Task gameTimer;
     private Random random;
     
+    // سجل الأحداث (اختياري)
+    private ActionRecorder recorder;
+    
+    // النسخ المنشورة للواجهة - خيط المحاكاة وحده يعدّل الحالة، والقراء يستخدمون هذه النسخ فقط
+    private volatile GridSnapshot gridSnapshot;
+    private volatile GameStats stats;
+    
     // مستويات الصعوبة
     public enum Difficulty {
         EASY(10000, 0.01, 5),
@@ -54,6 +68,10 @@ public class GameManager {
             this.disasterChance = chance;
             this.repairCrews = crews;
         }
+        
+        public int getStartingMoney() { return startingMoney; }
+        public double getDisasterChance() { return disasterChance; }
+        public int getRepairCrews() { return repairCrews; }
     }
     
     // حدث تغيير حالة اللعبة
@@ -68,13 +86,26 @@ public class GameManager {
     }
     
     public GameManager(Grid grid, EffectManager effectManager) {
+        this(grid, effectManager, true);
+    }
+    
+    /**
+     * @param realTime true لتشغيل مؤقت اللعبة (يوم كل 5 ثوان)،
+     *                 false لمحاكاة بدون واجهة يتحكم المستدعي فيها بالأيام عبر step()
+     */
+    public GameManager(Grid grid, EffectManager effectManager, boolean realTime) {
+        this(grid, effectManager, realTime, Difficulty.MEDIUM);
+    }
+    
+    public GameManager(Grid grid, EffectManager effectManager, boolean realTime, Difficulty difficulty) {
+        this.realTime = realTime;
         this.grid = grid;
         this.effectManager = effectManager;
-        this.stateListeners = new ArrayList<>();
+        this.eventBus = new EventBus();
         this.random = new Random();
+        effectManager.setEventBus(eventBus);
         
-        // الإعدادات الافتراضية
-        initializeGame(Difficulty.MEDIUM);
+        initializeGame(difficulty);
     }
     
     private void initializeGame(Difficulty difficulty) {
@@ -86,6 +117,7 @@ public class GameManager {
         this.powerDemand = 0;
         this.powerSupply = 0;
         this.repairCrews = difficulty.repairCrews;
+        this.difficulty = difficulty;
         this.disasterProbability = difficulty.disasterChance;
         this.earthquakesTriggered = 0;
         this.totalDamageCost = 0;
@@ -96,13 +128,16 @@ public class GameManager {
         // حساب المنازل والمصانع
         countBuildings();
         
-        // بدء مؤقت اللعبة
-        startGameTimer();
-        
         // إعداد أهداف أولية
         setupInitialObjectives();
         
         notifyStateListeners();
+        publishSnapshot();
+        
+        // بدء مؤقت اللعبة بعد اكتمال التهيئة حتى لا تبدأ أول دورة على حالة ناقصة
+        if (realTime) {
+            startGameTimer();
+        }
     }
     
     private void countBuildings() {
@@ -123,14 +158,12 @@ public class GameManager {
     }
     
     private void startGameTimer() {
-        gameTimer = Executors.newScheduledThreadPool(1);
-        
-        // تحديث كل ثانية (يوم في اللعبة)
-        gameTimer.scheduleAtFixedRate(() -> {
+        // المجدول المشترك بدلاً من خيط لكل لعبة - الدورات والإجراءات على نفس العامل دائماً
+        gameTimer = TickScheduler.shared().scheduleAtFixedRate(shardKey, () -> {
             if (!isGamePaused && isGameRunning) {
                 updateGame();
             }
-        }, 0, 5, TimeUnit.SECONDS); // 5 ثواني حقيقية = يوم في اللعبة
+        }, 0, DAY_MILLIS, TimeUnit.MILLISECONDS); // 5 ثواني حقيقية = يوم في اللعبة
     }
     
     private void setupInitialObjectives() {
@@ -156,8 +189,7 @@ public class GameManager {
             
             @Override
             public void onEarthquakeEnded() {
-                // تحقق إذا كانت هناك حاجة للإصلاحات
-                checkRepairNeeds();
+                // الإصلاحات تُوزع كل يوم في updateGame
             }
             
             @Override
@@ -170,16 +202,59 @@ public class GameManager {
                 }
             }
             
+            @Override
+            public void onCellDamaged(int x, int y, int damageLevel) {
+                // للمؤشرات فقط - تكلفة الضرر من onDamageReported
+            }
+            
             @Override
             public void onRepairNeeded(int x, int y, int repairCost) {
                 // يمكن إضافة المزيد من المنطق هنا
             }
+            
+            @Override
+            public void onCellRepaired(int x, int y) {
+                // الإصلاحات تُحسب في checkRepairNeeds و manualRepair
+            }
         });
     }
     
+    /**
+     * تثبيت بذرة الأرقام العشوائية (للعبة ولمدير التأثيرات) لمحاكاة قابلة للتكرار
+     */
+    public void setSeed(long seed) {
+        if (recorder != null) {
+            recorder.onRandomSeed(seed);
+        }
+        random.setSeed(seed);
+        effectManager.setSeed(random.nextLong());
+    }
+    
+    /**
+     * تقدم يوم واحد على خيط المستدعي - للمحاكاة بدون مؤقت فقط
+     * @return true إذا تقدمت اللعبة (ليست متوقفة أو منتهية)
+     */
+    public boolean step() {
+        if (realTime) {
+            throw new IllegalStateException("step() متاحة فقط في وضع المحاكاة بدون مؤقت");
+        }
+        if (isGamePaused || !isGameRunning) {
+            return false;
+        }
+        updateGame();
+        return true;
+    }
+    
     private void updateGame() {
+        long start = MetricsRegistry.start();
+        TickEvent event = new TickEvent();
+        event.begin();
+        
         // زيادة اليوم
         day++;
+        if (recorder != null) {
+            recorder.onDayStarted(day);
+        }
         
         // تحديث الطلب على الطاقة
         updatePowerDemand();
@@ -196,14 +271,73 @@ public class GameManager {
         // أحداث عشوائية (كوارث)
         checkRandomEvents();
         
+        // تقدم الزلازل النشطة يوماً (المنتهية تُحذف) وتأثيرات الخلايا
+        effectManager.update(1f);
+        
+        // أطقم الإصلاح تعمل كل يوم على الخلايا المتضررة
+        checkRepairNeeds();
+        
         // تحديث الإحصائيات
         updateStatistics();
         
         // تحقق من شروط الفوز/الخسارة
         checkGameConditions();
         
-        // إشعار المستمعين بالتحديثات
+        // إشعار المستمعين بالتحديثات (تُدمج وتُرسل مع النسخة)
         notifyStateListeners();
+        
+        // نشر نسخة جديدة من الحالة للواجهة
+        publishSnapshot();
+        
+        EngineMetrics.REPAIR_QUEUE_DEPTH.set(grid.getDamagedCellCount());
+        EngineMetrics.TICKS.increment();
+        EngineMetrics.TICK_DURATION.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.day = day;
+            event.width = grid.getWidth();
+            event.height = grid.getHeight();
+            event.satisfiedHouses = satisfiedHouses;
+            event.damagedCells = grid.getDamagedCellCount();
+            event.commit();
+        }
+    }
+    
+    /**
+     * نشر نسخة ثابتة من الشبكة والعدادات ودفعة الأحداث المتراكمة - تُستدعى من خيط المحاكاة فقط
+     */
+    private void publishSnapshot() {
+        eventBus.flush();
+        gridSnapshot = GridSnapshot.capture(grid);
+        stats = new GameStats(score, money, day, isGameRunning, isGamePaused,
+                              powerDemand, powerSupply, satisfiedHouses, totalHouses,
+                              repairCrews, earthquakesTriggered, totalDamageCost,
+                              repairsCompleted, housesPowered, factoriesPowered);
+    }
+    
+    /**
+     * تنفيذ إجراء يعدّل حالة اللعبة على خيط المحاكاة ثم نشر نسخة جديدة
+     * يجب أن تمر كل التعديلات القادمة من الواجهة (زلازل، إصلاحات، مشتريات) عبر هذه الدالة
+     */
+    public void execute(Runnable action) {
+        if (!realTime) {
+            // بدون مؤقت: خيط المستدعي هو خيط المحاكاة
+            if (isGameRunning) {
+                action.run();
+                publishSnapshot();
+            }
+            return;
+        }
+        
+        TickScheduler.Task timer = gameTimer;
+        if (timer == null || timer.isCancelled()) {
+            return; // اللعبة منتهية
+        }
+        
+        TickScheduler.shared().execute(shardKey, () -> {
+            action.run();
+            publishSnapshot();
+        });
     }
     
     private void updatePowerDemand() {
@@ -356,6 +490,9 @@ public class GameManager {
     }
     
     private void checkRepairNeeds() {
+        RepairDispatchEvent event = new RepairDispatchEvent();
+        event.begin();
+        int repaired = 0;
         List<Cell> damagedCells = grid.getDamagedCells();
         if (!damagedCells.isEmpty() && repairCrews > 0) {
             int repairsPossible = Math.min(repairCrews, damagedCells.size());
@@ -367,14 +504,30 @@ public class GameManager {
                 if (money >= repairCost) {
                     // إصلاح الخلية
                     cell.repair();
+                    if (recorder != null) {
+                        recorder.onCellRepaired(cell.getX(), cell.getY());
+                    }
                     deductMoney(repairCost);
                     repairsCompleted++;
+                    repaired++;
+                    EngineMetrics.REPAIRS.increment();
                     grid.removeDamagedCell(cell);
+                    effectManager.reportRepair(cell.getX(), cell.getY());
                     
                     notifyStateChange("🔧 تم إصلاح موقع (" + cell.getX() + "," + cell.getY() + ")");
                 }
             }
         }
+        
+        event.end();
+        if (event.shouldCommit()) {
+            event.queueDepth = damagedCells.size();
+            event.repairCrews = repairCrews;
+            event.cellsRepaired = repaired;
+            event.width = grid.getWidth();
+            event.height = grid.getHeight();
+            event.commit();
+        }
     }
     
     private void checkGameConditions() {
@@ -408,27 +561,33 @@ public class GameManager {
     
     // ===== واجهة المستخدم =====
     
+    /**
+     * تسجيل مستمع حالة - يُستدعى على خيط خاص به عبر ناقل الأحداث، لا على خيط المحاكاة
+     */
     public void addStateListener(GameStateListener listener) {
-        stateListeners.add(listener);
+        String name = listener.getClass().getSimpleName();
+        eventBus.subscribe(name.isEmpty() ? "state" : name, null, listener);
     }
     
     public void removeStateListener(GameStateListener listener) {
-        stateListeners.remove(listener);
+        eventBus.unsubscribe(listener);
+    }
+    
+    /**
+     * مستهلك بخيط خاص لأحداث التأثيرات و/أو الحالة (أحد المستمعين يمكن أن يكون null)
+     */
+    public EventBus.Subscription subscribe(String name, EffectListener effectListener,
+                                           GameStateListener stateListener) {
+        return eventBus.subscribe(name, effectListener, stateListener);
     }
     
+    // تُدمج الاستدعاءات المتكررة في الدورة الواحدة إلى حدث حالة واحد عند النشر
     private void notifyStateListeners() {
-        for (GameStateListener listener : stateListeners) {
-            listener.onScoreChanged(score);
-            listener.onMoneyChanged(money);
-            listener.onDayChanged(day);
-            listener.onPowerUpdate(powerDemand, powerSupply);
-        }
+        eventBus.updateState(score, money, day, powerDemand, powerSupply);
     }
     
     private void notifyDisasterWarning(String disasterType, int severity) {
-        for (GameStateListener listener : stateListeners) {
-            listener.onDisasterWarning(disasterType, severity);
-        }
+        eventBus.publish(EventBus.DISASTER_WARNING, severity, 0, 0, disasterType);
     }
     
     private void notifyStateChange(String message) {
@@ -437,17 +596,14 @@ public class GameManager {
     }
     
     private void addObjective(String objective) {
-        for (GameStateListener listener : stateListeners) {
-            listener.onNewObjective(objective);
-        }
+        eventBus.publish(EventBus.OBJECTIVE, 0, 0, 0, objective);
     }
     
     // ===== التحكم في اللعبة =====
     
     public void startNewGame(Difficulty difficulty) {
-        if (gameTimer != null && !gameTimer.isShutdown()) {
-            gameTimer.shutdown();
-        }
+        // انتظار انتهاء الدورة الحالية قبل إعادة التهيئة من هذا الخيط
+        stopGameTimer();
         
         initializeGame(difficulty);
         isGameRunning = true;
@@ -458,34 +614,42 @@ public class GameManager {
     
     public void pauseGame() {
         isGamePaused = true;
+        execute(() -> {});
         notifyStateChange("⏸️ اللعبة متوقفة");
     }
     
     public void resumeGame() {
         isGamePaused = false;
+        execute(() -> {});
         notifyStateChange("▶️ اللعبة مستأنفة");
     }
     
     public void endGame(boolean win, String message) {
         isGameRunning = false;
         if (gameTimer != null) {
-            gameTimer.shutdown();
+            gameTimer.cancel();
         }
         
-        for (GameStateListener listener : stateListeners) {
-            listener.onGameOver(win, message);
-        }
+        eventBus.publish(EventBus.GAME_OVER, win ? 1 : 0, 0, 0, message);
+        publishSnapshot();
         
         notifyStateChange(message);
     }
     
     public void addMoney(int amount) {
         money += amount;
+        if (recorder != null) {
+            recorder.onMoneyChanged(amount);
+        }
         notifyStateListeners();
     }
     
     public void deductMoney(int amount) {
+        int previous = money;
         money = Math.max(0, money - amount);
+        if (recorder != null && money != previous) {
+            recorder.onMoneyChanged(money - previous);
+        }
         notifyStateListeners();
     }
     
@@ -505,14 +669,58 @@ public class GameManager {
     public void manualRepair(Cell cell) {
         if (cell.isDamaged() && money >= 500) {
             cell.repair();
+            if (recorder != null) {
+                recorder.onCellRepaired(cell.getX(), cell.getY());
+            }
             deductMoney(500);
             repairsCompleted++;
+            EngineMetrics.REPAIRS.increment();
             grid.removeDamagedCell(cell);
+            effectManager.reportRepair(cell.getX(), cell.getY());
             notifyStateChange("🔧 إصلاح يدوي في (" + cell.getX() + "," + cell.getY() + ")");
         }
     }
     
-    // ===== Getters =====
+    /**
+     * استرجاع العدادات من ملف حفظ - تُستدعى على خيط المحاكاة (عبر execute في الوضع الحقيقي)
+     */
+    public void restoreState(Difficulty difficulty, GameStats saved) {
+        this.difficulty = difficulty;
+        this.disasterProbability = difficulty.disasterChance;
+        this.score = saved.getScore();
+        this.money = saved.getMoney();
+        this.day = saved.getDay();
+        this.isGameRunning = saved.isGameRunning();
+        this.isGamePaused = saved.isGamePaused();
+        this.powerDemand = saved.getPowerDemand();
+        this.powerSupply = saved.getPowerSupply();
+        this.satisfiedHouses = saved.getSatisfiedHouses();
+        this.totalHouses = saved.getTotalHouses();
+        this.repairCrews = saved.getRepairCrews();
+        this.earthquakesTriggered = saved.getEarthquakesTriggered();
+        this.totalDamageCost = saved.getTotalDamageCost();
+        this.repairsCompleted = saved.getRepairsCompleted();
+        this.housesPowered = saved.getHousesPowered();
+        this.factoriesPowered = saved.getFactoriesPowered();
+        
+        notifyStateListeners();
+        publishSnapshot();
+    }
+    
+    /**
+     * ربط سجل أحداث باللعبة ومدير التأثيرات (null لإيقافه)
+     */
+    public void setRecorder(ActionRecorder recorder) {
+        this.recorder = recorder;
+        effectManager.setRecorder(recorder);
+    }
+    
+    // ===== النسخ المنشورة (آمنة للقراءة من أي خيط) =====
+    
+    public GridSnapshot getGridSnapshot() { return gridSnapshot; }
+    public GameStats getStats() { return stats; }
+    
+    // ===== Getters (لخيط المحاكاة - الواجهة تستخدم getStats) =====
     
     public int getScore() { return score; }
     public int getMoney() { return money; }
@@ -529,6 +737,7 @@ public class GameManager {
     public int getEarthquakesTriggered() { return earthquakesTriggered; }
     public int getTotalDamageCost() { return totalDamageCost; }
     public int getRepairsCompleted() { return repairsCompleted; }
+    public Difficulty getDifficulty() { return difficulty; }
     public double getPowerEfficiency() { 
         return powerDemand > 0 ? (double) powerSupply / powerDemand : 0; 
     }
@@ -543,14 +752,18 @@ public class GameManager {
     // ===== تنظيف الموارد =====
     
     public void cleanup() {
-        if (gameTimer != null && !gameTimer.isShutdown()) {
-            gameTimer.shutdown();
+        stopGameTimer();
+        eventBus.close();
+    }
+    
+    private void stopGameTimer() {
+        if (gameTimer != null) {
+            gameTimer.cancel();
             try {
-                if (!gameTimer.awaitTermination(5, TimeUnit.SECONDS)) {
-                    gameTimer.shutdownNow();
-                }
+                // انتظار انتهاء الدورة الجارية على العامل قبل إعادة التهيئة
+                gameTimer.awaitIdle(5, TimeUnit.SECONDS);
             } catch (InterruptedException e) {
-                gameTimer.shutdownNow();
+                Thread.currentThread().interrupt();
             }
         }
     }
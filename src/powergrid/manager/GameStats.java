@@ -0,0 +1,64 @@
+package powergrid.manager;
+
+/**
+ * نسخة ثابتة من عدادات اللعبة تُنشر في نهاية كل دورة محاكاة
+ * يمكن قراءتها من خيط الواجهة بدون أي قفل
+ */
+public final class GameStats {
+    private final int score;
+    private final int money;
+    private final int day;
+    private final boolean gameRunning;
+    private final boolean gamePaused;
+    private final int powerDemand;
+    private final int powerSupply;
+    private final int satisfiedHouses;
+    private final int totalHouses;
+    private final int repairCrews;
+    private final int earthquakesTriggered;
+    private final int totalDamageCost;
+    private final int repairsCompleted;
+    private final int housesPowered;
+    private final int factoriesPowered;
+
+    public GameStats(int score, int money, int day, boolean gameRunning, boolean gamePaused,
+                     int powerDemand, int powerSupply, int satisfiedHouses, int totalHouses,
+                     int repairCrews, int earthquakesTriggered, int totalDamageCost,
+                     int repairsCompleted, int housesPowered, int factoriesPowered) {
+        this.score = score;
+        this.money = money;
+        this.day = day;
+        this.gameRunning = gameRunning;
+        this.gamePaused = gamePaused;
+        this.powerDemand = powerDemand;
+        this.powerSupply = powerSupply;
+        this.satisfiedHouses = satisfiedHouses;
+        this.totalHouses = totalHouses;
+        this.repairCrews = repairCrews;
+        this.earthquakesTriggered = earthquakesTriggered;
+        this.totalDamageCost = totalDamageCost;
+        this.repairsCompleted = repairsCompleted;
+        this.housesPowered = housesPowered;
+        this.factoriesPowered = factoriesPowered;
+    }
+
+    public int getScore() { return score; }
+    public int getMoney() { return money; }
+    public int getDay() { return day; }
+    public boolean isGameRunning() { return gameRunning; }
+    public boolean isGamePaused() { return gamePaused; }
+    public int getPowerDemand() { return powerDemand; }
+    public int getPowerSupply() { return powerSupply; }
+    public int getSatisfiedHouses() { return satisfiedHouses; }
+    public int getTotalHouses() { return totalHouses; }
+    public int getRepairCrews() { return repairCrews; }
+    public int getEarthquakesTriggered() { return earthquakesTriggered; }
+    public int getTotalDamageCost() { return totalDamageCost; }
+    public int getRepairsCompleted() { return repairsCompleted; }
+    public int getHousesPowered() { return housesPowered; }
+    public int getFactoriesPowered() { return factoriesPowered; }
+
+    public double getPowerEfficiency() {
+        return powerDemand > 0 ? (double) powerSupply / powerDemand : 0;
+    }
+}
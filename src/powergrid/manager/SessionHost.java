@@ -0,0 +1,187 @@
+package powergrid.manager;
+
+import powergrid.model.Grid;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * مضيف جلسات متعددة - كل الجلسات تعمل على TickScheduler مشترك بعدد أنوية المعالج
+ * بدلاً من خيط لكل GameManager. كل جلسة مربوطة بعامل واحد حسب رقمها،
+ * فحالة الجلسة لا تحتاج أقفالاً
+ *
+ * الضغط العكسي: إذا تأخرت الدورة أكثر من فترة كاملة تُتجاوز الأيام الفائتة (لا تتراكم)،
+ * وطابور الإجراءات لكل جلسة محدود فترفض submit عند امتلائه
+ */
+public class SessionHost {
+    private static final int MAX_PENDING_ACTIONS = 256;
+
+    public enum State { RUNNING, PAUSED, FINISHED, CLOSED }
+
+    /**
+     * جلسة لعبة واحدة مع مقاييس التأخير الخاصة بها
+     */
+    public static final class Session {
+        private final long id;
+        private final GameManager gameManager;
+        private final BlockingQueue<Runnable> pendingActions;
+        private volatile State state;
+        private volatile TickScheduler.Task tickTask; // يحمل مقاييس التأخير
+
+        Session(long id, GameManager gameManager) {
+            this.id = id;
+            this.gameManager = gameManager;
+            this.pendingActions = new ArrayBlockingQueue<>(MAX_PENDING_ACTIONS);
+            this.state = State.RUNNING;
+        }
+
+        /**
+         * إرسال إجراء لينفذ على خيط الجلسة قبل الدورة القادمة
+         * @return false إذا كان الطابور ممتلئاً أو الجلسة مغلقة
+         */
+        public boolean submit(Runnable action) {
+            return (state == State.RUNNING || state == State.PAUSED) && pendingActions.offer(action);
+        }
+
+        public long getId() { return id; }
+        public GameManager getGameManager() { return gameManager; }
+        public State getState() { return state; }
+        public long getTicks() { return tickTask.getRuns(); }
+        public long getSkippedTicks() { return tickTask.getSkippedRuns(); }
+        public long getLastLagNanos() { return tickTask.getLastLagNanos(); }
+        public long getMaxLagNanos() { return tickTask.getMaxLagNanos(); }
+        public long getAverageLagNanos() { return tickTask.getAverageLagNanos(); }
+        public int getPendingActionCount() { return pendingActions.size(); }
+    }
+
+    private final TickScheduler scheduler;
+    private final boolean ownsScheduler;
+    private final Map<Long, Session> sessions;
+    private final AtomicLong nextId;
+
+    /**
+     * مضيف على المجدول المشترك للعملية
+     */
+    public SessionHost() {
+        this(TickScheduler.shared(), false);
+    }
+
+    /**
+     * مضيف بمجدول خاص به بعدد العمال المحدد (يُوقف مع shutdown)
+     */
+    public SessionHost(int threads) {
+        this(new TickScheduler(threads), true);
+    }
+
+    private SessionHost(TickScheduler scheduler, boolean ownsScheduler) {
+        this.scheduler = scheduler;
+        this.ownsScheduler = ownsScheduler;
+        this.sessions = new ConcurrentHashMap<>();
+        this.nextId = new AtomicLong(1);
+    }
+
+    // ============ دورة حياة الجلسات ============
+
+    /**
+     * إنشاء جلسة جديدة وبدء دوراتها
+     * @param dayMillis مدة اليوم بالوقت الحقيقي (GameManager.DAY_MILLIS للسرعة العادية)
+     */
+    public Session createSession(Grid grid, GameManager.Difficulty difficulty, long seed, long dayMillis) {
+        EffectManager effectManager = new EffectManager(grid);
+        GameManager gameManager = new GameManager(grid, effectManager, false, difficulty);
+        gameManager.setSeed(seed);
+
+        Session session = new Session(nextId.getAndIncrement(), gameManager);
+        sessions.put(session.id, session);
+        session.tickTask = scheduler.scheduleAtFixedRate(session.id, () -> tick(session),
+                                                         dayMillis, dayMillis, TimeUnit.MILLISECONDS);
+        return session;
+    }
+
+    public Session getSession(long id) {
+        return sessions.get(id);
+    }
+
+    public Collection<Session> getSessions() {
+        return Collections.unmodifiableCollection(sessions.values());
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public void pauseSession(long id) {
+        Session session = sessions.get(id);
+        if (session != null && session.state == State.RUNNING) {
+            session.state = State.PAUSED;
+        }
+    }
+
+    public void resumeSession(long id) {
+        Session session = sessions.get(id);
+        if (session != null && session.state == State.PAUSED) {
+            session.state = State.RUNNING;
+        }
+    }
+
+    /**
+     * إغلاق جلسة - الدورة الجارية (إن وجدت) تكتمل ثم لا تُجدول دورات أخرى
+     */
+    public void closeSession(long id) {
+        Session session = sessions.remove(id);
+        if (session != null) {
+            session.state = State.CLOSED;
+            session.tickTask.cancel();
+            session.pendingActions.clear();
+        }
+    }
+
+    public void shutdown() {
+        for (Long id : new ArrayList<>(sessions.keySet())) {
+            closeSession(id);
+        }
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    public TickScheduler getScheduler() {
+        return scheduler;
+    }
+
+    // ============ الدورات ============
+
+    /**
+     * دورة واحدة - تعمل دائماً على عامل الجلسة نفسه فلا تتزامن دورتان لنفس الجلسة
+     * (التأخير وتجاوز الدورات الفائتة يتولاها TickScheduler)
+     */
+    private void tick(Session session) {
+        if (session.state == State.FINISHED || session.state == State.CLOSED) {
+            return;
+        }
+
+        Runnable action;
+        while ((action = session.pendingActions.poll()) != null) {
+            session.gameManager.execute(action);
+        }
+
+        if (session.state == State.RUNNING) {
+            session.gameManager.step();
+        }
+
+        // الجلسات المنتهية تبقى للقراءة حتى تُغلق
+        if (!session.gameManager.isGameRunning() && session.state != State.CLOSED) {
+            session.state = State.FINISHED;
+            TickScheduler.Task task = session.tickTask;
+            if (task != null) {
+                task.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package powergrid.manager;
+
+import powergrid.model.Grid;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * مشغل محاكاة بخطوة ثابتة (يوم واحد لكل خطوة) فوق GameManager بدون مؤقت
+ * يعمل بسرعة الوقت الحقيقي، أو بمضاعف سرعة، أو بأقصى سرعة بدون أي انتظار
+ * تسلسل الأيام نفسه في كل الأوضاع، فالنتيجة تعتمد على البذرة فقط
+ */
+public class SimulationDriver {
+
+    public enum Mode {
+        REAL_TIME,           // يوم كل GameManager.DAY_MILLIS
+        SCALED,              // الوقت الحقيقي مقسوماً على معامل السرعة
+        AS_FAST_AS_POSSIBLE  // بدون انتظار بين الأيام
+    }
+
+    private static final long PAUSED_POLL_NANOS = 10_000_000L;
+
+    private final GameManager gameManager;
+    private final Queue<Runnable> pendingActions;
+    private volatile Mode mode;
+    private volatile double speed;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param gameManager مدير لعبة منشأ بدون مؤقت (realTime = false)
+     */
+    public SimulationDriver(GameManager gameManager) {
+        this.gameManager = gameManager;
+        this.pendingActions = new ConcurrentLinkedQueue<>();
+        this.mode = Mode.AS_FAST_AS_POSSIBLE;
+        this.speed = 1.0;
+    }
+
+    /**
+     * إنشاء محاكاة كاملة بدون واجهة ببذرة ثابتة
+     */
+    public static SimulationDriver create(Grid grid, long seed) {
+        EffectManager effectManager = new EffectManager(grid);
+        GameManager gameManager = new GameManager(grid, effectManager, false);
+        gameManager.setSeed(seed);
+        return new SimulationDriver(gameManager);
+    }
+
+    // ============ التشغيل المتزامن ============
+
+    /**
+     * تقدم عدد من الأيام على خيط المستدعي بدون انتظار
+     * لا تُستدعى أثناء عمل الخيط الخلفي (start)
+     * @return عدد الأيام التي تقدمت فعلاً (أقل من المطلوب إذا انتهت اللعبة أو توقفت)
+     */
+    public int advanceDays(int days) {
+        if (running) {
+            throw new IllegalStateException("المشغل يعمل في الخلفية");
+        }
+
+        int advanced = 0;
+        while (advanced < days) {
+            runPendingActions();
+            if (!gameManager.step()) {
+                break;
+            }
+            advanced++;
+        }
+        return advanced;
+    }
+
+    // ============ التشغيل في الخلفية ============
+
+    public synchronized void start(Mode mode, double speed) {
+        if (running) {
+            setMode(mode, speed);
+            return;
+        }
+
+        setMode(mode, speed);
+        running = true;
+        thread = new Thread(this::runLoop, "simulation-driver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * تغيير السرعة أثناء التشغيل
+     */
+    public void setMode(Mode mode, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("معامل السرعة يجب أن يكون موجباً");
+        }
+        this.speed = speed;
+        this.mode = mode;
+        LockSupport.unpark(thread);
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    /**
+     * تنفيذ إجراء على خيط المحاكاة قبل اليوم القادم (للاستدعاء من خيوط أخرى)
+     */
+    public void submit(Runnable action) {
+        pendingActions.add(action);
+    }
+
+    private void runLoop() {
+        long nextDeadline = System.nanoTime();
+
+        while (running && gameManager.isGameRunning()) {
+            runPendingActions();
+            if (!gameManager.step()) {
+                // اللعبة متوقفة مؤقتاً - انتظار بدون استهلاك المعالج
+                LockSupport.parkNanos(this, PAUSED_POLL_NANOS);
+                nextDeadline = System.nanoTime();
+                continue;
+            }
+
+            Mode currentMode = mode;
+            if (currentMode == Mode.AS_FAST_AS_POSSIBLE) {
+                nextDeadline = System.nanoTime();
+                continue;
+            }
+
+            // خطوة ثابتة: الموعد القادم يُحسب من الموعد السابق وليس من الآن لتجنب الانحراف
+            nextDeadline += stepNanos(currentMode);
+            long remaining;
+            while (running && mode == currentMode && (remaining = nextDeadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, remaining);
+            }
+
+            // إذا تأخرنا أكثر من خطوة (مثلاً بعد تغيير السرعة) نبدأ العد من الآن بدلاً من اللحاق
+            long now = System.nanoTime();
+            if (now - nextDeadline > stepNanos(mode)) {
+                nextDeadline = now;
+            }
+        }
+
+        running = false;
+    }
+
+    private long stepNanos(Mode currentMode) {
+        long dayNanos = GameManager.DAY_MILLIS * 1_000_000L;
+        if (currentMode == Mode.SCALED) {
+            return Math.max(1, (long) (dayNanos / speed));
+        }
+        return currentMode == Mode.REAL_TIME ? dayNanos : 0;
+    }
+
+    private void runPendingActions() {
+        Runnable action;
+        while ((action = pendingActions.poll()) != null) {
+            gameManager.execute(action);
+        }
+    }
+
+    // ============ دوال الوصول ============
+
+    public GameManager getGameManager() { return gameManager; }
+    public Mode getMode() { return mode; }
+    public double getSpeed() { return speed; }
+    public boolean isRunning() { return running; }
+}
@@ -0,0 +1,366 @@
+package powergrid.manager;
+
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.Histogram;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * مجدول دورات مشترك لكل الجلسات - عجلة توقيت مجزأة (Hashed Timing Wheel) لكل عامل،
+ * وعدد العمال بعدد أنوية المعالج
+ *
+ * كل مهمة لها مفتاح تجزئة (مثل رقم الجلسة) يحدد العامل الذي يشغلها دائماً،
+ * فكل ما يُرسل بنفس المفتاح (دورات وإجراءات) ينفذ على خيط واحد بالترتيب ولا يحتاج أقفالاً
+ *
+ * المهام الدورية بمعدل ثابت: إذا تأخرت أكثر من فترة كاملة تُتجاوز الدورات الفائتة ولا تتراكم
+ */
+public final class TickScheduler {
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static volatile TickScheduler shared;
+
+    private final Worker[] workers;
+    private final long tickNanos;
+    private final int wheelMask;
+    private volatile boolean running;
+
+    /**
+     * مهمة مجدولة - تُستخدم للإلغاء ولقراءة مقاييس التأخير
+     */
+    public static final class Task {
+        private final Runnable action;
+        private final long periodNanos; // 0 = مرة واحدة
+        private final Worker worker;
+        private volatile boolean cancelled;
+
+        // حقول العجلة - يعدلها العامل فقط
+        private long deadline;
+        private long remainingRounds;
+        private long lastRunNanos;
+        private Task next;
+
+        // المقاييس (كاتب واحد: العامل)
+        private volatile long runs;
+        private volatile long skippedRuns;
+        private volatile long lastLagNanos;
+        private volatile long maxLagNanos;
+        private volatile long totalLagNanos;
+        private volatile Throwable failure; // الاستثناء الذي أوقف المهمة
+
+        Task(Runnable action, long deadline, long periodNanos, Worker worker) {
+            this.action = action;
+            this.deadline = deadline;
+            this.periodNanos = periodNanos;
+            this.worker = worker;
+        }
+
+        public void cancel() { cancelled = true; }
+        public boolean isCancelled() { return cancelled; }
+        public long getRuns() { return runs; }
+        public long getSkippedRuns() { return skippedRuns; }
+        public long getLastLagNanos() { return lastLagNanos; }
+        public long getMaxLagNanos() { return maxLagNanos; }
+        public Throwable getFailure() { return failure; }
+
+        public long getAverageLagNanos() {
+            long count = runs;
+            return count > 0 ? totalLagNanos / count : 0;
+        }
+
+        /**
+         * انتظار انتهاء أي تشغيل جارٍ لهذه المهمة (بعد cancel)
+         * لا تنتظر إذا استُدعيت من خيط العامل نفسه
+         */
+        public void awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+            worker.awaitIdle(timeout, unit);
+        }
+    }
+
+    public TickScheduler(int workerCount) {
+        this(workerCount, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickNanos دقة العجلة
+     * @param wheelSize عدد خانات العجلة (يُقرب لقوة 2)
+     */
+    public TickScheduler(int workerCount, long tickNanos, int wheelSize) {
+        int size = Integer.highestOneBit(Math.max(2, wheelSize - 1) << 1);
+        this.tickNanos = tickNanos;
+        this.wheelMask = size - 1;
+        this.running = true;
+        this.workers = new Worker[Math.max(1, workerCount)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(i, size);
+            workers[i].thread.start();
+        }
+    }
+
+    /**
+     * المجدول المشترك للعملية (ينشأ عند أول استخدام، بعدد أنوية المعالج)
+     */
+    public static TickScheduler shared() {
+        TickScheduler scheduler = shared;
+        if (scheduler == null) {
+            synchronized (TickScheduler.class) {
+                scheduler = shared;
+                if (scheduler == null) {
+                    scheduler = new TickScheduler(Runtime.getRuntime().availableProcessors());
+                    shared = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    // ============ الجدولة ============
+
+    /**
+     * جدولة مهمة دورية بمعدل ثابت على العامل الخاص بالمفتاح
+     */
+    public Task scheduleAtFixedRate(long shardKey, Runnable action, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("الفترة يجب أن تكون موجبة");
+        }
+        Worker worker = workerFor(shardKey);
+        Task task = new Task(action, System.nanoTime() + unit.toNanos(initialDelay), unit.toNanos(period), worker);
+        worker.submit(task);
+        return task;
+    }
+
+    /**
+     * تنفيذ مهمة مرة واحدة في أقرب وقت على العامل الخاص بالمفتاح
+     */
+    public Task execute(long shardKey, Runnable action) {
+        Worker worker = workerFor(shardKey);
+        Task task = new Task(action, System.nanoTime(), 0, worker);
+        worker.submit(task);
+        return task;
+    }
+
+    /**
+     * @return true إذا كان الخيط الحالي هو عامل هذا المفتاح
+     */
+    public boolean isWorkerThread(long shardKey) {
+        return Thread.currentThread() == workerFor(shardKey).thread;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getWorkerCount() {
+        return workers.length;
+    }
+
+    public void shutdown() {
+        running = false;
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // ============ المقاييس ============
+
+    /**
+     * @return تأخير بدء التشغيل عن الموعد - مقياس scheduler.lag في السجل المشترك (لكل المجدولات في العملية)
+     */
+    public Histogram getLatencyHistogram() {
+        return EngineMetrics.SCHEDULER_LAG;
+    }
+
+    /**
+     * @return انحراف الفترة الفعلية بين تشغيلين متتاليين عن الفترة المطلوبة - مقياس scheduler.jitter
+     */
+    public Histogram getJitterHistogram() {
+        return EngineMetrics.SCHEDULER_JITTER;
+    }
+
+    private Worker workerFor(long shardKey) {
+        int hash = Long.hashCode(shardKey * 0x9E3779B97F4A7C15L);
+        return workers[Math.floorMod(hash, workers.length)];
+    }
+
+    // ============ العامل ============
+
+    private final class Worker implements Runnable {
+        final Thread thread;
+        final Task[] wheel;
+        final Queue<Task> inbox;
+        final long startNanos;
+        long currentTick;
+        int scheduledCount;      // عدد المهام في العجلة - يعدله العامل فقط
+        volatile boolean idle;   // العامل نائم بدون مهام حتى تصله مهمة جديدة
+
+        Worker(int index, int wheelSize) {
+            this.wheel = new Task[wheelSize];
+            this.inbox = new ConcurrentLinkedQueue<>();
+            this.startNanos = System.nanoTime();
+            this.thread = new Thread(this, "tick-worker-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void submit(Task task) {
+            if (!running) {
+                task.cancelled = true;
+                return;
+            }
+            inbox.add(task);
+            if (idle || task.deadline - System.nanoTime() < tickNanos) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        void awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+            if (Thread.currentThread() == thread || !running) {
+                return;
+            }
+            CountDownLatch latch = new CountDownLatch(1);
+            submit(new Task(latch::countDown, System.nanoTime(), 0, this));
+            latch.await(timeout, unit);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                drainInbox();
+                expireBucket();
+                currentTick++;
+
+                if (scheduledCount == 0) {
+                    parkUntilSubmitted();
+                    continue;
+                }
+
+                long nextTickNanos = startNanos + currentTick * tickNanos;
+                long remaining;
+                while (running && !inboxHasDueTask()
+                       && (remaining = nextTickNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+        }
+
+        /**
+         * العجلة فارغة - النوم حتى تصل مهمة بدلاً من الاستيقاظ كل دورة
+         */
+        private void parkUntilSubmitted() {
+            idle = true;
+            while (running && inbox.isEmpty()) {
+                LockSupport.park(this);
+            }
+            idle = false;
+            // العجلة فارغة، فيمكن نقل المؤشر إلى الوقت الحالي مباشرة
+            currentTick = Math.max(currentTick, (System.nanoTime() - startNanos) / tickNanos);
+        }
+
+        private boolean inboxHasDueTask() {
+            Task head = inbox.peek();
+            return head != null && head.deadline - System.nanoTime() < tickNanos;
+        }
+
+        private void drainInbox() {
+            Task task;
+            while ((task = inbox.poll()) != null) {
+                if (!task.cancelled) {
+                    place(task);
+                }
+            }
+        }
+
+        private void place(Task task) {
+            long ticks = Math.max(currentTick, (task.deadline - startNanos) / tickNanos);
+            task.remainingRounds = (ticks - currentTick) / wheel.length;
+            int bucket = (int) (ticks & wheelMask);
+            task.next = wheel[bucket];
+            wheel[bucket] = task;
+            scheduledCount++;
+        }
+
+        private void expireBucket() {
+            int bucket = (int) (currentTick & wheelMask);
+            Task task = wheel[bucket];
+            wheel[bucket] = null;
+
+            while (task != null) {
+                Task next = task.next;
+                task.next = null;
+
+                if (task.cancelled) {
+                    scheduledCount--; // تُحذف من العجلة
+                } else if (task.remainingRounds > 0) {
+                    task.remainingRounds--;
+                    task.next = wheel[bucket];
+                    wheel[bucket] = task;
+                } else {
+                    scheduledCount--;
+                    runTask(task);
+                }
+                task = next;
+            }
+        }
+
+        private void runTask(Task task) {
+            long start = System.nanoTime();
+            long lag = start - task.deadline;
+            EngineMetrics.SCHEDULER_LAG.record(lag);
+            if (task.lastRunNanos != 0 && task.periodNanos > 0) {
+                EngineMetrics.SCHEDULER_JITTER.record(Math.abs((start - task.lastRunNanos) - task.periodNanos));
+            }
+            task.lastRunNanos = start;
+            task.lastLagNanos = lag;
+            task.maxLagNanos = Math.max(task.maxLagNanos, lag);
+            task.totalLagNanos += lag;
+            task.runs++;
+
+            try {
+                task.action.run();
+            } catch (Throwable t) {
+                // مثل ScheduledExecutorService: المهمة التي ترمي استثناء لا تُعاد جدولتها
+                // والاستثناء يبقى في المهمة ليقرأه صاحبها
+                task.failure = t;
+                task.cancelled = true;
+                EngineMetrics.SCHEDULER_TASK_FAILURES.increment();
+                System.err.println("أُلغيت مهمة مجدولة بعد استثناء على " + Thread.currentThread().getName() + ": " + t);
+                return;
+            }
+
+            if (task.periodNanos == 0 || task.cancelled) {
+                return;
+            }
+
+            // الضغط العكسي: تجاوز الدورات الفائتة بدلاً من تشغيلها متتالية
+            long next = task.deadline + task.periodNanos;
+            long now = System.nanoTime();
+            if (now - next > task.periodNanos) {
+                long missed = (now - next) / task.periodNanos;
+                task.skippedRuns += missed;
+                next += missed * task.periodNanos;
+            }
+            task.deadline = next;
+
+            // إذا حل الموعد في الدورة الحالية يوضع في الدورة التالية حتى لا يتكرر في نفس المرور
+            long ticks = Math.max(currentTick + 1, (next - startNanos) / tickNanos);
+            task.remainingRounds = (ticks - currentTick) / wheel.length;
+            if ((ticks - currentTick) % wheel.length == 0) {
+                task.remainingRounds--;
+            }
+            int bucket = (int) (ticks & wheelMask);
+            task.next = wheel[bucket];
+            wheel[bucket] = task;
+            scheduledCount++;
+        }
+    }
+}
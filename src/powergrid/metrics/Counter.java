@@ -0,0 +1,35 @@
+package powergrid.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * عداد تراكمي - LongAdder مقسم داخلياً حسب الخيط، فالكتابة من عدة خيوط لا تتنافس على خلية واحدة
+ */
+public final class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        if (MetricsRegistry.enabled) {
+            value.increment();
+        }
+    }
+
+    public void add(long amount) {
+        if (MetricsRegistry.enabled) {
+            value.add(amount);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,42 @@
+package powergrid.metrics;
+
+/**
+ * مقاييس المحاكاة والرسم في السجل المشترك - حقول ثابتة حتى لا يبحث المسار الساخن في الخريطة
+ * الأزمنة بالنانوثانية
+ */
+public final class EngineMetrics {
+    private static final MetricsRegistry REGISTRY = MetricsRegistry.shared();
+
+    // دورة اللعبة (GameManager.updateGame)
+    public static final Histogram TICK_DURATION = REGISTRY.timer("tick.duration");
+    public static final Counter TICKS = REGISTRY.counter("tick.count");
+
+    // نشر الكهرباء
+    public static final Histogram PROPAGATION_DURATION = REGISTRY.timer("propagation.duration");
+    public static final Histogram BFS_CELLS_VISITED = REGISTRY.histogram("bfs.cells_visited");
+
+    // البحث عن المسارات
+    public static final Counter PATH_QUERIES = REGISTRY.counter("path.queries");
+    public static final Histogram PATH_EXPANDED = REGISTRY.histogram("path.expanded");
+    public static final Histogram PATH_DURATION = REGISTRY.timer("path.duration");
+
+    // الإصلاحات
+    public static final Gauge REPAIR_QUEUE_DEPTH = REGISTRY.gauge("repair.queue_depth");
+    public static final Counter REPAIRS = REGISTRY.counter("repair.count");
+
+    // ناقل الأحداث (EventBus)
+    public static final Counter EVENTS_PUBLISHED = REGISTRY.counter("events.published");
+    public static final Counter EVENTS_COALESCED = REGISTRY.counter("events.coalesced");
+    public static final Counter EVENTS_DROPPED = REGISTRY.counter("events.dropped");
+
+    // المجدول المشترك (TickScheduler)
+    public static final Histogram SCHEDULER_LAG = REGISTRY.timer("scheduler.lag");
+    public static final Histogram SCHEDULER_JITTER = REGISTRY.timer("scheduler.jitter");
+    public static final Counter SCHEDULER_TASK_FAILURES = REGISTRY.counter("scheduler.task_failures");
+
+    // الرسم
+    public static final Histogram RENDER_FRAME = REGISTRY.timer("render.frame");
+
+    private EngineMetrics() {
+    }
+}
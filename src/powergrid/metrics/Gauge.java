@@ -0,0 +1,27 @@
+package powergrid.metrics;
+
+/**
+ * قيمة لحظية (مثل طول طابور الإصلاح) - آخر قيمة مكتوبة هي ما يُقرأ
+ */
+public final class Gauge {
+    private final String name;
+    private volatile long value;
+
+    Gauge(String name) {
+        this.name = name;
+    }
+
+    public void set(long newValue) {
+        if (MetricsRegistry.enabled) {
+            value = newValue;
+        }
+    }
+
+    public long get() {
+        return value;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
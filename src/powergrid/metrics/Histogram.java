@@ -0,0 +1,126 @@
+package powergrid.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * مدرج تكراري لوغاريتمي-خطي بدون أقفال: كل قوة 2 مقسومة إلى 16 خانة متساوية،
+ * فالخطأ النسبي في النسب المئوية لا يتجاوز 1/16 على كامل مدى long
+ *
+ * التسجيل زيادة ذرية واحدة في خانة ثابتة (بدون تخصيص)، ويمكن الكتابة من عدة خيوط والقراءة من أي خيط
+ */
+public final class Histogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final boolean timer; // القيم أزمنة بالنانوثانية
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name, boolean timer) {
+        this.name = name;
+        this.timer = timer;
+    }
+
+    /**
+     * تسجيل قيمة (زمن بالنانوثانية أو عدد) - القيم السالبة تُسجل صفراً
+     */
+    public void record(long value) {
+        if (!MetricsRegistry.enabled) {
+            return;
+        }
+        long v = Math.max(0, value);
+        counts.getAndIncrement(bucketOf(v));
+        sum.add(v);
+        long current = max.get();
+        while (v > current && !max.compareAndSet(current, v)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * تسجيل الزمن منذ start المأخوذ من MetricsRegistry.start() - لا شيء إذا كان القياس معطلاً عند البدء
+     */
+    public void recordSince(long start) {
+        if (start != 0) {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * الحد الأعلى (شامل) لقيم الخانة
+     */
+    public static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = SUB_BUCKETS + bucket % SUB_BUCKETS;
+        long upper = ((sub + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+
+    public static int getBucketCount() {
+        return BUCKETS;
+    }
+
+    public long getCountAt(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long getSum() { return sum.sum(); }
+    public long getMax() { return max.get(); }
+    public String getName() { return name; }
+    public boolean isTimer() { return timer; }
+
+    public double getMean() {
+        long count = getCount();
+        return count > 0 ? (double) getSum() / count : 0;
+    }
+
+    /**
+     * @param p النسبة المئوية (0-100)
+     * @return الحد الأعلى لخانة النسبة (لا يتجاوز أكبر قيمة مسجلة)
+     */
+    public long getPercentile(double p) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(getMax(), bucketUpperBound(i));
+            }
+        }
+        return getMax();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s n=%d mean=%.0f p50=%d p99=%d p999=%d max=%d",
+            name, getCount(), getMean(), getPercentile(50), getPercentile(99), getPercentile(99.9), getMax());
+    }
+}
@@ -0,0 +1,85 @@
+package powergrid.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * سجل المقاييس داخل العملية: عدادات ومدرجات تكرارية وقيم لحظية بأسماء مثل "tick.duration"
+ *
+ * المقاييس تُنشأ مرة واحدة (عادة في حقول static final مثل EngineMetrics) ثم تُسجل بدون تخصيص.
+ * عند التعطيل (الافتراضي) كل تسجيل قراءة حقل volatile واحدة فقط، ولا يُستدعى System.nanoTime
+ * التفعيل: -Dpowergrid.metrics=true أو setEnabled(true)
+ */
+public final class MetricsRegistry {
+    static volatile boolean enabled = Boolean.getBoolean("powergrid.metrics");
+
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    public MetricsRegistry() {
+    }
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * بداية قياس زمن - تُمرر لاحقاً إلى Histogram.recordSince
+     * @return الوقت الحالي بالنانوثانية، أو 0 إذا كان القياس معطلاً
+     */
+    public static long start() {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        return now != 0 ? now : 1;
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * مدرج لقيم عامة (أعداد خلايا، عقد...)
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(n, false));
+    }
+
+    /**
+     * مدرج لأزمنة بالنانوثانية - المصدّرات تحولها إلى ثوانٍ
+     */
+    public Histogram timer(String name) {
+        return histograms.computeIfAbsent(name, n -> new Histogram(n, true));
+    }
+
+    public Gauge gauge(String name) {
+        return gauges.computeIfAbsent(name, Gauge::new);
+    }
+
+    // ============ القراءة (للعرض والتصدير) - مرتبة بالاسم ============
+
+    public Map<String, Counter> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    public Map<String, Gauge> getGauges() {
+        return Collections.unmodifiableMap(gauges);
+    }
+}
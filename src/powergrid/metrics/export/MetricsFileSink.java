@@ -0,0 +1,208 @@
+package powergrid.metrics.export;
+
+import powergrid.manager.GameStats;
+import powergrid.metrics.Counter;
+import powergrid.metrics.Gauge;
+import powergrid.metrics.Histogram;
+import powergrid.metrics.MetricsRegistry;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * كتابة لقطات دورية من المقاييس وعدادات اللعبة إلى ملف (إضافة في آخره)
+ *
+ * تعمل على خيط خاص بها وتقرأ فقط النسخ المنشورة (GameManager.getStats) وقيم السجل الذرية،
+ * فلا تنتظر خيط المحاكاة ولا توقفه
+ *
+ * الصيغ:
+ *   LINE_PROTOCOL - سطر لكل مقياس: game,... / counter,name=... value=...i <الوقت بالنانوثانية>
+ *   CSV           - timestamp_ms,metric,field,value
+ */
+public class MetricsFileSink implements Closeable {
+
+    public enum Format {
+        LINE_PROTOCOL,
+        CSV;
+
+        /**
+         * الصيغة من امتداد الملف (.csv وإلا LINE_PROTOCOL)
+         */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : LINE_PROTOCOL;
+        }
+    }
+
+    private static final String CSV_HEADER = "timestamp_ms,metric,field,value";
+
+    private final Path file;
+    private final Format format;
+    private final MetricsRegistry registry;
+    private final Supplier<GameStats> stats;
+    private final BufferedWriter writer;
+    private final ScheduledExecutorService executor;
+    private final StringBuilder line = new StringBuilder(256);
+    private long snapshots;
+
+    /**
+     * @param stats مصدر آخر نسخة منشورة من العدادات (مثل gameManager::getStats)، أو null
+     */
+    public MetricsFileSink(Path file, Format format, MetricsRegistry registry, Supplier<GameStats> stats)
+            throws IOException {
+        this.file = file;
+        this.format = format;
+        this.registry = registry;
+        this.stats = stats;
+
+        boolean fresh = !Files.exists(file) || Files.size(file) == 0;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                              StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (fresh && format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-file-sink");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * بدء الكتابة الدورية
+     */
+    public void start(long period, TimeUnit unit) {
+        executor.scheduleAtFixedRate(() -> {
+            try {
+                writeSnapshot();
+            } catch (IOException e) {
+                System.err.println("تعذرت كتابة المقاييس في " + file + ": " + e.getMessage());
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * كتابة لقطة واحدة الآن - تُستدعى من خيط الكاتب (أو من المستدعي إذا لم تبدأ الكتابة الدورية)
+     */
+    public synchronized void writeSnapshot() throws IOException {
+        long millis = System.currentTimeMillis();
+        GameStats current = stats != null ? stats.get() : null;
+        if (current != null) {
+            long[] values = StatFields.values(current);
+            if (format == Format.LINE_PROTOCOL) {
+                line.setLength(0);
+                line.append("game ");
+                for (int i = 0; i < values.length; i++) {
+                    line.append(i > 0 ? "," : "").append(StatFields.NAMES[i]).append('=').append(values[i]).append('i');
+                }
+                emit(millis);
+            } else {
+                for (int i = 0; i < values.length; i++) {
+                    csv(millis, "game", StatFields.NAMES[i], Long.toString(values[i]));
+                }
+            }
+        }
+
+        for (Counter counter : registry.getCounters().values()) {
+            if (format == Format.LINE_PROTOCOL) {
+                line.setLength(0);
+                line.append("counter,name=").append(counter.getName()).append(" value=").append(counter.get()).append('i');
+                emit(millis);
+            } else {
+                csv(millis, counter.getName(), "value", Long.toString(counter.get()));
+            }
+        }
+
+        for (Gauge gauge : registry.getGauges().values()) {
+            if (format == Format.LINE_PROTOCOL) {
+                line.setLength(0);
+                line.append("gauge,name=").append(gauge.getName()).append(" value=").append(gauge.get()).append('i');
+                emit(millis);
+            } else {
+                csv(millis, gauge.getName(), "value", Long.toString(gauge.get()));
+            }
+        }
+
+        for (Histogram histogram : registry.getHistograms().values()) {
+            long count = histogram.getCount();
+            long p50 = histogram.getPercentile(50);
+            long p99 = histogram.getPercentile(99);
+            long p999 = histogram.getPercentile(99.9);
+            long max = histogram.getMax();
+            String mean = String.format(Locale.ROOT, "%.1f", histogram.getMean());
+            if (format == Format.LINE_PROTOCOL) {
+                line.setLength(0);
+                line.append("histogram,name=").append(histogram.getName())
+                    .append(" count=").append(count).append('i')
+                    .append(",mean=").append(mean)
+                    .append(",p50=").append(p50).append('i')
+                    .append(",p99=").append(p99).append('i')
+                    .append(",p999=").append(p999).append('i')
+                    .append(",max=").append(max).append('i');
+                emit(millis);
+            } else {
+                String name = histogram.getName();
+                csv(millis, name, "count", Long.toString(count));
+                csv(millis, name, "mean", mean);
+                csv(millis, name, "p50", Long.toString(p50));
+                csv(millis, name, "p99", Long.toString(p99));
+                csv(millis, name, "p999", Long.toString(p999));
+                csv(millis, name, "max", Long.toString(max));
+            }
+        }
+
+        writer.flush();
+        snapshots++;
+    }
+
+    // سطر بروتوكول: الوقت بالنانوثانية منذ 1970
+    private void emit(long millis) throws IOException {
+        line.append(' ').append(millis * 1_000_000L);
+        writer.append(line);
+        writer.newLine();
+    }
+
+    private void csv(long millis, String metric, String field, String value) throws IOException {
+        line.setLength(0);
+        line.append(millis).append(',').append(metric).append(',').append(field).append(',').append(value);
+        writer.append(line);
+        writer.newLine();
+    }
+
+    public synchronized long getSnapshotCount() {
+        return snapshots;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * إيقاف الكتابة الدورية وكتابة لقطة أخيرة
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                writeSnapshot();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package powergrid.metrics.export;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import powergrid.manager.GameStats;
+import powergrid.metrics.Counter;
+import powergrid.metrics.Gauge;
+import powergrid.metrics.Histogram;
+import powergrid.metrics.MetricsRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * نقطة HTTP مدمجة (com.sun.net.httpserver) تعرض المقاييس بصيغة Prometheus النصية على /metrics
+ *
+ * كل طلب يُخدم على خيط الخادم ويقرأ فقط النسخ المنشورة وقيم السجل، فلا يلمس خيط المحاكاة.
+ * الأزمنة تُعرض بالثواني كـ summary (النسب المئوية تقريبية بحدود خانات المدرج)
+ */
+public class PrometheusEndpoint implements Closeable {
+    public static final String PATH = "/metrics";
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String PREFIX = "powergrid_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final MetricsRegistry registry;
+    private final Supplier<GameStats> stats;
+
+    /**
+     * على واجهة الجهاز المحلي فقط (loopback)
+     * @param port المنفذ (0 لمنفذ حر)
+     * @param stats مصدر آخر نسخة منشورة من العدادات (مثل gameManager::getStats)، أو null
+     */
+    public PrometheusEndpoint(int port, MetricsRegistry registry, Supplier<GameStats> stats) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), registry, stats);
+    }
+
+    /**
+     * على عنوان محدد - لعرض المقاييس خارج الجهاز يجب أن يختاره المستدعي صراحة
+     */
+    public PrometheusEndpoint(InetSocketAddress address, MetricsRegistry registry,
+                              Supplier<GameStats> stats) throws IOException {
+        this.registry = registry;
+        this.stats = stats;
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * النص الكامل بصيغة Prometheus
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        GameStats current = stats != null ? stats.get() : null;
+        if (current != null) {
+            long[] values = StatFields.values(current);
+            for (int i = 0; i < values.length; i++) {
+                String name = PREFIX + "game_" + StatFields.NAMES[i];
+                out.append("# TYPE ").append(name).append(" gauge\n");
+                out.append(name).append(' ').append(values[i]).append('\n');
+            }
+        }
+
+        for (Counter counter : registry.getCounters().values()) {
+            String name = PREFIX + StatFields.sanitize(counter.getName()) + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(counter.get()).append('\n');
+        }
+
+        for (Gauge gauge : registry.getGauges().values()) {
+            String name = PREFIX + StatFields.sanitize(gauge.getName());
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(gauge.get()).append('\n');
+        }
+
+        for (Histogram histogram : registry.getHistograms().values()) {
+            boolean timer = histogram.isTimer();
+            String name = PREFIX + StatFields.sanitize(histogram.getName()) + (timer ? "_seconds" : "");
+            double scale = timer ? 1e-9 : 1.0;
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for (double q : QUANTILES) {
+                out.append(name).append("{quantile=\"").append(q).append("\"} ")
+                   .append(format(histogram.getPercentile(q * 100) * scale)).append('\n');
+            }
+            out.append(name).append("_sum ").append(format(histogram.getSum() * scale)).append('\n');
+            out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static String format(double value) {
+        return Double.toString(value);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
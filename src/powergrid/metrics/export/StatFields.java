@@ -0,0 +1,32 @@
+package powergrid.metrics.export;
+
+import powergrid.manager.GameStats;
+
+/**
+ * عدادات GameManager المصدّرة - الأسماء بنفس ترتيب values
+ */
+final class StatFields {
+    static final String[] NAMES = {
+        "day", "money", "score", "power_demand", "power_supply",
+        "satisfied_houses", "total_houses", "repair_crews",
+        "damage_cost", "earthquakes", "repairs_completed"
+    };
+
+    private StatFields() {
+    }
+
+    static long[] values(GameStats stats) {
+        return new long[] {
+            stats.getDay(), stats.getMoney(), stats.getScore(), stats.getPowerDemand(), stats.getPowerSupply(),
+            stats.getSatisfiedHouses(), stats.getTotalHouses(), stats.getRepairCrews(),
+            stats.getTotalDamageCost(), stats.getEarthquakesTriggered(), stats.getRepairsCompleted()
+        };
+    }
+
+    /**
+     * tick.duration -> tick_duration
+     */
+    static String sanitize(String name) {
+        return name.replace('.', '_').replace('-', '_');
+    }
+}
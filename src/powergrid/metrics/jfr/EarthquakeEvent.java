@@ -0,0 +1,32 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * تطبيق زلزال على الشبكة (EffectManager.triggerEarthquake)
+ */
+@Name("powergrid.Earthquake")
+@Label("Earthquake")
+@Category({"PowerGrid", "Disasters"})
+@Description("تطبيق ضرر الزلزال والإبلاغ عن الخلايا المتضررة")
+@Threshold("1 ms")
+@StackTrace(false)
+public class EarthquakeEvent extends Event {
+    @Label("Epicenter X")
+    public int epicenterX;
+
+    @Label("Epicenter Y")
+    public int epicenterY;
+
+    @Label("Magnitude")
+    public int magnitude;
+
+    @Label("Affected Cells")
+    public int affectedCells;
+}
@@ -0,0 +1,107 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * تلخيص ملف JFR إلى جدول زمن لكل عملية (أحداث powergrid.* فقط)
+ * استعلامات المسار مقسمة حسب الخوارزمية، وعمود "العمل" هو متوسط الخلايا/العقد/الإصلاحات للعملية
+ *
+ * التسجيل: java -XX:StartFlightRecording=filename=game.jfr ... powergrid.Main
+ * التحليل:  java -cp out powergrid.metrics.jfr.JfrAnalyzer game.jfr
+ */
+public final class JfrAnalyzer {
+    private static final String PREFIX = "powergrid.";
+
+    /**
+     * عينات عملية واحدة (الأزمنة بالنانوثانية)
+     */
+    private static final class Operation {
+        private long[] durations = new long[64];
+        private int count;
+        private long work;
+
+        void add(long nanos, long amount) {
+            if (count == durations.length) {
+                durations = Arrays.copyOf(durations, count * 2);
+            }
+            durations[count++] = nanos;
+            work += amount;
+        }
+    }
+
+    private final Map<String, Operation> operations = new TreeMap<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("الاستخدام: JfrAnalyzer <ملف.jfr>");
+            System.exit(1);
+        }
+        JfrAnalyzer analyzer = new JfrAnalyzer();
+        analyzer.read(Paths.get(args[0]));
+        analyzer.print(System.out);
+    }
+
+    public void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String name = event.getEventType().getName();
+                if (!name.startsWith(PREFIX)) {
+                    continue;
+                }
+                String key = name.substring(PREFIX.length());
+                if (event.hasField("algorithm")) {
+                    key += " [" + event.getString("algorithm") + "]";
+                }
+                operations.computeIfAbsent(key, k -> new Operation())
+                          .add(event.getDuration().toNanos(), work(event));
+            }
+        }
+    }
+
+    // مقدار العمل في الحدث حسب نوعه
+    private static long work(RecordedEvent event) {
+        for (String field : new String[]{"cellsVisited", "nodesExpanded", "affectedCells", "cellsRepaired"}) {
+            if (event.hasField(field)) {
+                return event.getInt(field);
+            }
+        }
+        return 0;
+    }
+
+    public void print(PrintStream out) {
+        if (operations.isEmpty()) {
+            out.println("لا توجد أحداث " + PREFIX + "* في الملف (هل الحدود أعلى من زمن العمليات؟)");
+            return;
+        }
+        out.printf("%-28s %8s %10s %10s %10s %10s %10s %10s%n",
+                   "operation", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms", "avg work");
+        for (Map.Entry<String, Operation> entry : operations.entrySet()) {
+            Operation op = entry.getValue();
+            long[] sorted = Arrays.copyOf(op.durations, op.count);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long nanos : sorted) {
+                total += nanos;
+            }
+            out.printf("%-28s %8d %10.3f %10.3f %10.3f %10.3f %10.3f %10.1f%n",
+                       entry.getKey(), op.count, total / 1e6 / op.count,
+                       percentile(sorted, 50) / 1e6, percentile(sorted, 90) / 1e6,
+                       percentile(sorted, 99) / 1e6, sorted[sorted.length - 1] / 1e6,
+                       (double) op.work / op.count);
+        }
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
@@ -0,0 +1,48 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * استعلام مسار في PathFinder
+ */
+@Name("powergrid.PathQuery")
+@Label("Path Query")
+@Category({"PowerGrid", "Pathfinding"})
+@Description("بحث عن مسار بين نقطتين")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PathQueryEvent extends Event {
+    @Label("Algorithm")
+    public String algorithm;
+
+    @Label("Start X")
+    public int startX;
+
+    @Label("Start Y")
+    public int startY;
+
+    @Label("Target X")
+    public int targetX;
+
+    @Label("Target Y")
+    public int targetY;
+
+    @Label("Grid Width")
+    public int width;
+
+    @Label("Grid Height")
+    public int height;
+
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+
+    @Label("Path Length")
+    @Description("عدد خلايا المسار، أو -1 إذا لم يوجد")
+    public int pathLength;
+}
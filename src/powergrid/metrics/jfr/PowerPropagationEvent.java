@@ -0,0 +1,35 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * نشر الكهرباء من مصدر واحد (BFS.spreadPower)
+ */
+@Name("powergrid.PowerPropagation")
+@Label("Power Propagation")
+@Category({"PowerGrid", "Simulation"})
+@Description("نشر الكهرباء عبر الأسلاك من مصدر")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PowerPropagationEvent extends Event {
+    @Label("Source X")
+    public int sourceX;
+
+    @Label("Source Y")
+    public int sourceY;
+
+    @Label("Grid Width")
+    public int width;
+
+    @Label("Grid Height")
+    public int height;
+
+    @Label("Cells Visited")
+    public int cellsVisited;
+}
@@ -0,0 +1,36 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * توزيع أطقم الإصلاح على الخلايا المتضررة (GameManager.checkRepairNeeds)
+ */
+@Name("powergrid.RepairDispatch")
+@Label("Repair Dispatch")
+@Category({"PowerGrid", "Simulation"})
+@Description("إرسال أطقم الإصلاح اليومي إلى الخلايا المتضررة")
+@Threshold("1 ms")
+@StackTrace(false)
+public class RepairDispatchEvent extends Event {
+    @Label("Queue Depth")
+    @Description("عدد الخلايا المتضررة قبل الإصلاح")
+    public int queueDepth;
+
+    @Label("Repair Crews")
+    public int repairCrews;
+
+    @Label("Cells Repaired")
+    public int cellsRepaired;
+
+    @Label("Grid Width")
+    public int width;
+
+    @Label("Grid Height")
+    public int height;
+}
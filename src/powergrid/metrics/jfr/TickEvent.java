@@ -0,0 +1,35 @@
+package powergrid.metrics.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * دورة لعبة واحدة (GameManager.updateGame)
+ */
+@Name("powergrid.Tick")
+@Label("Game Tick")
+@Category({"PowerGrid", "Simulation"})
+@Description("يوم واحد من المحاكاة")
+@Threshold("5 ms")
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("Day")
+    public int day;
+
+    @Label("Grid Width")
+    public int width;
+
+    @Label("Grid Height")
+    public int height;
+
+    @Label("Satisfied Houses")
+    public int satisfiedHouses;
+
+    @Label("Damaged Cells")
+    public int damagedCells;
+}
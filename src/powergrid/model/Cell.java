@@ -2,35 +2,94 @@ package powergrid.model;
 
 import powergrid.utils.Constants;
 
+/**
+ * خلية في الشبكة - واجهة فوق مخزن القطع (ChunkedGrid) الخاص بالشبكة
+ * الحالة نفسها محفوظة في مصفوفات القطع، فتكون النسخ رخيصة وتُنسخ عند الكتابة فقط
+ */
 public class Cell {
     private int x, y;
-    private int type;
-    private boolean powered;
-    private int resistance;
-    private boolean damaged;
-    private int damageLevel; // 0-10 (0 = سليم، 10 = تالف كلياً)
-    private String specialEffect;
-    private int effectDuration;
-    private int population; // للمنازل
-    private int production; // للمصانع
-    private int outputPower; // لمصادر الطاقة
+    private ChunkedGrid store;   // مخزن الحالة (مشترك مع الشبكة)
+    private int storeX, storeY;  // موقع الحالة داخل المخزن
+    private String specialEffect; // وصف فقط - لا يدخل في النسخ
     
     public Cell(int x, int y, int type) {
+        // خلية مستقلة لها مخزن خاص بحجم 1x1 حتى تُضاف إلى شبكة
+        this(new ChunkedGrid(1, 1), 0, 0, x, y, type);
+    }
+    
+    Cell(ChunkedGrid store, int x, int y, int type) {
+        this(store, x, y, x, y, type);
+    }
+    
+    private Cell(ChunkedGrid store, int storeX, int storeY, int x, int y, int type) {
+        this.x = x;
+        this.y = y;
+        this.store = store;
+        this.storeX = storeX;
+        this.storeY = storeY;
+        this.specialEffect = "";
+        initialize(type);
+    }
+    
+    private Cell(ChunkedGrid store, int x, int y) {
         this.x = x;
         this.y = y;
-        this.type = type;
-        this.powered = false;
-        this.resistance = calculateResistance(type);
-        this.damaged = false;
-        this.damageLevel = 0;
+        this.store = store;
+        this.storeX = x;
+        this.storeY = y;
         this.specialEffect = "";
-        this.effectDuration = 0;
-        this.population = (type == Constants.HOUSE) ? 100 : 0;
-        this.production = (type == Constants.FACTORY) ? 50 : 0;
-        this.outputPower = (type == Constants.POWER_SOURCE) ? 1000 : 0;
     }
     
-    private int calculateResistance(int type) {
+    /**
+     * واجهة على خلية موجودة في مخزن (مثل نسخة مفرّعة) بدون تغيير حالتها
+     */
+    public static Cell view(ChunkedGrid store, int x, int y) {
+        return new Cell(store, x, y);
+    }
+    
+    /**
+     * إعادة الخلية إلى الحالة الافتراضية لنوعها
+     */
+    private void initialize(int type) {
+        initializeState(store, storeX, storeY, type);
+    }
+    
+    /**
+     * كتابة الحالة الافتراضية لنوع خلية مباشرة في مخزن بدون إنشاء Cell (لتحميل المستويات)
+     */
+    public static void initializeState(ChunkedGrid store, int x, int y, int type) {
+        store.setType(x, y, type);
+        store.setPowered(x, y, false);
+        store.setResistance(x, y, calculateResistance(type));
+        store.setDamaged(x, y, false);
+        store.setDamageLevel(x, y, 0);
+        store.setEffectDuration(x, y, 0);
+        store.setPopulation(x, y, (type == Constants.HOUSE) ? 100 : 0);
+        store.setProduction(x, y, (type == Constants.FACTORY) ? 50 : 0);
+        store.setOutputPower(x, y, (type == Constants.POWER_SOURCE) ? 1000 : 0);
+    }
+    
+    /**
+     * ربط الخلية بمخزن الشبكة في الموقع المحدد مع نقل حالتها الحالية إليه
+     */
+    void attach(ChunkedGrid target, int x, int y) {
+        target.setType(x, y, getType());
+        target.setPowered(x, y, store.isPoweredRaw(storeX, storeY));
+        target.setResistance(x, y, store.getResistance(storeX, storeY));
+        target.setDamaged(x, y, isDamaged());
+        target.setDamageLevel(x, y, getDamageLevel());
+        target.setEffectDuration(x, y, getEffectDuration());
+        target.setPopulation(x, y, getPopulation());
+        target.setProduction(x, y, getProduction());
+        target.setOutputPower(x, y, getOutputPower());
+        this.store = target;
+        this.storeX = x;
+        this.storeY = y;
+        this.x = x;
+        this.y = y;
+    }
+    
+    static int calculateResistance(int type) {
         switch(type) {
             case Constants.WATER: return 2;
             case Constants.MOUNTAIN: return 3;
@@ -46,41 +105,44 @@ public class Cell {
     // === الجوهر الجديد ===
     public void applyDamage(int damageAmount) {
         if (damageAmount > 0) {
-            this.damaged = true;
-            this.damageLevel = Math.min(10, this.damageLevel + damageAmount);
-            this.resistance += damageAmount * 2;
+            store.setDamaged(storeX, storeY, true);
+            int damageLevel = Math.min(10, getDamageLevel() + damageAmount);
+            store.setDamageLevel(storeX, storeY, damageLevel);
+            store.setResistance(storeX, storeY, store.getResistance(storeX, storeY) + damageAmount * 2);
             
             // إذا كان التلف شديداً، يتغير النوع
             if (damageLevel >= 8) {
+                int type = getType();
                 if (type == Constants.WIRE || type == Constants.TRANSFORMER) {
-                    type = Constants.BROKEN_WIRE;
+                    store.setType(storeX, storeY, Constants.BROKEN_WIRE);
                 } else if (type == Constants.HOUSE) {
-                    type = Constants.RUBBLE;
-                    population = Math.max(0, population - 70);
+                    store.setType(storeX, storeY, Constants.RUBBLE);
+                    store.setPopulation(storeX, storeY, Math.max(0, getPopulation() - 70));
                 }
             } else if (damageLevel >= 5) {
                 // تلف متوسط
-                powered = false;
+                store.setPowered(storeX, storeY, false);
             }
         }
     }
     
     public void repair() {
-        if (damaged) {
-            damaged = false;
-            damageLevel = Math.max(0, damageLevel - 1);
-            resistance = calculateResistance(type);
+        if (isDamaged()) {
+            store.setDamaged(storeX, storeY, false);
+            int damageLevel = Math.max(0, getDamageLevel() - 1);
+            store.setDamageLevel(storeX, storeY, damageLevel);
+            store.setResistance(storeX, storeY, calculateResistance(getType()));
             
             if (damageLevel <= 2) {
-                powered = true; // إعادة الطاقة بعد الإصلاح
+                store.setPowered(storeX, storeY, true); // إعادة الطاقة بعد الإصلاح
             }
         }
     }
     
     public String getDamageDescription() {
-        if (!damaged) return "سليم";
+        if (!isDamaged()) return "سليم";
         
-        switch(damageLevel) {
+        switch(getDamageLevel()) {
             case 1: case 2: case 3: return "تلف طفيف";
             case 4: case 5: case 6: return "تلف متوسط";
             case 7: case 8: case 9: return "تلف شديد";
@@ -92,41 +154,43 @@ public class Cell {
     // === Getters & Setters ===
     public int getX() { return x; }
     public int getY() { return y; }
-    public int getType() { return type; }
+    public int getType() { return store.getType(storeX, storeY); }
     public void setType(int type) { 
-        this.type = type; 
-        this.resistance = calculateResistance(type);
+        store.setType(storeX, storeY, type);
+        store.setResistance(storeX, storeY, calculateResistance(type));
     }
-    public boolean isPowered() { return powered && !damaged; }
+    public boolean isPowered() { return store.isPowered(storeX, storeY); }
     public void setPowered(boolean powered) { 
-        if (!damaged || damageLevel < 5) {
-            this.powered = powered; 
+        if (!isDamaged() || getDamageLevel() < 5) {
+            store.setPowered(storeX, storeY, powered);
         }
     }
     public int getResistance() { 
-        return damaged ? resistance * 2 : resistance; 
+        int resistance = store.getResistance(storeX, storeY);
+        return isDamaged() ? resistance * 2 : resistance; 
     }
-    public boolean isDamaged() { return damaged; }
-    public void setDamaged(boolean damaged) { this.damaged = damaged; }
-    public int getDamageLevel() { return damageLevel; }
+    public boolean isDamaged() { return store.isDamaged(storeX, storeY); }
+    public void setDamaged(boolean damaged) { store.setDamaged(storeX, storeY, damaged); }
+    public int getDamageLevel() { return store.getDamageLevel(storeX, storeY); }
     public void setDamageLevel(int level) { 
-        this.damageLevel = Math.min(10, Math.max(0, level)); 
-        this.damaged = (level > 0);
+        store.setDamageLevel(storeX, storeY, Math.min(10, Math.max(0, level)));
+        store.setDamaged(storeX, storeY, level > 0);
     }
     public String getSpecialEffect() { return specialEffect; }
     public void setSpecialEffect(String effect) { this.specialEffect = effect; }
-    public int getEffectDuration() { return effectDuration; }
-    public void setEffectDuration(int duration) { this.effectDuration = duration; }
-    public int getPopulation() { return population; }
-    public void setPopulation(int population) { this.population = population; }
-    public int getProduction() { return production; }
-    public void setProduction(int production) { this.production = production; }
-    public int getOutputPower() { return outputPower; }
-    public void setOutputPower(int power) { this.outputPower = power; }
+    public int getEffectDuration() { return store.getEffectDuration(storeX, storeY); }
+    public void setEffectDuration(int duration) { store.setEffectDuration(storeX, storeY, duration); }
+    public int getPopulation() { return store.getPopulation(storeX, storeY); }
+    public void setPopulation(int population) { store.setPopulation(storeX, storeY, population); }
+    public int getProduction() { return store.getProduction(storeX, storeY); }
+    public void setProduction(int production) { store.setProduction(storeX, storeY, production); }
+    public int getOutputPower() { return store.getOutputPower(storeX, storeY); }
+    public void setOutputPower(int power) { store.setOutputPower(storeX, storeY, power); }
     
     public boolean canPowerPass() {
-        if (damaged && damageLevel > 5) return false;
+        if (isDamaged() && getDamageLevel() > 5) return false;
         
+        int type = getType();
         return type == Constants.WIRE ||
                type == Constants.TRANSFORMER ||
                type == Constants.HOUSE ||
@@ -136,8 +200,9 @@ public class Cell {
     }
     
     public boolean isPassable() {
-        if (damaged && damageLevel > 7) return false;
+        if (isDamaged() && getDamageLevel() > 7) return false;
         
+        int type = getType();
         return type != Constants.OBSTACLE && 
                type != Constants.MOUNTAIN && 
                type != Constants.RUBBLE && 
@@ -145,8 +210,9 @@ public class Cell {
     }
     
     public void updateEffects() {
+        int effectDuration = getEffectDuration();
         if (effectDuration > 0) {
-            effectDuration--;
+            store.setEffectDuration(storeX, storeY, --effectDuration);
             if (effectDuration == 0) {
                 specialEffect = "";
             }
@@ -0,0 +1,489 @@
+package powergrid.model;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * تخزين حالة الخلايا في قطع (Chunks) بحجم 64x64 من المصفوفات البدائية
+ * مع النسخ عند الكتابة (Copy-On-Write) باستخدام عداد مراجع لكل قطعة:
+ * - أخذ نسخة = نسخ مصفوفة مراجع القطع فقط (بعدد القطع وليس بعدد الخلايا)
+ * - الكتابة على قطعة مشتركة تنسخ تلك القطعة وحدها
+ *
+ * الكتابة وأخذ النسخ من الشبكة الحية مسموحة من خيط واحد فقط (خيط المحاكاة)،
+ * أما النسخ المأخوذة فهي للقراءة ويمكن تمريرها لأي خيط
+ */
+public class ChunkedGrid {
+    public static final int CHUNK_SHIFT = 6;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 64
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // الصيغة الثنائية: نوع وتلف معبأين في بايت (4 بت لكل منهما)، بايت الحالة، ثم 5 أعداد صحيحة
+    public static final int BYTES_PER_CELL = 2 + 5 * Integer.BYTES;
+
+    // بتات الحالة
+    private static final byte FLAG_POWERED = 1;
+    private static final byte FLAG_DAMAGED = 2;
+
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int chunksY;
+    private Chunk[] chunks;
+
+    /**
+     * قطعة واحدة من الشبكة - مصفوفات متوازية لكل خاصية
+     */
+    static final class Chunk {
+        final int width;
+        final int height;
+        final byte[] types;
+        final byte[] damageLevels;
+        final byte[] flags;
+        final int[] resistances;
+        final int[] populations;
+        final int[] productions;
+        final int[] outputPowers;
+        final int[] effectDurations;
+        final AtomicInteger refCount = new AtomicInteger(1);
+        int poweredCount;  // خلايا موصولة وغير متضررة
+        int damagedCount;
+
+        Chunk(int width, int height) {
+            int size = width * height;
+            this.width = width;
+            this.height = height;
+            this.types = new byte[size];
+            this.damageLevels = new byte[size];
+            this.flags = new byte[size];
+            this.resistances = new int[size];
+            this.populations = new int[size];
+            this.productions = new int[size];
+            this.outputPowers = new int[size];
+            this.effectDurations = new int[size];
+        }
+
+        Chunk copy() {
+            Chunk copy = new Chunk(width, height);
+            int size = width * height;
+            System.arraycopy(types, 0, copy.types, 0, size);
+            System.arraycopy(damageLevels, 0, copy.damageLevels, 0, size);
+            System.arraycopy(flags, 0, copy.flags, 0, size);
+            System.arraycopy(resistances, 0, copy.resistances, 0, size);
+            System.arraycopy(populations, 0, copy.populations, 0, size);
+            System.arraycopy(productions, 0, copy.productions, 0, size);
+            System.arraycopy(outputPowers, 0, copy.outputPowers, 0, size);
+            System.arraycopy(effectDurations, 0, copy.effectDurations, 0, size);
+            copy.poweredCount = poweredCount;
+            copy.damagedCount = damagedCount;
+            return copy;
+        }
+    }
+
+    public ChunkedGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunks = new Chunk[chunksX * chunksY];
+
+        for (int cy = 0; cy < chunksY; cy++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                int chunkWidth = Math.min(CHUNK_SIZE, width - (cx << CHUNK_SHIFT));
+                int chunkHeight = Math.min(CHUNK_SIZE, height - (cy << CHUNK_SHIFT));
+                chunks[cy * chunksX + cx] = new Chunk(chunkWidth, chunkHeight);
+            }
+        }
+    }
+
+    private ChunkedGrid(int width, int height, int chunksX, int chunksY, Chunk[] chunks) {
+        this.width = width;
+        this.height = height;
+        this.chunksX = chunksX;
+        this.chunksY = chunksY;
+        this.chunks = chunks;
+    }
+
+    // ============ النسخ ============
+
+    /**
+     * أخذ نسخة مشتركة - O(عدد القطع)
+     * النسخة نفسها ChunkedGrid كاملة ويمكن تفريعها أو الكتابة عليها (تُنسخ قطعها عند الحاجة)
+     */
+    public ChunkedGrid snapshot() {
+        Chunk[] shared = chunks.clone();
+        for (Chunk chunk : shared) {
+            chunk.refCount.incrementAndGet();
+        }
+        return new ChunkedGrid(width, height, chunksX, chunksY, shared);
+    }
+
+    /**
+     * استبدال المحتوى بمحتوى نسخة أخرى بنفس الأبعاد (للتراجع أو تحميل حفظ) - O(عدد القطع)
+     */
+    public void restoreFrom(ChunkedGrid source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("أبعاد النسخة لا تطابق الشبكة");
+        }
+
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk incoming = source.chunks[i];
+            if (incoming != chunks[i]) {
+                incoming.refCount.incrementAndGet();
+                chunks[i].refCount.decrementAndGet();
+                chunks[i] = incoming;
+            }
+        }
+    }
+
+    /**
+     * نسخ محتوى مخزن آخر بنفس الأبعاد إلى قطع هذا المخزن بـ System.arraycopy
+     * بخلاف restoreFrom لا تبقى القطع مشتركة مع المصدر، فلا تُنسخ عند أول كتابة لاحقة
+     */
+    public void copyFrom(ChunkedGrid source) {
+        if (source.width != width || source.height != height) {
+            throw new IllegalArgumentException("أبعاد المصدر لا تطابق الشبكة");
+        }
+
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk from = source.chunks[i];
+            Chunk to = ownedChunk(i);
+            if (from == to) continue;
+            int size = to.width * to.height;
+            System.arraycopy(from.types, 0, to.types, 0, size);
+            System.arraycopy(from.damageLevels, 0, to.damageLevels, 0, size);
+            System.arraycopy(from.flags, 0, to.flags, 0, size);
+            System.arraycopy(from.resistances, 0, to.resistances, 0, size);
+            System.arraycopy(from.populations, 0, to.populations, 0, size);
+            System.arraycopy(from.productions, 0, to.productions, 0, size);
+            System.arraycopy(from.outputPowers, 0, to.outputPowers, 0, size);
+            System.arraycopy(from.effectDurations, 0, to.effectDurations, 0, size);
+            to.poweredCount = from.poweredCount;
+            to.damagedCount = from.damagedCount;
+        }
+    }
+
+    /**
+     * تعبئة كل الخلايا بنوع واحد بدون تلف أو كهرباء أو تأثيرات - Arrays.fill لكل مصفوفة
+     */
+    public void fill(int type, int resistance) {
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk chunk = ownedChunk(i);
+            int size = chunk.width * chunk.height;
+            Arrays.fill(chunk.types, 0, size, (byte) type);
+            Arrays.fill(chunk.damageLevels, 0, size, (byte) 0);
+            Arrays.fill(chunk.flags, 0, size, (byte) 0);
+            Arrays.fill(chunk.resistances, 0, size, resistance);
+            Arrays.fill(chunk.populations, 0, size, 0);
+            Arrays.fill(chunk.productions, 0, size, 0);
+            Arrays.fill(chunk.outputPowers, 0, size, 0);
+            Arrays.fill(chunk.effectDurations, 0, size, 0);
+            chunk.poweredCount = 0;
+            chunk.damagedCount = 0;
+        }
+    }
+
+    /**
+     * تحرير نسخة لم تعد مستخدمة حتى يستطيع مالك القطع الكتابة عليها مباشرة بدون نسخ
+     * اختياري - النسخ غير المحررة تبقى صحيحة لكنها تكلف نسخة قطعة عند أول كتابة
+     */
+    public void release() {
+        if (chunks == null) return;
+        for (Chunk chunk : chunks) {
+            chunk.refCount.decrementAndGet();
+        }
+        chunks = null;
+    }
+
+    /**
+     * @return true إذا كانت القطعة في الموقع نفسه مشتركة بين النسختين (أي لم تتغير)
+     */
+    public boolean sharesChunk(ChunkedGrid other, int chunkIndex) {
+        return chunks[chunkIndex] == other.chunks[chunkIndex];
+    }
+
+    /**
+     * مقارنة المحتوى - سريعة عندما تكون القطع مشتركة
+     */
+    public boolean contentEquals(ChunkedGrid other) {
+        if (other == this) return true;
+        if (other == null || other.width != width || other.height != height) return false;
+
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk a = chunks[i];
+            Chunk b = other.chunks[i];
+            if (a == b) continue;
+            if (!Arrays.equals(a.types, b.types)
+                || !Arrays.equals(a.damageLevels, b.damageLevels)
+                || !Arrays.equals(a.flags, b.flags)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============ القراءة والكتابة الثنائية (للحفظ) ============
+
+    /**
+     * @return حجم القطعة في الصيغة الثنائية بالبايت
+     */
+    public int chunkByteSize(int chunkIndex) {
+        Chunk chunk = chunks[chunkIndex];
+        return chunk.width * chunk.height * BYTES_PER_CELL;
+    }
+
+    /**
+     * كتابة قطعة إلى المخزن المؤقت (يجب أن يتسع لـ chunkByteSize)
+     */
+    public void writeChunk(int chunkIndex, ByteBuffer out) {
+        Chunk chunk = chunks[chunkIndex];
+        int size = chunk.width * chunk.height;
+        for (int i = 0; i < size; i++) {
+            out.put((byte) ((chunk.types[i] << 4) | (chunk.damageLevels[i] & 0x0F)));
+        }
+        out.put(chunk.flags, 0, size);
+        out.asIntBuffer().put(chunk.resistances, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+        out.asIntBuffer().put(chunk.populations, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+        out.asIntBuffer().put(chunk.productions, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+        out.asIntBuffer().put(chunk.outputPowers, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+        out.asIntBuffer().put(chunk.effectDurations, 0, size);
+        out.position(out.position() + size * Integer.BYTES);
+    }
+
+    /**
+     * قراءة قطعة من المخزن المؤقت - تستبدل القطعة الحالية بقطعة جديدة غير مشتركة
+     */
+    public void readChunk(int chunkIndex, ByteBuffer in) {
+        Chunk old = chunks[chunkIndex];
+        Chunk chunk = new Chunk(old.width, old.height);
+        int size = chunk.width * chunk.height;
+        for (int i = 0; i < size; i++) {
+            int packed = in.get();
+            chunk.types[i] = (byte) ((packed >> 4) & 0x0F);
+            chunk.damageLevels[i] = (byte) (packed & 0x0F);
+        }
+        in.get(chunk.flags, 0, size);
+        in.asIntBuffer().get(chunk.resistances, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+        in.asIntBuffer().get(chunk.populations, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+        in.asIntBuffer().get(chunk.productions, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+        in.asIntBuffer().get(chunk.outputPowers, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+        in.asIntBuffer().get(chunk.effectDurations, 0, size);
+        in.position(in.position() + size * Integer.BYTES);
+
+        for (int i = 0; i < size; i++) {
+            byte f = chunk.flags[i];
+            if (effectivelyPowered(f)) chunk.poweredCount++;
+            if ((f & FLAG_DAMAGED) != 0) chunk.damagedCount++;
+        }
+
+        old.refCount.decrementAndGet();
+        chunks[chunkIndex] = chunk;
+    }
+
+    // ============ الوصول الداخلي ============
+
+    private Chunk chunkAt(int x, int y) {
+        return chunks[(y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT)];
+    }
+
+    private static int localIndex(Chunk chunk, int x, int y) {
+        return (y & CHUNK_MASK) * chunk.width + (x & CHUNK_MASK);
+    }
+
+    /**
+     * الحصول على القطعة للكتابة - تُنسخ أولاً إذا كانت مشتركة مع نسخة أخرى
+     */
+    private Chunk writableChunk(int x, int y) {
+        int index = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        Chunk chunk = chunks[index];
+        if (chunk.refCount.get() > 1) {
+            Chunk copy = chunk.copy();
+            chunk.refCount.decrementAndGet();
+            chunks[index] = copy;
+            chunk = copy;
+        }
+        return chunk;
+    }
+
+    /**
+     * القطعة للكتابة الكاملة - القطعة المشتركة تُستبدل بقطعة جديدة فارغة بدلاً من نسخها
+     */
+    private Chunk ownedChunk(int index) {
+        Chunk chunk = chunks[index];
+        if (chunk.refCount.get() > 1) {
+            Chunk fresh = new Chunk(chunk.width, chunk.height);
+            chunk.refCount.decrementAndGet();
+            chunks[index] = fresh;
+            chunk = fresh;
+        }
+        return chunk;
+    }
+
+    // تحديث العدادات عند تغيير بتات الحالة
+    private static void setFlags(Chunk chunk, int i, byte newFlags) {
+        byte oldFlags = chunk.flags[i];
+        chunk.poweredCount += (effectivelyPowered(newFlags) ? 1 : 0) - (effectivelyPowered(oldFlags) ? 1 : 0);
+        chunk.damagedCount += ((newFlags & FLAG_DAMAGED) != 0 ? 1 : 0) - ((oldFlags & FLAG_DAMAGED) != 0 ? 1 : 0);
+        chunk.flags[i] = newFlags;
+    }
+
+    private static boolean effectivelyPowered(byte flags) {
+        return (flags & FLAG_POWERED) != 0 && (flags & FLAG_DAMAGED) == 0;
+    }
+
+    // ============ دوال القراءة ============
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getChunkCount() { return chunks.length; }
+    public int getChunksX() { return chunksX; }
+    public int getChunksY() { return chunksY; }
+
+    public boolean isValidPosition(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int getType(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.types[localIndex(c, x, y)];
+    }
+
+    public int getDamageLevel(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.damageLevels[localIndex(c, x, y)];
+    }
+
+    /**
+     * @return بت التوصيل الخام (بدون اعتبار التلف)
+     */
+    public boolean isPoweredRaw(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return (c.flags[localIndex(c, x, y)] & FLAG_POWERED) != 0;
+    }
+
+    /**
+     * @return موصولة وغير متضررة (مثل Cell.isPowered)
+     */
+    public boolean isPowered(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return effectivelyPowered(c.flags[localIndex(c, x, y)]);
+    }
+
+    public boolean isDamaged(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return (c.flags[localIndex(c, x, y)] & FLAG_DAMAGED) != 0;
+    }
+
+    public int getResistance(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.resistances[localIndex(c, x, y)];
+    }
+
+    public int getPopulation(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.populations[localIndex(c, x, y)];
+    }
+
+    public int getProduction(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.productions[localIndex(c, x, y)];
+    }
+
+    public int getOutputPower(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.outputPowers[localIndex(c, x, y)];
+    }
+
+    public int getEffectDuration(int x, int y) {
+        Chunk c = chunkAt(x, y);
+        return c.effectDurations[localIndex(c, x, y)];
+    }
+
+    /**
+     * عدد الخلايا الموصولة وغير المتضررة - O(عدد القطع)
+     */
+    public int countPoweredCells() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.poweredCount;
+        }
+        return count;
+    }
+
+    /**
+     * عدد الخلايا المتضررة - O(عدد القطع)
+     */
+    public int countDamagedCells() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.damagedCount;
+        }
+        return count;
+    }
+
+    // ============ دوال الكتابة (لا تنسخ القطعة إذا لم تتغير القيمة) ============
+
+    public void setType(int x, int y, int type) {
+        if (getType(x, y) == type) return;
+        Chunk c = writableChunk(x, y);
+        c.types[localIndex(c, x, y)] = (byte) type;
+    }
+
+    public void setDamageLevel(int x, int y, int level) {
+        if (getDamageLevel(x, y) == level) return;
+        Chunk c = writableChunk(x, y);
+        c.damageLevels[localIndex(c, x, y)] = (byte) level;
+    }
+
+    public void setPowered(int x, int y, boolean powered) {
+        if (isPoweredRaw(x, y) == powered) return;
+        Chunk c = writableChunk(x, y);
+        int i = localIndex(c, x, y);
+        setFlags(c, i, (byte) (powered ? c.flags[i] | FLAG_POWERED : c.flags[i] & ~FLAG_POWERED));
+    }
+
+    public void setDamaged(int x, int y, boolean damaged) {
+        if (isDamaged(x, y) == damaged) return;
+        Chunk c = writableChunk(x, y);
+        int i = localIndex(c, x, y);
+        setFlags(c, i, (byte) (damaged ? c.flags[i] | FLAG_DAMAGED : c.flags[i] & ~FLAG_DAMAGED));
+    }
+
+    public void setResistance(int x, int y, int resistance) {
+        if (getResistance(x, y) == resistance) return;
+        Chunk c = writableChunk(x, y);
+        c.resistances[localIndex(c, x, y)] = resistance;
+    }
+
+    public void setPopulation(int x, int y, int population) {
+        if (getPopulation(x, y) == population) return;
+        Chunk c = writableChunk(x, y);
+        c.populations[localIndex(c, x, y)] = population;
+    }
+
+    public void setProduction(int x, int y, int production) {
+        if (getProduction(x, y) == production) return;
+        Chunk c = writableChunk(x, y);
+        c.productions[localIndex(c, x, y)] = production;
+    }
+
+    public void setOutputPower(int x, int y, int outputPower) {
+        if (getOutputPower(x, y) == outputPower) return;
+        Chunk c = writableChunk(x, y);
+        c.outputPowers[localIndex(c, x, y)] = outputPower;
+    }
+
+    public void setEffectDuration(int x, int y, int duration) {
+        if (getEffectDuration(x, y) == duration) return;
+        Chunk c = writableChunk(x, y);
+        c.effectDurations[localIndex(c, x, y)] = duration;
+    }
+}
@@ -1,18 +1,25 @@
 package powergrid.model;
 
+import powergrid.utils.Constants;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Grid {
     private Cell[][] cells;
+    private ChunkedGrid store; // حالة الخلايا في قطع مع النسخ عند الكتابة
     private int width, height;
     private List<Cell> damagedCells;
+    private List<House> houses;
+    private List<PowerSource> powerSources;
     
     public Grid(int width, int height) {
         this.width = width;
         this.height = height;
         this.cells = new Cell[width][height];
+        this.store = new ChunkedGrid(width, height);
         this.damagedCells = new ArrayList<>();
+        this.houses = new ArrayList<>();
+        this.powerSources = new ArrayList<>();
         
         initializeGrid();
     }
@@ -28,7 +35,7 @@ public class Grid {
                 else if (Math.random() < 0.1) type = Constants.WATER;
                 else if (Math.random() < 0.05) type = Constants.MOUNTAIN;
                 
-                cells[x][y] = new Cell(x, y, type);
+                cells[x][y] = new Cell(store, x, y, type);
             }
         }
         
@@ -49,10 +56,68 @@ public class Grid {
     
     public void setCell(int x, int y, Cell cell) {
         if (isValidPosition(x, y)) {
+            cell.attach(store, x, y);
             cells[x][y] = cell;
         }
     }
     
+    /**
+     * مخزن الخلايا الحي - للقراءة فقط من خيط المحاكاة (مثل تسجيل الحالة في سجل الأحداث)
+     */
+    public ChunkedGrid getCellStore() {
+        return store;
+    }
+    
+    /**
+     * أخذ نسخة من حالة الخلايا - O(عدد القطع)
+     * تُستخدم للعرض والتراجع والحفظ، ويجب استدعاؤها من الخيط الذي يعدّل الشبكة
+     */
+    public ChunkedGrid snapshotCells() {
+        return store.snapshot();
+    }
+    
+    /**
+     * استرجاع حالة الخلايا من نسخة سابقة (تراجع) - O(عدد القطع)
+     * قائمة الخلايا المتضررة يُعاد بناؤها، أما قوائم الكيانات فلا تتأثر
+     */
+    public void restoreCells(ChunkedGrid snapshot) {
+        store.restoreFrom(snapshot);
+        rebuildDamagedCells();
+    }
+    
+    /**
+     * إعادة الشبكة فارغة بالكامل: النوع والتلف والكهرباء والتأثيرات، مع مسح قوائم الكيانات
+     * تعبئة مصفوفات القطع دفعة واحدة بدلاً من setType لكل خلية
+     */
+    public void reset() {
+        store.fill(Constants.EMPTY, Cell.calculateResistance(Constants.EMPTY));
+        damagedCells.clear();
+        houses.clear();
+        powerSources.clear();
+    }
+    
+    /**
+     * تحميل قالب مستوى بنسخ مصفوفات القطع (System.arraycopy) - الشبكة لا تشارك القالب بعدها
+     * قوائم الكيانات لا تتأثر (يضيفها من يطبق المستوى)
+     */
+    public void loadFrom(ChunkedGrid template) {
+        store.copyFrom(template);
+        rebuildDamagedCells();
+    }
+    
+    private void rebuildDamagedCells() {
+        damagedCells.clear();
+        if (store.countDamagedCells() > 0) {
+            for (int x = 0; x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    if (cells[x][y].isDamaged()) {
+                        damagedCells.add(cells[x][y]);
+                    }
+                }
+            }
+        }
+    }
+    
     public boolean isValidPosition(int x, int y) {
         return x >= 0 && x < width && y >= 0 && y < height;
     }
@@ -60,6 +125,9 @@ public class Grid {
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     
+    public List<House> getHouses() { return houses; }
+    public List<PowerSource> getPowerSources() { return powerSources; }
+    
     public void addDamagedCell(Cell cell) {
         if (!damagedCells.contains(cell)) {
             damagedCells.add(cell);
@@ -74,6 +142,10 @@ public class Grid {
         return new ArrayList<>(damagedCells);
     }
     
+    public int getDamagedCellCount() {
+        return damagedCells.size();
+    }
+    
     public int getDamageRepairCost() {
         int totalCost = 0;
         for (Cell cell : damagedCells) {
@@ -0,0 +1,117 @@
+package powergrid.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * نسخة ثابتة (غير قابلة للتعديل) من حالة الشبكة في لحظة معينة
+ * الخلايا مشتركة مع الشبكة عبر قطع ChunkedGrid (نسخ عند الكتابة)، فيكون أخذ النسخة
+ * بعدد القطع وليس بعدد الخلايا، ويمكن قراءتها بأمان من أي خيط
+ */
+public final class GridSnapshot {
+    private final ChunkedGrid cells;
+
+    // الكيانات (منازل ومصادر طاقة) بترتيب قوائم الشبكة
+    private final int[] houseXs;
+    private final int[] houseYs;
+    private final boolean[] housePowered;
+    private final int[] sourceXs;
+    private final int[] sourceYs;
+
+    private GridSnapshot(ChunkedGrid cells,
+                         int[] houseXs, int[] houseYs, boolean[] housePowered,
+                         int[] sourceXs, int[] sourceYs) {
+        this.cells = cells;
+        this.houseXs = houseXs;
+        this.houseYs = houseYs;
+        this.housePowered = housePowered;
+        this.sourceXs = sourceXs;
+        this.sourceYs = sourceYs;
+    }
+
+    /**
+     * أخذ نسخة من الشبكة - يجب استدعاؤها من الخيط الذي يعدّل الشبكة
+     * @param grid الشبكة
+     * @return نسخة ثابتة
+     */
+    public static GridSnapshot capture(Grid grid) {
+        ChunkedGrid cells = grid.snapshotCells();
+
+        List<House> houses = grid.getHouses();
+        int[] houseXs = new int[houses.size()];
+        int[] houseYs = new int[houses.size()];
+        boolean[] housePowered = new boolean[houses.size()];
+        for (int i = 0; i < houses.size(); i++) {
+            House house = houses.get(i);
+            houseXs[i] = house.getX();
+            houseYs[i] = house.getY();
+            housePowered[i] = house.isPowered();
+        }
+
+        List<PowerSource> sources = grid.getPowerSources();
+        int[] sourceXs = new int[sources.size()];
+        int[] sourceYs = new int[sources.size()];
+        for (int i = 0; i < sources.size(); i++) {
+            sourceXs[i] = sources.get(i).getX();
+            sourceYs[i] = sources.get(i).getY();
+        }
+
+        return new GridSnapshot(cells, houseXs, houseYs, housePowered, sourceXs, sourceYs);
+    }
+
+    /**
+     * @return true إذا كانت النسختان متطابقتين في المحتوى (تستخدم لتجنب إعادة الحساب)
+     */
+    public boolean contentEquals(GridSnapshot other) {
+        if (other == this) return true;
+        if (other == null) return false;
+        return cells.contentEquals(other.cells)
+            && Arrays.equals(houseXs, other.houseXs)
+            && Arrays.equals(houseYs, other.houseYs)
+            && Arrays.equals(housePowered, other.housePowered)
+            && Arrays.equals(sourceXs, other.sourceXs)
+            && Arrays.equals(sourceYs, other.sourceYs);
+    }
+
+    // ============ دوال الوصول ============
+
+    public int getWidth() { return cells.getWidth(); }
+    public int getHeight() { return cells.getHeight(); }
+
+    public boolean isValidPosition(int x, int y) {
+        return cells.isValidPosition(x, y);
+    }
+
+    public int getType(int x, int y) { return cells.getType(x, y); }
+    public int getDamageLevel(int x, int y) { return cells.getDamageLevel(x, y); }
+    public boolean isPowered(int x, int y) { return cells.isPowered(x, y); }
+    public boolean isDamaged(int x, int y) { return cells.isDamaged(x, y); }
+    public int getPopulation(int x, int y) { return cells.getPopulation(x, y); }
+    public int getPoweredCellCount() { return cells.countPoweredCells(); }
+    public int getDamagedCellCount() { return cells.countDamagedCells(); }
+
+    /**
+     * تفريع نسخة خاصة قابلة للتعديل من خلايا هذه النسخة (للمحاكاة أو الحفظ)
+     * التعديل عليها ينسخ القطع المعدلة فقط ولا يؤثر على هذه النسخة
+     */
+    public ChunkedGrid forkCells() {
+        return cells.snapshot();
+    }
+
+    public int getHouseCount() { return houseXs.length; }
+    public int getHouseX(int i) { return houseXs[i]; }
+    public int getHouseY(int i) { return houseYs[i]; }
+    public boolean isHousePowered(int i) { return housePowered[i]; }
+
+    public int getPoweredHouseCount() {
+        int count = 0;
+        for (boolean powered : housePowered) {
+            if (powered) count++;
+        }
+        return count;
+    }
+
+    public int getPowerSourceCount() { return sourceXs.length; }
+    public int getPowerSourceX(int i) { return sourceXs[i]; }
+    public int getPowerSourceY(int i) { return sourceYs[i]; }
+}
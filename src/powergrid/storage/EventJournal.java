@@ -0,0 +1,454 @@
+package powergrid.storage;
+
+import powergrid.manager.ActionRecorder;
+import powergrid.model.ChunkedGrid;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * سجل أحداث ثنائي للإضافة فقط - كل إجراء يغير حالة اللعبة يُكتب كسجل مسبوق بطوله:
+ * [int طول الحمولة][byte نوع الحدث][الحمولة]
+ *
+ * الإضافة تكتب في مخزن في الذاكرة فقط، وخيط كاتب منفصل يأخذ كل ما تجمع دفعة واحدة
+ * ويكتبه ثم يستدعي force مرة واحدة للدفعة كلها (group commit)، فلا ينتظر خيط المحاكاة القرص
+ */
+public class EventJournal implements ActionRecorder, Closeable {
+    public static final int MAGIC = 0x50474A4C; // "PGJL"
+    public static final short VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int RECORD_PREFIX = Integer.BYTES + 1;
+
+    // أنواع الأحداث
+    public static final byte DAY = 1;               // int day
+    public static final byte PLACE_WIRE = 2;        // int x, int y
+    public static final byte PLACE_TRANSFORMER = 3; // int x, int y
+    public static final byte EARTHQUAKE = 4;        // int x, int y, int magnitude
+    public static final byte CELL_STATE = 5;        // int x, int y, byte type, byte damage, byte flags, 5 x int
+    public static final byte REPAIR = 6;            // int x, int y
+    public static final byte MONEY = 7;             // int delta (مال GameManager)
+    public static final byte SEED = 8;              // long seed
+    public static final byte BUDGET = 9;            // int delta (ميزانية GameEngine)
+
+    static final int CELL_POWERED = 1;
+    static final int CELL_DAMAGED = 2;
+    static final int CELL_STATE_SIZE = 2 * Integer.BYTES + 3 + 5 * Integer.BYTES;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private final Thread writer;
+
+    // محمية بـ lock
+    private ByteBuffer active;   // تُكتب فيه الإضافات
+    private ByteBuffer spare;    // null أثناء كتابة الدفعة السابقة
+    private long appendedPosition; // الموقع المنطقي بعد آخر سجل مضاف
+    private long durablePosition;  // الموقع الذي وصل إلى القرص فعلاً
+    private boolean closed;
+    private IOException failure;
+    // بعد فشل الكتابة تذهب السجلات إلى هنا ولا تُكتب - أكبر سجل هو CELL_STATE
+    private final ByteBuffer discard = ByteBuffer.allocate(RECORD_PREFIX + CELL_STATE_SIZE);
+
+    /**
+     * فتح سجل للإضافة - ينشئ الملف إذا لم يوجد، ويقص أي سجل ناقص في نهايته (من انقطاع سابق)
+     */
+    public EventJournal(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                channel.force(true);
+            } else {
+                long validEnd;
+                try (Reader reader = new Reader(path)) {
+                    while (reader.next()) {
+                        // تجاوز كل السجلات الكاملة
+                    }
+                    validEnd = reader.position();
+                }
+                if (validEnd < channel.size()) {
+                    channel.truncate(validEnd);
+                }
+            }
+
+            appendedPosition = channel.size();
+            durablePosition = appendedPosition;
+            channel.position(appendedPosition);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        active = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        spare = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        writer = new Thread(this::writerLoop, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ============ تسجيل الأحداث (ActionRecorder) ============
+
+    @Override
+    public void onDayStarted(int day) {
+        synchronized (lock) {
+            ByteBuffer out = begin(DAY, Integer.BYTES);
+            out.putInt(day);
+        }
+    }
+
+    @Override
+    public void onWirePlaced(int x, int y) {
+        appendPosition(PLACE_WIRE, x, y);
+    }
+
+    @Override
+    public void onTransformerPlaced(int x, int y) {
+        appendPosition(PLACE_TRANSFORMER, x, y);
+    }
+
+    @Override
+    public void onEarthquake(int epicenterX, int epicenterY, int magnitude) {
+        synchronized (lock) {
+            ByteBuffer out = begin(EARTHQUAKE, 3 * Integer.BYTES);
+            out.putInt(epicenterX).putInt(epicenterY).putInt(magnitude);
+        }
+    }
+
+    @Override
+    public void onCellState(ChunkedGrid cells, int x, int y) {
+        synchronized (lock) {
+            ByteBuffer out = begin(CELL_STATE, CELL_STATE_SIZE);
+            out.putInt(x).putInt(y);
+            out.put((byte) cells.getType(x, y));
+            out.put((byte) cells.getDamageLevel(x, y));
+            out.put((byte) ((cells.isPoweredRaw(x, y) ? CELL_POWERED : 0)
+                          | (cells.isDamaged(x, y) ? CELL_DAMAGED : 0)));
+            out.putInt(cells.getResistance(x, y));
+            out.putInt(cells.getPopulation(x, y));
+            out.putInt(cells.getProduction(x, y));
+            out.putInt(cells.getOutputPower(x, y));
+            out.putInt(cells.getEffectDuration(x, y));
+        }
+    }
+
+    @Override
+    public void onCellRepaired(int x, int y) {
+        appendPosition(REPAIR, x, y);
+    }
+
+    @Override
+    public void onMoneyChanged(int delta) {
+        synchronized (lock) {
+            ByteBuffer out = begin(MONEY, Integer.BYTES);
+            out.putInt(delta);
+        }
+    }
+
+    @Override
+    public void onBudgetChanged(int delta) {
+        synchronized (lock) {
+            ByteBuffer out = begin(BUDGET, Integer.BYTES);
+            out.putInt(delta);
+        }
+    }
+
+    @Override
+    public void onRandomSeed(long seed) {
+        synchronized (lock) {
+            ByteBuffer out = begin(SEED, Long.BYTES);
+            out.putLong(seed);
+        }
+    }
+
+    private void appendPosition(byte type, int x, int y) {
+        synchronized (lock) {
+            ByteBuffer out = begin(type, 2 * Integer.BYTES);
+            out.putInt(x).putInt(y);
+        }
+    }
+
+    /**
+     * حجز مكان لسجل وكتابة بادئته - يُستدعى تحت القفل
+     * إذا امتلأ المخزن ينتظر حتى ينتهي الكاتب من الدفعة السابقة (ضغط عكسي)
+     * بعد فشل الكتابة يتوقف التسجيل بصمت ولا تتعطل اللعبة - الخطأ متاح عبر getFailure()
+     */
+    private ByteBuffer begin(byte type, int payloadSize) {
+        if (closed) {
+            throw new IllegalStateException("سجل الأحداث مغلق");
+        }
+        if (failure != null) {
+            return discard(type, payloadSize);
+        }
+
+        int recordSize = RECORD_PREFIX + payloadSize;
+        while (active.remaining() < recordSize) {
+            lock.notifyAll();
+            awaitWriter();
+            if (failure != null) {
+                return discard(type, payloadSize);
+            }
+        }
+
+        // أول سجل في الدفعة يوقظ الكاتب، والباقي يتجمع حتى يعود
+        if (active.position() == 0) {
+            lock.notifyAll();
+        }
+        appendedPosition += recordSize;
+        return active.putInt(payloadSize).put(type);
+    }
+
+    private ByteBuffer discard(byte type, int payloadSize) {
+        discard.clear();
+        return discard.putInt(payloadSize).put(type);
+    }
+
+    private void awaitWriter() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("تمت مقاطعة الانتظار على سجل الأحداث", e);
+        }
+    }
+
+    // ============ الكتابة إلى القرص ============
+
+    private void writerLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            synchronized (lock) {
+                while (active.position() == 0 && !closed) {
+                    awaitWriterQuietly();
+                }
+                if (active.position() == 0) {
+                    return; // مغلق ولا شيء متبقٍ
+                }
+                batch = active;
+                active = spare;
+                spare = null;
+                batchEnd = appendedPosition;
+                lock.notifyAll(); // المنتظرون على المساحة
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.clear();
+
+            synchronized (lock) {
+                spare = batch;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durablePosition = batchEnd;
+                }
+                lock.notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void awaitWriterQuietly() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            // الكاتب لا يتوقف إلا عند الإغلاق
+        }
+    }
+
+    /**
+     * انتظار وصول كل ما أُضيف حتى الآن إلى القرص
+     */
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appendedPosition;
+            while (durablePosition < target && failure == null) {
+                lock.notifyAll();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("تمت مقاطعة انتظار سجل الأحداث", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * الموقع المنطقي بعد آخر حدث مضاف - يُحفظ مع النسخ لتعرف الإعادة من أين تبدأ
+     */
+    public long position() {
+        synchronized (lock) {
+            return appendedPosition;
+        }
+    }
+
+    public long getDurablePosition() {
+        synchronized (lock) {
+            return durablePosition;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * خطأ الكتابة الذي أوقف السجل، أو null إذا كان السجل يعمل
+     * الأحداث المضافة بعده لا تُكتب
+     */
+    public IOException getFailure() {
+        synchronized (lock) {
+            return failure;
+        }
+    }
+
+    // ============ القراءة ============
+
+    /**
+     * قارئ متسلسل للسجل عبر ربط الملف بالذاكرة - بدون إنشاء كائنات لكل حدث
+     * يربط نافذة بحجم ثابت وينقلها مع القراءة، فلا حد لحجم السجل في جلسة طويلة
+     * يتوقف عند أول سجل ناقص (كتابة لم تكتمل قبل انقطاع)
+     */
+    public static final class Reader implements Closeable {
+        private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer in;
+        private long windowStart;
+        private long recordEnd;
+        private byte type;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.size = channel.size();
+                if (size < HEADER_SIZE) {
+                    throw new IOException("ليس سجل أحداث Power Grid: " + path);
+                }
+                map(0);
+                if (in.getInt() != MAGIC) {
+                    throw new IOException("ليس سجل أحداث Power Grid: " + path);
+                }
+                short version = in.getShort();
+                if (version != VERSION) {
+                    throw new IOException("إصدار سجل الأحداث غير مدعوم: " + version);
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            this.recordEnd = HEADER_SIZE;
+        }
+
+        /**
+         * الانتقال إلى موقع منطقي محفوظ (من EventJournal.position)
+         */
+        public void seek(long position) {
+            if (position < HEADER_SIZE || position > size) {
+                throw new IllegalArgumentException("موقع خارج السجل: " + position);
+            }
+            recordEnd = position;
+        }
+
+        /**
+         * الانتقال إلى الحدث التالي - الحمولة تُقرأ بعدها بدوال read
+         * @return false عند نهاية السجل
+         */
+        public boolean next() throws IOException {
+            long available = size - recordEnd;
+            if (available < RECORD_PREFIX) {
+                return false;
+            }
+            ensureMapped(recordEnd, RECORD_PREFIX);
+            int offset = (int) (recordEnd - windowStart);
+            int payloadSize = in.getInt(offset);
+            // طول أكبر من النافذة لا يكتبه EventJournal - سجل تالف يُعامل كنهاية
+            if (payloadSize < 0 || payloadSize > WINDOW_SIZE - RECORD_PREFIX
+                    || available - RECORD_PREFIX < payloadSize) {
+                return false;
+            }
+            ensureMapped(recordEnd, RECORD_PREFIX + payloadSize);
+            offset = (int) (recordEnd - windowStart);
+            type = in.get(offset + Integer.BYTES);
+            in.position(offset + RECORD_PREFIX);
+            recordEnd += RECORD_PREFIX + payloadSize;
+            return true;
+        }
+
+        // نقل النافذة إذا لم يكن السجل كله داخلها
+        private void ensureMapped(long position, int length) throws IOException {
+            if (position < windowStart || position + length > windowStart + in.limit()) {
+                map(position);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            in = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+        }
+
+        public byte type() { return type; }
+        public int readInt() { return in.getInt(); }
+        public byte readByte() { return in.get(); }
+        public long readLong() { return in.getLong(); }
+
+        /**
+         * الموقع المنطقي بعد الحدث الحالي
+         */
+        public long position() {
+            return recordEnd;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
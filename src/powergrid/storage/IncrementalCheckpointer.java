@@ -0,0 +1,538 @@
+package powergrid.storage;
+
+import powergrid.manager.GameManager;
+import powergrid.manager.GameStats;
+import powergrid.model.ChunkedGrid;
+import powergrid.model.Grid;
+import powergrid.model.House;
+import powergrid.model.PowerSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * حفظ تزايدي دوري في مجلد:
+ * base-<رقم>.pgs نسخة كاملة بصيغة SaveGame، ثم delta-<رقم>.pgd لكل حفظ بعدها
+ *
+ * خيط المحاكاة يأخذ نسخة COW من الخلايا (بعدد القطع فقط) ويسلمها لخيط الكتابة ثم يكمل فوراً.
+ * خيط الكتابة يقارن النسخة بالنسخة السابقة: القطع المشتركة لم تتغير فلا تُكتب،
+ * والقطع المتغيرة تُكتب كفرق XOR مع إصدارها السابق مضغوطاً بترميز RLE لأطوال الأصفار.
+ * بعد عدد محدد من الفروق يكتب الخيط نفسه نسخة كاملة جديدة ويحذف السلسلة القديمة (الدمج)
+ */
+public class IncrementalCheckpointer implements Closeable {
+    public static final int MAGIC = 0x50474444; // "PGDD"
+    public static final short VERSION = 1;
+    public static final int DEFAULT_COMPACT_EVERY = 16;
+    private static final String BASE_PREFIX = "base-";
+    private static final String BASE_SUFFIX = ".pgs";
+    private static final String DELTA_PREFIX = "delta-";
+    private static final String DELTA_SUFFIX = ".pgd";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    /**
+     * حفظ واحد بانتظار الكتابة - كل ما فيه ملك لخيط الكتابة بعد التسليم
+     */
+    private static final class Job {
+        final ChunkedGrid cells;
+        final byte[] entities;
+        final GameManager.Difficulty difficulty;
+        final GameStats stats;
+
+        Job(ChunkedGrid cells, byte[] entities, GameManager.Difficulty difficulty, GameStats stats) {
+            this.cells = cells;
+            this.entities = entities;
+            this.difficulty = difficulty;
+            this.stats = stats;
+        }
+    }
+
+    private final Path directory;
+    private final int compactEvery;
+    private final BlockingQueue<Job> pending;
+    private final Thread writer;
+    private volatile boolean running;
+    private final AtomicLong submitted = new AtomicLong();
+    private volatile long completed;
+    private volatile IOException failure;
+
+    // حالة خيط الكتابة
+    private ChunkedGrid previous;
+    private long sequence;
+    private int deltasSinceBase;
+    private byte[] previousBytes;
+    private byte[] currentBytes;
+    private byte[] encoded;
+    private final ByteBuffer buffer;
+
+    // إحصائيات
+    private final AtomicLong checkpointsWritten = new AtomicLong();
+    private final AtomicLong checkpointsSkipped = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private volatile long lastBytesWritten;
+    private volatile int lastDirtyChunks;
+
+    public IncrementalCheckpointer(Path directory) throws IOException {
+        this(directory, DEFAULT_COMPACT_EVERY);
+    }
+
+    /**
+     * @param compactEvery عدد الفروق قبل كتابة نسخة كاملة جديدة
+     */
+    public IncrementalCheckpointer(Path directory, int compactEvery) throws IOException {
+        if (compactEvery < 1) {
+            throw new IllegalArgumentException("عدد الفروق قبل الدمج يجب أن يكون موجباً");
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.compactEvery = compactEvery;
+        this.pending = new ArrayBlockingQueue<>(1);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.sequence = Math.max(latestSequence(directory, BASE_PREFIX, BASE_SUFFIX),
+                                 latestSequence(directory, DELTA_PREFIX, DELTA_SUFFIX));
+        deleteTemporaryFiles();
+
+        this.running = true;
+        this.writer = new Thread(this::writerLoop, "checkpoint-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ============ خيط المحاكاة ============
+
+    /**
+     * طلب حفظ - من خيط المحاكاة بين الأيام، لا ينتظر القرص أبداً
+     * @return false إذا كان الحفظ السابق لم يُكتب بعد (يُتجاوز هذا الحفظ بدلاً من إيقاف الدورة)
+     */
+    public boolean checkpoint(GameManager gameManager) {
+        if (failure != null) {
+            throw new IllegalStateException("فشل الحفظ التزايدي", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("الحفظ التزايدي مغلق");
+        }
+
+        Grid grid = gameManager.getGrid();
+        ChunkedGrid view = grid.snapshotCells();
+        Job job = new Job(view, SaveGame.encodeEntities(grid.getHouses(), grid.getPowerSources()),
+                          gameManager.getDifficulty(), gameManager.getStats());
+        if (!pending.offer(job)) {
+            view.release();
+            checkpointsSkipped.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * انتظار كتابة كل ما طُلب حتى الآن
+     */
+    public void flush() throws IOException {
+        long target = submitted.get();
+        while (completed < target && writer.isAlive()) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("تمت مقاطعة انتظار الحفظ التزايدي", e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // ============ خيط الكتابة ============
+
+    private void writerLoop() {
+        while (running || !pending.isEmpty()) {
+            Job job;
+            try {
+                job = pending.poll(50, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (job == null) {
+                continue;
+            }
+
+            try {
+                write(job);
+            } catch (IOException | RuntimeException e) {
+                // يُبلَّغ عن الخطأ في checkpoint() التالي بدل أن يموت الخيط بصمت
+                failure = e instanceof IOException ? (IOException) e
+                                                   : new IOException("خطأ غير متوقع في خيط الحفظ التزايدي", e);
+                job.cells.release();
+                break;
+            } finally {
+                completed++;
+            }
+        }
+
+        if (previous != null) {
+            previous.release();
+            previous = null;
+        }
+        Job left;
+        while ((left = pending.poll()) != null) {
+            left.cells.release();
+        }
+    }
+
+    private void write(Job job) throws IOException {
+        sequence++;
+        boolean full = previous == null || deltasSinceBase >= compactEvery
+                || previous.getWidth() != job.cells.getWidth() || previous.getHeight() != job.cells.getHeight();
+
+        if (full) {
+            writeBase(job);
+            deltasSinceBase = 0;
+            compactions.incrementAndGet();
+            deleteOlderThan(sequence);
+        } else {
+            writeDelta(job);
+            deltasSinceBase++;
+        }
+
+        if (previous != null) {
+            previous.release();
+        }
+        previous = job.cells; // الإصدار الذي يُحسب منه الفرق القادم
+        checkpointsWritten.incrementAndGet();
+    }
+
+    private void writeBase(Job job) throws IOException {
+        List<House> houses = new ArrayList<>();
+        List<PowerSource> sources = new ArrayList<>();
+        SaveGame.readEntities(ByteBuffer.wrap(job.entities), houses, sources);
+
+        Path target = directory.resolve(BASE_PREFIX + sequence + BASE_SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try {
+            SaveGame.write(temp, job.cells, houses, sources, job.difficulty, job.stats);
+            lastDirtyChunks = job.cells.getChunkCount();
+            lastBytesWritten = Files.size(temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * صيغة الفرق: الترويسة (التوقيع، الإصدار، الأبعاد، الرقم، عدد القطع)،
+     * ثم لكل قطعة متغيرة [رقمها][طول الترميز][الترميز]، ثم الكيانات والعدادات كاملة
+     */
+    private void writeDelta(Job job) throws IOException {
+        ChunkedGrid cells = job.cells;
+        int dirty = 0;
+        for (int i = 0; i < cells.getChunkCount(); i++) {
+            if (!cells.sharesChunk(previous, i)) {
+                dirty++;
+            }
+        }
+
+        Path target = directory.resolve(DELTA_PREFIX + sequence + DELTA_SUFFIX);
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try {
+            writeDeltaFile(job, temp, dirty);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            buffer.clear();
+            throw e;
+        }
+        lastDirtyChunks = dirty;
+    }
+
+    private void writeDeltaFile(Job job, Path temp, int dirty) throws IOException {
+        ChunkedGrid cells = job.cells;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putInt(cells.getWidth());
+            buffer.putInt(cells.getHeight());
+            buffer.putLong(sequence);
+            buffer.putInt(dirty);
+
+            for (int i = 0; i < cells.getChunkCount(); i++) {
+                if (cells.sharesChunk(previous, i)) {
+                    continue;
+                }
+                int size = cells.chunkByteSize(i);
+                ensureCapacity(size);
+                previous.writeChunk(i, ByteBuffer.wrap(previousBytes, 0, size));
+                cells.writeChunk(i, ByteBuffer.wrap(currentBytes, 0, size));
+                int length = encodeXorRle(previousBytes, currentBytes, size, encoded);
+
+                if (buffer.remaining() < 2 * Integer.BYTES) {
+                    flush(channel);
+                }
+                buffer.putInt(i);
+                buffer.putInt(length);
+                int offset = 0;
+                while (offset < length) {
+                    if (!buffer.hasRemaining()) {
+                        flush(channel);
+                    }
+                    int n = Math.min(buffer.remaining(), length - offset);
+                    buffer.put(encoded, offset, n);
+                    offset += n;
+                }
+            }
+
+            flush(channel);
+            ByteBuffer entities = ByteBuffer.allocate(Integer.BYTES + job.entities.length);
+            entities.putInt(job.entities.length).put(job.entities).flip();
+            while (entities.hasRemaining()) {
+                channel.write(entities);
+            }
+            SaveGame.writeCounters(buffer, job.difficulty, job.stats);
+            flush(channel);
+            channel.force(false);
+            lastBytesWritten = channel.size();
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (currentBytes == null || currentBytes.length < size) {
+            previousBytes = new byte[size];
+            currentBytes = new byte[size];
+            encoded = new byte[maxEncodedSize(size)];
+        }
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ملفات .tmp باقية من كتابة لم تكتمل (انقطاع أو خطأ في جلسة سابقة)
+    private void deleteTemporaryFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TEMP_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(BASE_PREFIX) || name.startsWith(DELTA_PREFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private void deleteOlderThan(long baseSequence) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long fileSequence = parseSequence(name, BASE_PREFIX, BASE_SUFFIX);
+                if (fileSequence < 0) {
+                    fileSequence = parseSequence(name, DELTA_PREFIX, DELTA_SUFFIX);
+                }
+                if (fileSequence >= 0 && fileSequence < baseSequence) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    // ============ التحميل ============
+
+    /**
+     * تحميل آخر حالة محفوظة: آخر نسخة كاملة ثم كل الفروق المتتالية بعدها
+     */
+    public static SaveGame.Data load(Path directory) throws IOException {
+        long baseSequence = latestSequence(directory, BASE_PREFIX, BASE_SUFFIX);
+        if (baseSequence < 0) {
+            throw new IOException("لا توجد نسخة كاملة في " + directory);
+        }
+
+        SaveGame.Data data = SaveGame.load(directory.resolve(BASE_PREFIX + baseSequence + BASE_SUFFIX));
+        ChunkedGrid cells = data.getCells();
+        List<House> houses = data.getHouses();
+        List<PowerSource> sources = data.getPowerSources();
+        GameManager.Difficulty difficulty = data.getDifficulty();
+        GameStats stats = data.getStats();
+
+        byte[] chunkBytes = new byte[ChunkedGrid.CHUNK_SIZE * ChunkedGrid.CHUNK_SIZE * ChunkedGrid.BYTES_PER_CELL];
+        for (long seq = baseSequence + 1; ; seq++) {
+            Path delta = directory.resolve(DELTA_PREFIX + seq + DELTA_SUFFIX);
+            if (!Files.exists(delta)) {
+                break;
+            }
+
+            try (FileChannel channel = FileChannel.open(delta, StandardOpenOption.READ)) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (in.getInt() != MAGIC) {
+                    throw new IOException("ليس ملف فرق Power Grid: " + delta);
+                }
+                short version = in.getShort();
+                if (version != VERSION) {
+                    throw new IOException("إصدار ملف الفرق غير مدعوم: " + version);
+                }
+                in.getShort();
+                if (in.getInt() != cells.getWidth() || in.getInt() != cells.getHeight()) {
+                    throw new IOException("أبعاد ملف الفرق لا تطابق النسخة الكاملة: " + delta);
+                }
+                in.getLong();
+
+                int dirty = in.getInt();
+                for (int d = 0; d < dirty; d++) {
+                    int index = in.getInt();
+                    int length = in.getInt();
+                    int size = cells.chunkByteSize(index);
+                    cells.writeChunk(index, ByteBuffer.wrap(chunkBytes, 0, size));
+                    decodeXorRle(in, length, chunkBytes);
+                    cells.readChunk(index, ByteBuffer.wrap(chunkBytes, 0, size));
+                }
+
+                int entitiesLength = in.getInt();
+                int entitiesEnd = in.position() + entitiesLength;
+                houses = new ArrayList<>();
+                sources = new ArrayList<>();
+                SaveGame.readEntities(in, houses, sources);
+                in.position(entitiesEnd);
+                difficulty = SaveGame.readDifficulty(in);
+                stats = SaveGame.readCounters(in);
+            }
+        }
+
+        return new SaveGame.Data(cells, houses, sources, difficulty, stats);
+    }
+
+    // ============ ترميز XOR + RLE ============
+
+    // أسوأ حالة: بايت مختلف وبايت مطابق بالتناوب = 3 بايت لكل بايتين
+    static int maxEncodedSize(int size) {
+        return size + size / 2 + 16;
+    }
+
+    /**
+     * ترميز الفرق كأزواج [طول الأصفار][طول البايتات الحرفية][البايتات] بأعداد متغيرة الطول
+     * حيث الصفر يعني بايتاً لم يتغير
+     * @return طول الترميز
+     */
+    static int encodeXorRle(byte[] before, byte[] after, int size, byte[] out) {
+        int o = 0;
+        int i = 0;
+        while (i < size) {
+            int zeroStart = i;
+            while (i < size && before[i] == after[i]) {
+                i++;
+            }
+            int literalStart = i;
+            // تُقطع البايتات الحرفية عند صفرين متتاليين على الأقل حتى لا يزيد الترميز
+            while (i < size && (before[i] != after[i]
+                    || (i + 1 < size && before[i + 1] != after[i + 1]))) {
+                i++;
+            }
+            o = putVarInt(out, o, literalStart - zeroStart);
+            o = putVarInt(out, o, i - literalStart);
+            for (int k = literalStart; k < i; k++) {
+                out[o++] = (byte) (before[k] ^ after[k]);
+            }
+        }
+        return o;
+    }
+
+    /**
+     * تطبيق ترميز على مصفوفة الإصدار السابق لتصبح الإصدار الجديد
+     */
+    static void decodeXorRle(ByteBuffer in, int length, byte[] target) {
+        int end = in.position() + length;
+        int i = 0;
+        while (in.position() < end) {
+            i += getVarInt(in);
+            int literals = getVarInt(in);
+            for (int k = 0; k < literals; k++) {
+                target[i++] ^= in.get();
+            }
+        }
+    }
+
+    private static int putVarInt(byte[] out, int o, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[o++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[o++] = (byte) value;
+        return o;
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    // ============ أدوات ============
+
+    private static long latestSequence(Path directory, String prefix, String suffix) throws IOException {
+        long latest = -1;
+        if (!Files.isDirectory(directory)) {
+            return latest;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                latest = Math.max(latest, parseSequence(file.getFileName().toString(), prefix, suffix));
+            }
+        }
+        return latest;
+    }
+
+    private static long parseSequence(String name, String prefix, String suffix) {
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // ============ دوال الوصول ============
+
+    public Path getDirectory() { return directory; }
+    public long getCheckpointsWritten() { return checkpointsWritten.get(); }
+    public long getCheckpointsSkipped() { return checkpointsSkipped.get(); }
+    public long getCompactions() { return compactions.get(); }
+    public long getLastBytesWritten() { return lastBytesWritten; }
+    public int getLastDirtyChunks() { return lastDirtyChunks; }
+}
@@ -0,0 +1,209 @@
+package powergrid.storage;
+
+import powergrid.manager.GameManager;
+import powergrid.manager.GameStats;
+import powergrid.model.Cell;
+import powergrid.model.ChunkedGrid;
+import powergrid.utils.Constants;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * إعادة بناء حالة اللعبة في أي يوم من مجلد تسجيل:
+ * journal.pgj (سجل الأحداث) ونسخ دورية باسم snapshot-<اليوم>-<موقع السجل>.pgs
+ *
+ * الإعادة تحمل أقرب نسخة قبل اليوم المطلوب ثم تطبق الأحداث من موقعها في السجل مباشرة
+ * على مخزن الخلايا والعدادات، بدون تشغيل منطق اللعبة (نتائج الزلازل مسجلة كحالة خلايا كاملة)
+ */
+public class ReplayEngine {
+    public static final String JOURNAL_FILE = "journal.pgj";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".pgs";
+
+    private final Path directory;
+    private long lastEventCount;
+    private long lastReplayNanos;
+    private long lastSeed;
+    private int lastBudgetChange;
+
+    public ReplayEngine(Path directory) {
+        this.directory = directory;
+    }
+
+    // ============ التسجيل ============
+
+    /**
+     * بدء تسجيل لعبة: فتح السجل، وحفظ نسخة أولى، وربط السجل بـ GameManager
+     * يجب استدعاؤها من خيط المحاكاة
+     */
+    public EventJournal startRecording(GameManager gameManager) throws IOException {
+        Files.createDirectories(directory);
+        EventJournal journal = new EventJournal(directory.resolve(JOURNAL_FILE));
+        checkpoint(gameManager, journal);
+        gameManager.setRecorder(journal);
+        return journal;
+    }
+
+    /**
+     * حفظ نسخة مربوطة بالموقع الحالي في السجل - من خيط المحاكاة بين الأيام
+     * كلما قربت النسخ من بعضها قلت الأحداث التي تُعاد
+     */
+    public void checkpoint(GameManager gameManager, EventJournal journal) throws IOException {
+        int day = gameManager.getDay();
+        long offset = journal.position();
+        SaveGame.save(directory.resolve(SNAPSHOT_PREFIX + day + "-" + offset + SNAPSHOT_SUFFIX), gameManager);
+    }
+
+    // ============ الإعادة ============
+
+    /**
+     * بناء الحالة كما كانت في نهاية اليوم المحدد
+     */
+    public SaveGame.Data replayTo(int targetDay) throws IOException {
+        // أقرب نسخة لا تتجاوز اليوم المطلوب
+        Path bestSnapshot = null;
+        int bestDay = -1;
+        long bestOffset = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String[] parts = name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length()).split("-");
+                if (parts.length != 2) {
+                    continue;
+                }
+                int day = Integer.parseInt(parts[0]);
+                long offset = Long.parseLong(parts[1]);
+                if (day <= targetDay && (day > bestDay || (day == bestDay && offset > bestOffset))) {
+                    bestSnapshot = file;
+                    bestDay = day;
+                    bestOffset = offset;
+                }
+            }
+        }
+        if (bestSnapshot == null) {
+            throw new IOException("لا توجد نسخة محفوظة قبل اليوم " + targetDay + " في " + directory);
+        }
+
+        SaveGame.Data base = SaveGame.load(bestSnapshot);
+        long start = System.nanoTime();
+        long events = 0;
+
+        ChunkedGrid cells = base.getCells();
+        GameStats stats = base.getStats();
+        int money = stats.getMoney();
+        int day = stats.getDay();
+        int earthquakes = stats.getEarthquakesTriggered();
+        int damageCost = stats.getTotalDamageCost();
+        int repairs = stats.getRepairsCompleted();
+        int budgetChange = 0;
+
+        try (EventJournal.Reader reader = new EventJournal.Reader(directory.resolve(JOURNAL_FILE))) {
+            reader.seek(bestOffset);
+            replay:
+            while (reader.next()) {
+                switch (reader.type()) {
+                    case EventJournal.DAY: {
+                        int nextDay = reader.readInt();
+                        if (nextDay > targetDay) {
+                            break replay;
+                        }
+                        day = nextDay;
+                        break;
+                    }
+                    case EventJournal.PLACE_WIRE:
+                        place(cells, reader.readInt(), reader.readInt(), Constants.WIRE);
+                        break;
+                    case EventJournal.PLACE_TRANSFORMER:
+                        place(cells, reader.readInt(), reader.readInt(), Constants.TRANSFORMER);
+                        break;
+                    case EventJournal.EARTHQUAKE:
+                        earthquakes++;
+                        break;
+                    case EventJournal.CELL_STATE:
+                        damageCost += applyCellState(cells, reader);
+                        break;
+                    case EventJournal.REPAIR: {
+                        int x = reader.readInt();
+                        int y = reader.readInt();
+                        Cell.view(cells, x, y).repair();
+                        repairs++;
+                        break;
+                    }
+                    case EventJournal.MONEY:
+                        money += reader.readInt();
+                        break;
+                    case EventJournal.BUDGET:
+                        // ميزانية GameEngine ليست جزءاً من مال GameManager أو ملف الحفظ
+                        budgetChange += reader.readInt();
+                        break;
+                    case EventJournal.SEED:
+                        lastSeed = reader.readLong();
+                        break;
+                    default:
+                        // نوع من إصدار أحدث - الطول يسمح بتجاوزه
+                        break;
+                }
+                events++;
+            }
+        }
+
+        lastEventCount = events;
+        lastBudgetChange = budgetChange;
+        lastReplayNanos = System.nanoTime() - start;
+
+        // العدادات المشتقة (الطاقة والنقاط) تُحسب من جديد في اليوم التالي بعد apply
+        GameStats replayed = new GameStats(stats.getScore(), money, day, stats.isGameRunning(), stats.isGamePaused(),
+                                           stats.getPowerDemand(), stats.getPowerSupply(),
+                                           stats.getSatisfiedHouses(), stats.getTotalHouses(),
+                                           stats.getRepairCrews(), earthquakes, damageCost, repairs,
+                                           stats.getHousesPowered(), stats.getFactoriesPowered());
+        return new SaveGame.Data(cells, base.getHouses(), base.getPowerSources(), base.getDifficulty(), replayed);
+    }
+
+    private static void place(ChunkedGrid cells, int x, int y, int type) {
+        Cell.view(cells, x, y).setType(type);
+    }
+
+    /**
+     * كتابة الحالة الكاملة المسجلة للخلية
+     * @return تكلفة الضرر كما يحسبها GameManager عند الإبلاغ عن التلف
+     */
+    private static int applyCellState(ChunkedGrid cells, EventJournal.Reader reader) {
+        int x = reader.readInt();
+        int y = reader.readInt();
+        int type = reader.readByte();
+        int damageLevel = reader.readByte();
+        int flags = reader.readByte();
+        boolean damaged = (flags & EventJournal.CELL_DAMAGED) != 0;
+        cells.setType(x, y, type);
+        cells.setDamageLevel(x, y, damageLevel);
+        cells.setPowered(x, y, (flags & EventJournal.CELL_POWERED) != 0);
+        cells.setDamaged(x, y, damaged);
+        cells.setResistance(x, y, reader.readInt());
+        cells.setPopulation(x, y, reader.readInt());
+        cells.setProduction(x, y, reader.readInt());
+        cells.setOutputPower(x, y, reader.readInt());
+        cells.setEffectDuration(x, y, reader.readInt());
+        return damaged ? damageLevel * 100 : 0;
+    }
+
+    // ============ دوال الوصول ============
+
+    public Path getDirectory() { return directory; }
+    public long getLastEventCount() { return lastEventCount; }
+    public long getLastSeed() { return lastSeed; }
+
+    /**
+     * مجموع تغيرات ميزانية GameEngine في آخر إعادة (منذ النسخة المستخدمة)
+     */
+    public int getLastBudgetChange() { return lastBudgetChange; }
+
+    /**
+     * عدد الأحداث في الثانية في آخر إعادة (بدون وقت تحميل النسخة)
+     */
+    public double getLastEventsPerSecond() {
+        return lastReplayNanos == 0 ? 0 : lastEventCount * 1_000_000_000.0 / lastReplayNanos;
+    }
+}
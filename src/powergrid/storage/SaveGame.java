@@ -0,0 +1,397 @@
+package powergrid.storage;
+
+import powergrid.manager.GameManager;
+import powergrid.manager.GameStats;
+import powergrid.model.ChunkedGrid;
+import powergrid.model.Grid;
+import powergrid.model.House;
+import powergrid.model.PowerSource;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * صيغة الحفظ الثنائية
+ *
+ * الترويسة (64 بايت): التوقيع، الإصدار، الأبعاد، حجم القطعة، ومواقع الأقسام
+ * قسم الخلايا: القطع بترتيبها، كل قطعة بصيغة ChunkedGrid.writeChunk (نوع وتلف معبأين، ثم الحالة والخصائص)
+ * قسم الكيانات: المنازل ثم مصادر الطاقة
+ * قسم العدادات: مستوى الصعوبة وعدادات GameManager
+ *
+ * الحفظ يكتب مباشرة من القطع إلى الملف بدون بناء كائنات وسيطة،
+ * والتحميل يربط الملف بالذاكرة (FileChannel.map) وينسخ القطع منه دفعة واحدة
+ */
+public final class SaveGame {
+    public static final int MAGIC = 0x50475356; // "PGSV"
+    public static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    private static final int BUFFER_SIZE = 128 * 1024;
+    static final String TEMP_SUFFIX = ".tmp";
+    private static final int MAX_STRING_BYTES = 0xFFFF; // الطول يُكتب في short بلا إشارة
+
+    /**
+     * محتوى ملف حفظ بعد التحميل
+     */
+    public static final class Data {
+        private final ChunkedGrid cells;
+        private final List<House> houses;
+        private final List<PowerSource> powerSources;
+        private final GameManager.Difficulty difficulty;
+        private final GameStats stats;
+
+        Data(ChunkedGrid cells, List<House> houses, List<PowerSource> powerSources,
+             GameManager.Difficulty difficulty, GameStats stats) {
+            this.cells = cells;
+            this.houses = houses;
+            this.powerSources = powerSources;
+            this.difficulty = difficulty;
+            this.stats = stats;
+        }
+
+        public ChunkedGrid getCells() { return cells; }
+        public List<House> getHouses() { return houses; }
+        public List<PowerSource> getPowerSources() { return powerSources; }
+        public GameManager.Difficulty getDifficulty() { return difficulty; }
+        public GameStats getStats() { return stats; }
+    }
+
+    private SaveGame() {
+    }
+
+    // ============ الحفظ ============
+
+    /**
+     * حفظ اللعبة - يجب استدعاؤها من خيط المحاكاة (مثلاً داخل GameManager.execute)
+     */
+    public static void save(Path path, GameManager gameManager) throws IOException {
+        Grid grid = gameManager.getGrid();
+        ChunkedGrid cells = grid.snapshotCells();
+        try {
+            save(path, cells, grid.getHouses(), grid.getPowerSources(),
+                 gameManager.getDifficulty(), gameManager.getStats());
+        } finally {
+            cells.release();
+        }
+    }
+
+    /**
+     * حفظ من مكونات جاهزة - الخلايا يمكن أن تكون نسخة (COW) فيمكن الاستدعاء من خيط آخر
+     * الكتابة في ملف .tmp بجانب الهدف ثم نقله دفعة واحدة، فالحفظ السابق يبقى سليماً إذا فشلت الكتابة
+     */
+    public static void save(Path path, ChunkedGrid cells, List<House> houses, List<PowerSource> powerSources,
+                            GameManager.Difficulty difficulty, GameStats stats) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try {
+            write(temp, cells, houses, powerSources, difficulty, stats);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * كتابة الملف مباشرة في المسار المعطى - المستدعي مسؤول عن النقل الذري
+     */
+    static void write(Path path, ChunkedGrid cells, List<House> houses, List<PowerSource> powerSources,
+                      GameManager.Difficulty difficulty, GameStats stats) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+            // القطع
+            channel.position(HEADER_SIZE);
+            writeCells(channel, buffer, cells);
+            long entitiesOffset = channel.position();
+
+            // الكيانات
+            buffer.putInt(houses.size());
+            for (House house : houses) {
+                ensureSpace(channel, buffer, houseByteSize(house));
+                putHouse(buffer, house);
+            }
+            ensureSpace(channel, buffer, Integer.BYTES);
+            buffer.putInt(powerSources.size());
+            for (PowerSource source : powerSources) {
+                ensureSpace(channel, buffer, sourceByteSize(source));
+                putSource(buffer, source);
+            }
+            flush(channel, buffer);
+            long countersOffset = channel.position();
+
+            // العدادات
+            writeCounters(buffer, difficulty, stats);
+            flush(channel, buffer);
+
+            // الترويسة في النهاية بعد معرفة مواقع الأقسام
+            buffer.putInt(MAGIC);
+            buffer.putShort(VERSION);
+            buffer.putShort((short) 0);
+            buffer.putInt(cells.getWidth());
+            buffer.putInt(cells.getHeight());
+            buffer.putInt(ChunkedGrid.CHUNK_SIZE);
+            buffer.putLong(HEADER_SIZE);
+            buffer.putLong(entitiesOffset);
+            buffer.putLong(countersOffset);
+            while (buffer.position() < HEADER_SIZE) {
+                buffer.put((byte) 0);
+            }
+            buffer.flip();
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+            channel.force(false);
+        }
+    }
+
+    static void writeCells(FileChannel channel, ByteBuffer buffer, ChunkedGrid cells) throws IOException {
+        for (int i = 0; i < cells.getChunkCount(); i++) {
+            ensureSpace(channel, buffer, cells.chunkByteSize(i));
+            cells.writeChunk(i, buffer);
+        }
+        flush(channel, buffer);
+    }
+
+    static void writeCounters(ByteBuffer buffer, GameManager.Difficulty difficulty, GameStats stats) {
+        buffer.putInt(difficulty.ordinal());
+        buffer.putInt(stats.getScore());
+        buffer.putInt(stats.getMoney());
+        buffer.putInt(stats.getDay());
+        buffer.put((byte) (stats.isGameRunning() ? 1 : 0));
+        buffer.put((byte) (stats.isGamePaused() ? 1 : 0));
+        buffer.putInt(stats.getPowerDemand());
+        buffer.putInt(stats.getPowerSupply());
+        buffer.putInt(stats.getSatisfiedHouses());
+        buffer.putInt(stats.getTotalHouses());
+        buffer.putInt(stats.getRepairCrews());
+        buffer.putInt(stats.getEarthquakesTriggered());
+        buffer.putInt(stats.getTotalDamageCost());
+        buffer.putInt(stats.getRepairsCompleted());
+        buffer.putInt(stats.getHousesPowered());
+        buffer.putInt(stats.getFactoriesPowered());
+    }
+
+    // ============ التحميل ============
+
+    public static Data load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("ملف الحفظ أكبر من الحد المدعوم: " + size);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            // الترويسة
+            if (size < HEADER_SIZE || in.getInt() != MAGIC) {
+                throw new IOException("ليس ملف حفظ Power Grid: " + path);
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new IOException("إصدار ملف الحفظ غير مدعوم: " + version);
+            }
+            in.getShort();
+            int width = in.getInt();
+            int height = in.getInt();
+            int chunkSize = in.getInt();
+            long cellsOffset = in.getLong();
+            long entitiesOffset = in.getLong();
+            long countersOffset = in.getLong();
+            if (chunkSize != ChunkedGrid.CHUNK_SIZE) {
+                throw new IOException("حجم القطعة غير مدعوم: " + chunkSize);
+            }
+            // الأبعاد والمواقع يجب أن تطابق حجم الملف قبل حجز أي شيء
+            if (width <= 0 || height <= 0 || (long) width * height > size / ChunkedGrid.BYTES_PER_CELL
+                    || cellsOffset < HEADER_SIZE || cellsOffset > size
+                    || entitiesOffset < cellsOffset + (long) width * height * ChunkedGrid.BYTES_PER_CELL
+                    || countersOffset < entitiesOffset || countersOffset > size) {
+                throw new IOException("ملف الحفظ تالف: ترويسة لا تطابق حجم الملف (" + width + "x" + height
+                                      + "، " + size + " بايت): " + path);
+            }
+
+            try {
+                // القطع
+                ChunkedGrid cells = new ChunkedGrid(width, height);
+                in.position((int) cellsOffset);
+                readCells(in, cells);
+
+                // الكيانات
+                in.position((int) entitiesOffset);
+                List<House> houses = new ArrayList<>();
+                List<PowerSource> sources = new ArrayList<>();
+                readEntities(in, houses, sources);
+
+                // العدادات
+                in.position((int) countersOffset);
+                GameManager.Difficulty difficulty = readDifficulty(in);
+                GameStats stats = readCounters(in);
+
+                return new Data(cells, houses, sources, difficulty, stats);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("ملف الحفظ تالف: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * ترميز الكيانات في مصفوفة مستقلة - يُستدعى من خيط المحاكاة قبل تمرير الحفظ لخيط آخر
+     */
+    static byte[] encodeEntities(List<House> houses, List<PowerSource> powerSources) {
+        int size = 2 * Integer.BYTES;
+        for (House house : houses) {
+            size += houseByteSize(house);
+        }
+        for (PowerSource source : powerSources) {
+            size += sourceByteSize(source);
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(houses.size());
+        for (House house : houses) {
+            putHouse(out, house);
+        }
+        out.putInt(powerSources.size());
+        for (PowerSource source : powerSources) {
+            putSource(out, source);
+        }
+        return Arrays.copyOf(out.array(), out.position());
+    }
+
+    static void readEntities(ByteBuffer in, List<House> houses, List<PowerSource> sources) {
+        int houseCount = in.getInt();
+        for (int i = 0; i < houseCount; i++) {
+            int x = in.getInt();
+            int y = in.getInt();
+            boolean powered = in.get() != 0;
+            int powerLevel = in.getInt();
+            House house = new House(x, y, getString(in));
+            house.setPowerLevel(powerLevel);
+            if (house.isPowered() != powered) {
+                house.setPowered(powered);
+            }
+            houses.add(house);
+        }
+        int sourceCount = in.getInt();
+        for (int i = 0; i < sourceCount; i++) {
+            int x = in.getInt();
+            int y = in.getInt();
+            int powerOutput = in.getInt();
+            int maxCapacity = in.getInt();
+            int currentLoad = in.getInt();
+            boolean active = in.get() != 0;
+            PowerSource source = new PowerSource(x, y, maxCapacity, getString(in));
+            source.setPowerOutput(powerOutput);
+            source.addLoad(currentLoad);
+            source.setActive(active);
+            sources.add(source);
+        }
+    }
+
+    static void readCells(ByteBuffer in, ChunkedGrid cells) {
+        for (int i = 0; i < cells.getChunkCount(); i++) {
+            cells.readChunk(i, in);
+        }
+    }
+
+    static GameManager.Difficulty readDifficulty(ByteBuffer in) throws IOException {
+        int ordinal = in.getInt();
+        GameManager.Difficulty[] values = GameManager.Difficulty.values();
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("مستوى صعوبة غير صالح في ملف الحفظ: " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    static GameStats readCounters(ByteBuffer in) {
+        int score = in.getInt();
+        int money = in.getInt();
+        int day = in.getInt();
+        boolean running = in.get() != 0;
+        boolean paused = in.get() != 0;
+        return new GameStats(score, money, day, running, paused,
+                             in.getInt(), in.getInt(), in.getInt(), in.getInt(),
+                             in.getInt(), in.getInt(), in.getInt(),
+                             in.getInt(), in.getInt(), in.getInt());
+    }
+
+    /**
+     * تطبيق ملف محمل على لعبة قائمة بنفس أبعاد الشبكة - على خيط المحاكاة
+     */
+    public static void apply(Data data, GameManager gameManager) {
+        Grid grid = gameManager.getGrid();
+        grid.restoreCells(data.cells);
+        grid.getHouses().clear();
+        grid.getHouses().addAll(data.houses);
+        grid.getPowerSources().clear();
+        grid.getPowerSources().addAll(data.powerSources);
+        gameManager.restoreState(data.difficulty, data.stats);
+    }
+
+    // ============ أدوات ============
+
+    private static void ensureSpace(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static int houseByteSize(House house) {
+        return 64 + house.getOwnerName().length() * 4;
+    }
+
+    private static int sourceByteSize(PowerSource source) {
+        return 64 + source.getSourceType().length() * 4;
+    }
+
+    private static void putHouse(ByteBuffer buffer, House house) {
+        buffer.putInt(house.getX());
+        buffer.putInt(house.getY());
+        buffer.put((byte) (house.isPowered() ? 1 : 0));
+        buffer.putInt(house.getPowerLevel());
+        putString(buffer, house.getOwnerName());
+    }
+
+    private static void putSource(ByteBuffer buffer, PowerSource source) {
+        buffer.putInt(source.getX());
+        buffer.putInt(source.getY());
+        buffer.putInt(source.getPowerOutput());
+        buffer.putInt(source.getMaxCapacity());
+        buffer.putInt(source.getCurrentLoad());
+        buffer.put((byte) (source.isActive() ? 1 : 0));
+        putString(buffer, source.getSourceType());
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("نص أطول من " + MAX_STRING_BYTES + " بايت لا يُحفظ: "
+                                               + value.substring(0, 32) + "...");
+        }
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
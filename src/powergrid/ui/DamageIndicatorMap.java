@@ -0,0 +1,97 @@
+package powergrid.ui;
+
+import powergrid.model.GridSnapshot;
+import java.util.Arrays;
+
+/**
+ * خريطة مؤشرات التلف مفهرسة برقم الخلية (y * width + x)
+ * تحفظ المؤشرات النشطة في مصفوفات متراصة، فيكون المرور عليها بعدد المؤشرات النشطة
+ * وليس بحجم الشبكة، وبدون إنشاء مفاتيح Point
+ */
+public class DamageIndicatorMap {
+    private final int width;
+    private final int[] slotOfCell;   // رقم الخانة لكل خلية أو -1
+    private final int[] cellOfSlot;   // رقم الخلية لكل خانة نشطة
+    private final int[] damageLevels;
+    private final long[] startTimes;
+    private int size;
+
+    DamageIndicatorMap(int width, int height) {
+        this.width = width;
+        this.slotOfCell = new int[width * height];
+        this.cellOfSlot = new int[width * height];
+        this.damageLevels = new int[width * height];
+        this.startTimes = new long[width * height];
+        Arrays.fill(slotOfCell, -1);
+        this.size = 0;
+    }
+
+    /**
+     * إضافة مؤشر أو تحديث مؤشر موجود
+     * @return true إذا كان المؤشر جديداً
+     */
+    boolean put(int x, int y, int damageLevel, long now) {
+        int cell = y * width + x;
+        int slot = slotOfCell[cell];
+        boolean added = slot < 0;
+        if (added) {
+            slot = size++;
+            slotOfCell[cell] = slot;
+            cellOfSlot[slot] = cell;
+        }
+        damageLevels[slot] = damageLevel;
+        startTimes[slot] = now;
+        return added;
+    }
+
+    void remove(int x, int y) {
+        int cell = y * width + x;
+        int slot = slotOfCell[cell];
+        if (slot >= 0) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * مراجعة المؤشرات الأقدم من المدة المحددة: تُجدد إذا كانت الخلية ما زالت تالفة وإلا تُزال
+     * (احتياط للخلايا التي تعافت بدون حدث إصلاح)
+     */
+    void expire(long now, long maxAge, GridSnapshot snapshot) {
+        for (int slot = size - 1; slot >= 0; slot--) {
+            if (now - startTimes[slot] <= maxAge) {
+                continue;
+            }
+            int x = getX(slot), y = getY(slot);
+            if (snapshot.isDamaged(x, y)) {
+                damageLevels[slot] = snapshot.getDamageLevel(x, y);
+                startTimes[slot] = now;
+            } else {
+                removeSlot(slot);
+            }
+        }
+    }
+
+    // نقل آخر خانة مكان الخانة المحذوفة للحفاظ على التراص
+    private void removeSlot(int slot) {
+        slotOfCell[cellOfSlot[slot]] = -1;
+        int last = --size;
+        if (slot != last) {
+            cellOfSlot[slot] = cellOfSlot[last];
+            damageLevels[slot] = damageLevels[last];
+            startTimes[slot] = startTimes[last];
+            slotOfCell[cellOfSlot[slot]] = slot;
+        }
+    }
+
+    void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            slotOfCell[cellOfSlot[slot]] = -1;
+        }
+        size = 0;
+    }
+
+    int size() { return size; }
+    int getX(int slot) { return cellOfSlot[slot] % width; }
+    int getY(int slot) { return cellOfSlot[slot] / width; }
+    int getDamageLevel(int slot) { return damageLevels[slot]; }
+}
@@ -0,0 +1,15 @@
+package powergrid.ui;
+
+import java.awt.Color;
+
+/**
+ * ألوان التأثيرات في الواجهة - منفصلة عن Constants حتى لا تعتمد المحاكاة على AWT
+ */
+public final class EffectColors {
+    public static final Color EARTHQUAKE_COLOR = new Color(255, 100, 100, 150);
+    public static final Color DAMAGE_COLOR = new Color(255, 0, 0, 100);
+    public static final Color REPAIR_COLOR = new Color(0, 255, 0, 100);
+
+    private EffectColors() {
+    }
+}
@@ -1,23 +1,30 @@
 package powergrid.ui;
 
 import powergrid.model.*;
+import powergrid.manager.EffectListener;
 import powergrid.manager.EffectManager;
+import powergrid.manager.GameManager;
+import powergrid.metrics.EngineMetrics;
+import powergrid.metrics.MetricsRegistry;
 import powergrid.utils.Constants;
 import javax.swing.*;
+import javax.swing.Timer;
 import java.awt.*;
+import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
 
 public class GameCanvas extends JPanel {
-    private Grid grid;
+    private GameManager gameManager;
     private EffectManager effectManager;
+    private int gridWidth, gridHeight;
     private String selectionMode;
     private int selectionValue;
     private Point earthquakeEpicenter;
-    private List<VisualEffect> visualEffects;
-    private Map<Point, DamageIndicator> damageIndicators;
+    private VisualEffectPool visualEffects;
+    private DamageIndicatorMap damageIndicators;
     private long lastUpdateTime;
     private BufferedImage gridTexture;
     private boolean texturesInitialized = false;
@@ -39,65 +46,27 @@ public class GameCanvas extends JPanel {
     private final Color CRACK_COLOR = new Color(160, 82, 45);
     private final Color BROKEN_WIRE_COLOR = new Color(128, 0, 0);
     
-    // تأثيرات بصرية
-    private class VisualEffect {
-        int x, y;
-        String type;
-        long startTime;
-        int duration;
-        float intensity;
-        Color color;
-        
-        VisualEffect(int x, int y, String type, int duration, float intensity, Color color) {
-            this.x = x;
-            this.y = y;
-            this.type = type;
-            this.startTime = System.currentTimeMillis();
-            this.duration = duration;
-            this.intensity = intensity;
-            this.color = color;
-        }
-        
-        boolean isActive() {
-            return System.currentTimeMillis() - startTime < duration;
-        }
-        
-        float getProgress() {
-            long elapsed = System.currentTimeMillis() - startTime;
-            return Math.min(1.0f, (float)elapsed / duration);
-        }
-    }
-    
-    // مؤشرات التلف
-    private class DamageIndicator {
-        int x, y;
-        int damageLevel;
-        long startTime;
-        boolean visible;
-        
-        DamageIndicator(int x, int y, int damageLevel) {
-            this.x = x;
-            this.y = y;
-            this.damageLevel = damageLevel;
-            this.startTime = System.currentTimeMillis();
-            this.visible = true;
-        }
-        
-        void update() {
-            if (System.currentTimeMillis() - startTime > 10000) {
-                visible = false;
-            }
-        }
-    }
+    // موارد رسم التأثيرات - تُنشأ مرة واحدة لتجنب التخصيص في كل إطار
+    private static final int MAX_VISUAL_EFFECTS = 4096;
+    private static final BasicStroke EFFECT_STROKE = new BasicStroke(2);
+    private static final Font FLASH_FONT = new Font("Arial", Font.BOLD, 28);
+    private static final Font INDICATOR_FONT = new Font("Arial", Font.BOLD, 11);
+    private static final long DAMAGE_INDICATOR_LIFETIME = 10000;
     
-    public GameCanvas(Grid grid, EffectManager effectManager) {
-        this.grid = grid;
-        this.effectManager = effectManager;
+    public GameCanvas(GameManager gameManager) {
+        this.gameManager = gameManager;
+        this.effectManager = gameManager.getEffectManager();
+        this.gridWidth = gameManager.getGridSnapshot().getWidth();
+        this.gridHeight = gameManager.getGridSnapshot().getHeight();
         this.selectionMode = null;
-        this.visualEffects = new ArrayList<>();
-        this.damageIndicators = new HashMap<>();
+        this.visualEffects = new VisualEffectPool(MAX_VISUAL_EFFECTS);
+        this.damageIndicators = new DamageIndicatorMap(gridWidth, gridHeight);
         this.lastUpdateTime = System.currentTimeMillis();
         
+        // مؤشرات التلف تأتي من أحداث مدير التأثيرات بدلاً من فحص الشبكة كل إطار
+        // (عبر ناقل الأحداث على خيط خاص، لا على خيط المحاكاة)
+        gameManager.subscribe("canvas", new DamageEventListener(), null);
+        
         setPreferredSize(new Dimension(1000, 700));
         setBackground(GRID_BG);
         
@@ -143,57 +112,43 @@ public class GameCanvas extends JPanel {
         lastUpdateTime = currentTime;
         
         // تحديث التأثيرات البصرية
-        visualEffects.removeIf(effect -> !effect.isActive());
-        
-        // تحديث مؤشرات التلف
-        damageIndicators.values().forEach(DamageIndicator::update);
-        damageIndicators.entrySet().removeIf(entry -> !entry.getValue().visible);
-        
-        // تحديث الخلايا
-        for (int x = 0; x < grid.getWidth(); x++) {
-            for (int y = 0; y < grid.getHeight(); y++) {
-                Cell cell = grid.getCell(x, y);
-                if (cell != null && cell.isDamaged()) {
-                    Point key = new Point(x, y);
-                    if (!damageIndicators.containsKey(key)) {
-                        damageIndicators.put(key, new DamageIndicator(x, y, cell.getDamageLevel()));
-                        addVisualEffect(x, y, "damage", 1500, 1.0f, new Color(255, 50, 50, 150));
-                    }
-                }
-            }
-        }
+        visualEffects.update(currentTime);
+        
+        // تحديث مؤشرات التلف - بعدد المؤشرات النشطة فقط، والمؤشر يبقى ما دامت الخلية تالفة
+        damageIndicators.expire(currentTime, DAMAGE_INDICATOR_LIFETIME, gameManager.getGridSnapshot());
+    }
+    
+    public void addVisualEffect(int x, int y, VisualEffectPool.Type type, int duration, float intensity) {
+        addVisualEffect(x, y, type, 0, duration, intensity);
     }
     
-    public void addVisualEffect(int x, int y, String type, int duration, float intensity, Color color) {
-        visualEffects.add(new VisualEffect(x, y, type, duration, intensity, color));
+    private void addVisualEffect(int x, int y, VisualEffectPool.Type type, int delay, int duration, float intensity) {
+        visualEffects.add(x, y, type, System.currentTimeMillis() + delay, duration, intensity);
     }
     
     public void triggerEarthquakeVisual(int epicenterX, int epicenterY, int magnitude) {
         this.earthquakeEpicenter = new Point(epicenterX, epicenterY);
         
         // تأثير اهتزاز الشاشة
-        addVisualEffect(epicenterX, epicenterY, "earthquake_shake", 3000, magnitude / 10.0f, new Color(255, 100, 100, 150));
+        addVisualEffect(epicenterX, epicenterY, VisualEffectPool.Type.EARTHQUAKE_SHAKE, 3000, magnitude / 10.0f);
         
-        // موجات الصدمة
+        // موجات الصدمة - كل موجة تبدأ متأخرة 80ms عن سابقتها بدل مؤقت منفصل لكل موجة
         for (int i = 1; i <= magnitude * 2; i++) {
-            final int radius = i;
-            Timer timer = new Timer(i * 80, e -> addShockwave(epicenterX, epicenterY, radius, magnitude));
-            timer.setRepeats(false);
-            timer.start();
+            addShockwave(epicenterX, epicenterY, i, i * 80);
         }
         
         repaint();
     }
     
-    private void addShockwave(int centerX, int centerY, int radius, int magnitude) {
+    private void addShockwave(int centerX, int centerY, int radius, int delay) {
         int points = radius * 12;
         for (int i = 0; i < points; i++) {
             double angle = 2 * Math.PI * i / points;
             int x = (int)(centerX + radius * Math.cos(angle));
             int y = (int)(centerY + radius * Math.sin(angle));
             
-            if (x >= 0 && x < grid.getWidth() && y >= 0 && y < grid.getHeight()) {
-                addVisualEffect(x, y, "shockwave", 600, 0.7f, new Color(255, 200, 0, 100));
+            if (isValidPosition(x, y)) {
+                addVisualEffect(x, y, VisualEffectPool.Type.SHOCKWAVE, delay, 600, 0.7f);
             }
         }
     }
@@ -203,16 +158,16 @@ public class GameCanvas extends JPanel {
         int gridX = mouseX / cellSize;
         int gridY = mouseY / cellSize;
         
-        if (selectionMode != null && grid.isValidPosition(gridX, gridY)) {
+        if (selectionMode != null && isValidPosition(gridX, gridY)) {
             switch(selectionMode) {
                 case "earthquake":
                     earthquakeEpicenter = new Point(gridX, gridY);
                     triggerEarthquakeVisual(gridX, gridY, selectionValue);
                     
+                    int magnitude = selectionValue;
                     Timer delayTimer = new Timer(500, e -> {
-                        if (effectManager != null) {
-                            effectManager.triggerEarthquake(gridX, gridY, selectionValue);
-                        }
+                        // الزلزال يُطبق على خيط المحاكاة، والرسم يقرأ النسخة المنشورة بعده
+                        gameManager.execute(() -> effectManager.triggerEarthquake(gridX, gridY, magnitude));
                     });
                     delayTimer.setRepeats(false);
                     delayTimer.start();
@@ -226,6 +181,7 @@ public class GameCanvas extends JPanel {
     
     @Override
     protected void paintComponent(Graphics g) {
+        long frameStart = MetricsRegistry.start();
         super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
         
@@ -243,11 +199,13 @@ public class GameCanvas extends JPanel {
         
         int cellSize = 50;
         
+        // قراءة آخر نسخة منشورة من خيط المحاكاة - لا نقرأ الشبكة القابلة للتعديل أبداً
+        GridSnapshot snapshot = gameManager.getGridSnapshot();
+        
         // رسم الخلايا
-        for (int x = 0; x < grid.getWidth(); x++) {
-            for (int y = 0; y < grid.getHeight(); y++) {
-                Cell cell = grid.getCell(x, y);
-                drawCell(g2d, x, y, cellSize, cell);
+        for (int x = 0; x < snapshot.getWidth(); x++) {
+            for (int y = 0; y < snapshot.getHeight(); y++) {
+                drawCell(g2d, x, y, cellSize, snapshot);
             }
         }
         
@@ -263,15 +221,21 @@ public class GameCanvas extends JPanel {
         drawDamageIndicators(g2d, cellSize);
         
         // رسم واجهة المستخدم العلوية
-        drawHUD(g2d);
+        drawHUD(g2d, snapshot);
+        
+        EngineMetrics.RENDER_FRAME.recordSince(frameStart);
     }
     
-    private void drawCell(Graphics2D g2d, int x, int y, int cellSize, Cell cell) {
+    private void drawCell(Graphics2D g2d, int x, int y, int cellSize, GridSnapshot snapshot) {
         int screenX = x * cellSize;
         int screenY = y * cellSize;
+        int type = snapshot.getType(x, y);
+        boolean powered = snapshot.isPowered(x, y);
+        boolean damaged = snapshot.isDamaged(x, y);
+        int damageLevel = snapshot.getDamageLevel(x, y);
         
         // تدرج لوني للخلية
-        Color baseColor = getCellColor(cell);
+        Color baseColor = getCellColor(type, powered, damaged, damageLevel);
         Color lightColor = baseColor.brighter().brighter();
         Color darkColor = baseColor.darker().darker();
         
@@ -297,44 +261,43 @@ public class GameCanvas extends JPanel {
         g2d.draw(cellShape);
         
         // إذا كانت الخلية موصلة بالطاقة
-        if (cell.isPowered() && !cell.isDamaged()) {
+        if (powered && !damaged) {
             drawPowerEffect(g2d, screenX, screenY, cellSize);
         }
         
         // إذا كانت الخلية متضررة
-        if (cell.isDamaged()) {
-            drawDamageEffects(g2d, screenX, screenY, cellSize, cell.getDamageLevel());
+        if (damaged) {
+            drawDamageEffects(g2d, screenX, screenY, cellSize, damageLevel);
         }
         
         // رسم أيقونة الخلية
-        drawCellIcon(g2d, screenX, screenY, cellSize, cell);
+        drawCellIcon(g2d, screenX, screenY, cellSize, type, powered, damaged);
         
         // رسم معلومات إضافية
-        if (cell.getDamageLevel() > 0) {
+        if (damageLevel > 0) {
             g2d.setColor(Color.WHITE);
             g2d.setFont(new Font("Arial", Font.BOLD, 11));
-            String damageText = "تلف: " + cell.getDamageLevel();
+            String damageText = "تلف: " + damageLevel;
             FontMetrics fm = g2d.getFontMetrics();
             int textWidth = fm.stringWidth(damageText);
             g2d.drawString(damageText, screenX + (cellSize - textWidth)/2, screenY + cellSize - 5);
         }
     }
     
-    private Color getCellColor(Cell cell) {
-        if (cell.isDamaged()) {
-            int damageLevel = cell.getDamageLevel();
+    private Color getCellColor(int type, boolean powered, boolean damaged, int damageLevel) {
+        if (damaged) {
             if (damageLevel > 7) return new Color(139, 0, 0);
             if (damageLevel > 4) return new Color(205, 92, 92);
             return new Color(255, 200, 200);
         }
         
-        switch(cell.getType()) {
+        switch(type) {
             case Constants.WIRE:
-                return cell.isPowered() ? POWERED_WIRE_COLOR : new Color(150, 150, 150);
+                return powered ? POWERED_WIRE_COLOR : new Color(150, 150, 150);
             case Constants.TRANSFORMER:
                 return TRANSFORMER_COLOR;
             case Constants.HOUSE:
-                return cell.isPowered() ? HOUSE_COLOR : new Color(100, 100, 100);
+                return powered ? HOUSE_COLOR : new Color(100, 100, 100);
             case Constants.POWER_SOURCE:
                 return POWER_SOURCE_COLOR;
             case Constants.FACTORY:
@@ -413,9 +376,9 @@ public class GameCanvas extends JPanel {
         }
     }
     
-    private void drawCellIcon(Graphics2D g2d, int x, int y, int size, Cell cell) {
-        String icon = getCellIcon(cell);
-        Color iconColor = getIconColor(cell);
+    private void drawCellIcon(Graphics2D g2d, int x, int y, int size, int type, boolean powered, boolean damaged) {
+        String icon = getCellIcon(type);
+        Color iconColor = getIconColor(powered, damaged);
         
         // ظل للأيقونة
         g2d.setColor(new Color(0, 0, 0, 100));
@@ -430,8 +393,8 @@ public class GameCanvas extends JPanel {
         g2d.drawString(icon, x + (size - iconWidth)/2, y + (size + iconHeight)/2 - 4);
     }
     
-    private String getCellIcon(Cell cell) {
-        switch(cell.getType()) {
+    private String getCellIcon(int type) {
+        switch(type) {
             case Constants.WIRE: return "〰️";
             case Constants.TRANSFORMER: return "⚡";
             case Constants.HOUSE: return "🏠";
@@ -448,43 +411,48 @@ public class GameCanvas extends JPanel {
         }
     }
     
-    private Color getIconColor(Cell cell) {
-        if (cell.isDamaged()) return Color.WHITE;
-        if (cell.isPowered()) return Color.YELLOW;
+    private Color getIconColor(boolean powered, boolean damaged) {
+        if (damaged) return Color.WHITE;
+        if (powered) return Color.YELLOW;
         return Color.WHITE;
     }
     
     private void drawVisualEffects(Graphics2D g2d, int cellSize) {
         long currentTime = System.currentTimeMillis();
+        g2d.setStroke(EFFECT_STROKE);
         
-        for (VisualEffect effect : visualEffects) {
-            float progress = effect.getProgress();
+        for (int i = 0; i < visualEffects.size(); i++) {
+            int slot = visualEffects.slot(i);
+            if (!visualEffects.isStarted(slot, currentTime)) {
+                continue; // موجة مؤجلة لم يحن وقتها بعد
+            }
+            
+            float progress = visualEffects.getProgress(slot, currentTime);
             float alpha = 1.0f - progress;
             
-            int x = effect.x * cellSize;
-            int y = effect.y * cellSize;
+            int x = visualEffects.getX(slot) * cellSize;
+            int y = visualEffects.getY(slot) * cellSize;
             
-            switch(effect.type) {
-                case "earthquake_shake":
-                    drawEarthquakeShake(g2d, x, y, cellSize, progress, effect.intensity, effect.color);
+            switch(visualEffects.getType(slot)) {
+                case EARTHQUAKE_SHAKE:
+                    drawEarthquakeShake(g2d, x, y, cellSize, progress, visualEffects.getIntensity(slot));
                     break;
-                case "shockwave":
-                    drawShockwave(g2d, x, y, cellSize, progress, alpha, effect.color);
+                case SHOCKWAVE:
+                    drawShockwave(g2d, x, y, cellSize, progress, alpha);
                     break;
-                case "damage":
-                    drawDamageFlash(g2d, x, y, cellSize, progress, alpha, effect.color);
+                case DAMAGE:
+                    drawDamageFlash(g2d, x, y, cellSize, progress, alpha);
                     break;
             }
         }
     }
     
-    private void drawEarthquakeShake(Graphics2D g2d, int x, int y, int size, float progress, float intensity, Color color) {
+    private void drawEarthquakeShake(Graphics2D g2d, int x, int y, int size, float progress, float intensity) {
         // اهتزاز
         float shakeX = (float)Math.sin(progress * 25) * intensity * 8;
         float shakeY = (float)Math.cos(progress * 20) * intensity * 8;
         
         // دوائر متحدة المركز
-        g2d.setStroke(new BasicStroke(2));
         for (int i = 1; i <= 3; i++) {
             float waveProgress = progress * i / 3;
             if (waveProgress > 1) continue;
@@ -492,7 +460,7 @@ public class GameCanvas extends JPanel {
             int waveSize = (int)(size * (1 + waveProgress * 4));
             int alpha = (int)(150 * (1 - waveProgress));
             
-            g2d.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), alpha));
+            g2d.setColor(VisualEffectPool.Type.EARTHQUAKE_SHAKE.withAlpha(alpha));
             g2d.drawOval(
                 x + (size - waveSize)/2 + (int)shakeX,
                 y + (size - waveSize)/2 + (int)shakeY,
@@ -501,22 +469,21 @@ public class GameCanvas extends JPanel {
         }
     }
     
-    private void drawShockwave(Graphics2D g2d, int x, int y, int size, float progress, float alpha, Color color) {
+    private void drawShockwave(Graphics2D g2d, int x, int y, int size, float progress, float alpha) {
         int waveSize = (int)(size * progress * 3);
-        g2d.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), (int)(alpha * 100)));
-        g2d.setStroke(new BasicStroke(2));
+        g2d.setColor(VisualEffectPool.Type.SHOCKWAVE.withAlpha((int)(alpha * 100)));
         g2d.drawOval(x + (size - waveSize)/2, y + (size - waveSize)/2, waveSize, waveSize);
     }
     
-    private void drawDamageFlash(Graphics2D g2d, int x, int y, int size, float progress, float alpha, Color color) {
+    private void drawDamageFlash(Graphics2D g2d, int x, int y, int size, float progress, float alpha) {
         // وميض أحمر
-        g2d.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), (int)(alpha * 150)));
+        g2d.setColor(VisualEffectPool.Type.DAMAGE.withAlpha((int)(alpha * 150)));
         g2d.fillRect(x, y, size, size);
         
         // علامة تعجب وامضة
         if (progress < 0.3) {
             g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 28));
+            g2d.setFont(FLASH_FONT);
             FontMetrics fm = g2d.getFontMetrics();
             String exclamation = "!";
             int textWidth = fm.stringWidth(exclamation);
@@ -560,42 +527,32 @@ public class GameCanvas extends JPanel {
     }
     
     private void drawDamageIndicators(Graphics2D g2d, int cellSize) {
-        for (DamageIndicator indicator : damageIndicators.values()) {
-            if (indicator.visible) {
-                int x = indicator.x * cellSize;
-                int y = indicator.y * cellSize;
-                
-                long time = System.currentTimeMillis();
-                float pulse = (float)(0.5 + 0.5 * Math.sin(time / 400.0));
-                
-                // دائرة وامضة
-                g2d.setColor(new Color(255, 50, 50, (int)(150 * pulse)));
-                g2d.setStroke(new BasicStroke(2));
-                g2d.drawOval(x - 5, y - 5, cellSize + 10, cellSize + 10);
-                
-                // نص التلف
-                g2d.setColor(Color.WHITE);
-                g2d.setFont(new Font("Arial", Font.BOLD, 11));
-                String damageText = "تلف: " + indicator.damageLevel;
-                FontMetrics fm = g2d.getFontMetrics();
-                int textWidth = fm.stringWidth(damageText);
-                g2d.drawString(damageText, x + (cellSize - textWidth)/2, y - 10);
-            }
+        long time = System.currentTimeMillis();
+        float pulse = (float)(0.5 + 0.5 * Math.sin(time / 400.0));
+        g2d.setStroke(EFFECT_STROKE);
+        g2d.setFont(INDICATOR_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        
+        for (int slot = 0; slot < damageIndicators.size(); slot++) {
+            int x = damageIndicators.getX(slot) * cellSize;
+            int y = damageIndicators.getY(slot) * cellSize;
+            
+            // دائرة وامضة
+            g2d.setColor(VisualEffectPool.Type.DAMAGE.withAlpha((int)(150 * pulse)));
+            g2d.drawOval(x - 5, y - 5, cellSize + 10, cellSize + 10);
+            
+            // نص التلف
+            g2d.setColor(Color.WHITE);
+            String damageText = "تلف: " + damageIndicators.getDamageLevel(slot);
+            int textWidth = fm.stringWidth(damageText);
+            g2d.drawString(damageText, x + (cellSize - textWidth)/2, y - 10);
         }
     }
     
-    private void drawHUD(Graphics2D g2d) {
-        // حساب الإحصائيات
-        int damagedCells = 0;
-        int poweredCells = 0;
-        
-        for (int x = 0; x < grid.getWidth(); x++) {
-            for (int y = 0; y < grid.getHeight(); y++) {
-                Cell cell = grid.getCell(x, y);
-                if (cell.isDamaged()) damagedCells++;
-                if (cell.isPowered()) poweredCells++;
-            }
-        }
+    private void drawHUD(Graphics2D g2d, GridSnapshot snapshot) {
+        // الإحصائيات محسوبة مسبقاً في النسخة
+        int damagedCells = snapshot.getDamagedCellCount();
+        int poweredCells = snapshot.getPoweredCellCount();
         
         // رسم لوحة معلومات شبه شفافة
         g2d.setColor(new Color(0, 0, 0, 180));
@@ -624,6 +581,17 @@ public class GameCanvas extends JPanel {
         }
     }
     
+    private boolean isValidPosition(int x, int y) {
+        return x >= 0 && x < gridWidth && y >= 0 && y < gridHeight;
+    }
+    
+    /**
+     * زلزال عشوائي عبر خيط المحاكاة
+     */
+    public void triggerRandomEarthquake() {
+        gameManager.execute(effectManager::triggerRandomEarthquake);
+    }
+    
     public void setSelectionMode(boolean active, String mode, int value) {
         if (active) {
             this.selectionMode = mode;
@@ -636,9 +604,45 @@ public class GameCanvas extends JPanel {
     }
     
     public void notifyDamage(int x, int y, int damageLevel) {
-        Point key = new Point(x, y);
-        damageIndicators.put(key, new DamageIndicator(x, y, damageLevel));
-        addVisualEffect(x, y, "damage", 1500, 1.0f, new Color(255, 50, 50, 150));
+        if (!isValidPosition(x, y)) return;
+        
+        if (damageIndicators.put(x, y, damageLevel, System.currentTimeMillis())) {
+            addVisualEffect(x, y, VisualEffectPool.Type.DAMAGE, 1500, 1.0f);
+        }
         repaint();
     }
+    
+    public void notifyRepair(int x, int y) {
+        if (!isValidPosition(x, y)) return;
+        
+        damageIndicators.remove(x, y);
+        repaint();
+    }
+    
+    // يستقبل أحداث التلف والإصلاح (قد تصل من خيط المحاكاة) وينقلها إلى خيط الواجهة
+    private class DamageEventListener implements EffectListener {
+        @Override
+        public void onEarthquakeStarted(int magnitude, int affectedCells) {}
+        
+        @Override
+        public void onEarthquakeEnded() {}
+        
+        @Override
+        public void onDamageReported(int x, int y, String damageType, int severity) {
+            SwingUtilities.invokeLater(() -> notifyDamage(x, y, severity));
+        }
+        
+        @Override
+        public void onCellDamaged(int x, int y, int damageLevel) {
+            SwingUtilities.invokeLater(() -> notifyDamage(x, y, damageLevel));
+        }
+        
+        @Override
+        public void onRepairNeeded(int x, int y, int repairCost) {}
+        
+        @Override
+        public void onCellRepaired(int x, int y) {
+            SwingUtilities.invokeLater(() -> notifyRepair(x, y));
+        }
+    }
 }
\ No newline at end of file
@@ -2,10 +2,14 @@ package powergrid.ui;
 
 import powergrid.manager.GameManager;
 import powergrid.manager.GameManager.GameStateListener;
+import powergrid.manager.GameStats;
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
 import java.awt.geom.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 public class GameInfoPanel extends JPanel implements GameStateListener {
     private GameManager gameManager;
@@ -20,6 +24,14 @@ public class GameInfoPanel extends JPanel implements GameStateListener {
     private final Color PANEL_BG = new Color(45, 45, 55, 220);
     private final Color TEXT_COLOR = new Color(240, 240, 255);
     private final Color VALUE_COLOR = new Color(255, 255, 150);
+    private static final Color POWER_GOOD = new Color(100, 200, 100);
+    private static final Color POWER_WARNING = new Color(255, 200, 100);
+    private static final Color POWER_LOW = new Color(255, 100, 100);
+    
+    // خانة أحدث حالة: المستمع يكتب من خيط ناقل الأحداث، وخيط الواجهة يطبقها مرة لكل إطار
+    private final AtomicReference<DisplayState> latest = new AtomicReference<>(new DisplayState(0, 0, 1, 0, 0));
+    private final AtomicBoolean applyScheduled = new AtomicBoolean();
+    private DisplayState applied; // آخر حالة معروضة (خيط الواجهة فقط)
     
     public GameInfoPanel(GameManager gameManager) {
         this.gameManager = gameManager;
@@ -190,66 +202,95 @@ public class GameInfoPanel extends JPanel implements GameStateListener {
         return border;
     }
     
+    /**
+     * قيم اللوحة في لحظة واحدة - نسخة ثابتة تُستبدل كاملة في الخانة
+     */
+    private static final class DisplayState {
+        final int score, money, day, demand, supply;
+        
+        DisplayState(int score, int money, int day, int demand, int supply) {
+            this.score = score;
+            this.money = money;
+            this.day = day;
+            this.demand = demand;
+            this.supply = supply;
+        }
+    }
+    
     private void updateDisplay() {
-        SwingUtilities.invokeLater(() -> {
-            scoreLabel.setText(String.valueOf(gameManager.getScore()));
-            moneyLabel.setText("$" + gameManager.getMoney());
-            dayLabel.setText(String.valueOf(gameManager.getDay()));
-            
+        // القراءة من النسخة المنشورة فقط
+        GameStats stats = gameManager.getStats();
+        offer(s -> new DisplayState(stats.getScore(), stats.getMoney(), stats.getDay(),
+                                    stats.getPowerDemand(), stats.getPowerSupply()));
+    }
+    
+    /**
+     * وضع أحدث القيم في الخانة وجدولة تطبيق واحد على خيط الواجهة إن لم يكن مجدولاً
+     * الاستدعاءات المتتالية قبل التطبيق تُدمج ولا تضيف invokeLater جديداً
+     */
+    private void offer(UnaryOperator<DisplayState> change) {
+        latest.updateAndGet(change);
+        if (applyScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::applyLatest);
+        }
+    }
+    
+    // على خيط الواجهة: تطبيق أحدث قيم فقط وتعديل ما تغير منها
+    private void applyLatest() {
+        // قبل القراءة، حتى لا يضيع تحديث يصل أثناء التطبيق
+        applyScheduled.set(false);
+        DisplayState state = latest.get();
+        DisplayState previous = applied;
+        if (state == previous) {
+            return;
+        }
+        
+        if (previous == null || state.score != previous.score) {
+            scoreLabel.setText(String.valueOf(state.score));
+        }
+        if (previous == null || state.money != previous.money) {
+            moneyLabel.setText("$" + state.money);
+        }
+        if (previous == null || state.day != previous.day) {
+            dayLabel.setText(String.valueOf(state.day));
+        }
+        if (previous == null || state.demand != previous.demand || state.supply != previous.supply) {
             // تحديث شريط الطاقة
-            double efficiency = gameManager.getPowerEfficiency();
+            double efficiency = (state.demand > 0) ? (double) state.supply / state.demand : 0;
             int percentage = (int)(efficiency * 100);
             powerBar.setValue(Math.min(100, percentage));
             powerBar.setString("كفاءة الطاقة: " + percentage + "%");
             
             // تغيير اللون حسب الكفاءة
             if (efficiency >= 1.0) {
-                powerBar.setForeground(new Color(100, 200, 100));
+                powerBar.setForeground(POWER_GOOD);
             } else if (efficiency >= 0.7) {
-                powerBar.setForeground(new Color(255, 200, 100));
+                powerBar.setForeground(POWER_WARNING);
             } else {
-                powerBar.setForeground(new Color(255, 100, 100));
+                powerBar.setForeground(POWER_LOW);
             }
-        });
+        }
+        applied = state;
     }
     
     @Override
     public void onScoreChanged(int newScore) {
-        SwingUtilities.invokeLater(() -> {
-            scoreLabel.setText(String.valueOf(newScore));
-        });
+        offer(s -> new DisplayState(newScore, s.money, s.day, s.demand, s.supply));
     }
     
     @Override
     public void onMoneyChanged(int newMoney) {
-        SwingUtilities.invokeLater(() -> {
-            moneyLabel.setText("$" + newMoney);
-        });
+        offer(s -> new DisplayState(s.score, newMoney, s.day, s.demand, s.supply));
     }
     
     @Override
     public void onDayChanged(int newDay) {
-        SwingUtilities.invokeLater(() -> {
-            dayLabel.setText(String.valueOf(newDay));
-        });
+        offer(s -> new DisplayState(s.score, s.money, newDay, s.demand, s.supply));
     }
     
     @Override
     public void onPowerUpdate(int demand, int supply) {
-        SwingUtilities.invokeLater(() -> {
-            double efficiency = (demand > 0) ? (double) supply / demand : 0;
-            int percentage = (int)(efficiency * 100);
-            powerBar.setValue(Math.min(100, percentage));
-            powerBar.setString("كفاءة الطاقة: " + percentage + "%");
-            
-            if (efficiency >= 1.0) {
-                powerBar.setForeground(new Color(100, 200, 100));
-            } else if (efficiency >= 0.7) {
-                powerBar.setForeground(new Color(255, 200, 100));
-            } else {
-                powerBar.setForeground(new Color(255, 100, 100));
-            }
-        });
+        offer(s -> new DisplayState(s.score, s.money, s.day, demand, supply));
     }
     
     @Override
@@ -14,6 +14,7 @@ public class GamePanel extends JPanel implements MouseListener, MouseMotionListe
     
     public GamePanel() {
         gameEngine = new GameEngine();
+        gameEngine.addLevelListener(new LevelDialogs());
         selectedTool = 1; // السلك هو الأداة الافتراضية
         
         setPreferredSize(new Dimension(
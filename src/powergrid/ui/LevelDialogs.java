@@ -0,0 +1,83 @@
+package powergrid.ui;
+
+import powergrid.game.LevelListener;
+import javax.swing.*;
+
+/**
+ * محول الواجهة لأحداث المستويات - يعرض الرسائل على خيط الواجهة
+ */
+public class LevelDialogs implements LevelListener {
+
+    @Override
+    public void onLevelCompleted(int newLevel, int houses, int powerSources) {
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(null,
+                "<html><div style='text-align: center;'>"
+                + "<h2>🎉 مستوى مكتمل! 🎉</h2>"
+                + "<hr>"
+                + "<p>تم الانتقال للمستوى " + newLevel + "</p>"
+                + "<p>مكافأة: +500 نقطة</p>"
+                + "<p>ميزانية إضافية: +300$</p>"
+                + "<br>"
+                + "<p>🏠 المنازل الجديدة: " + houses + "</p>"
+                + "<p>⚡ مصادر الطاقة: " + powerSources + "</p>"
+                + "</div></html>",
+                "تهانينا!",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    @Override
+    public void onLevelStarted(int level, String description) {
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(null,
+                "<html><div style='text-align: right; direction: rtl;'>"
+                + "<h2>🎮 المستوى " + level + " 🎮</h2>"
+                + "<hr>"
+                + "<p>" + description + "</p>"
+                + "<br>"
+                + "<p><b>التحدي:</b> توصيل جميع المنازل بالكهرباء</p>"
+                + "</div></html>",
+                "مستوى جديد",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    @Override
+    public void onGameCompleted(int finalScore, int finalBudget, int totalHousesConnected) {
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(null,
+                "<html><div style='text-align: center;'>"
+                + "<h1>🏆 فوز! 🏆</h1>"
+                + "<h3>لقد أكملت جميع مستويات اللعبة!</h3>"
+                + "<hr>"
+                + "<p>النقاط النهائية: " + finalScore + "</p>"
+                + "<p>آخر ميزانية: $" + finalBudget + "</p>"
+                + "<p>إجمالي المنازل الموصولة: " + totalHousesConnected + "</p>"
+                + "<br>"
+                + "<p>شكراً للعب <b>Power Grid</b>!</p>"
+                + "<p>لقد أتقنت خوارزميات BFS و DFS بنجاح.</p>"
+                + "</div></html>",
+                "إكمال اللعبة",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+
+    @Override
+    public void onAllLevelsCompleted() {
+        SwingUtilities.invokeLater(() -> {
+            JOptionPane.showMessageDialog(null,
+                "<html><div style='text-align: center;'>"
+                + "<h1>🎊 مبروك! 🎊</h1>"
+                + "<h2>لقد أكملت جميع مستويات Power Grid</h2>"
+                + "<hr>"
+                + "<p>لقد أظهرت مهارة رائعة في خوارزميات البحث</p>"
+                + "<p>BFS و DFS أصبحت تحت سيطرتك!</p>"
+                + "<br>"
+                + "<p style='color: blue;'>⚡ مشروع ناجح ⚡</p>"
+                + "</div></html>",
+                "إكمال اللعبة",
+                JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
+}
@@ -112,7 +112,11 @@ public class ObstaclePanel extends JPanel {
         JButton randomButton = createStyledButton("🎲 زلزال عشوائي", 
             new Color(100, 150, 255), new Color(80, 130, 235));
         randomButton.addActionListener(e -> {
-            effectManager.triggerRandomEarthquake();
+            if (gameCanvas != null) {
+                gameCanvas.triggerRandomEarthquake();
+            } else {
+                effectManager.triggerRandomEarthquake();
+            }
             logMessage("🔀 تم تفعيل زلزال عشوائي");
         });
         
@@ -2,7 +2,6 @@ package powergrid.ui;
 
 import powergrid.model.*;
 import powergrid.game.GameEngine;
-import powergrid.algorithms.PathFinder;
 import powergrid.utils.Constants;
 import javax.swing.*;
 import javax.swing.Timer;
@@ -10,7 +9,6 @@ import java.awt.*;
 import java.awt.event.*;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.List;
 
 /**
  * لوحة الإحصائيات والمعلومات - تعرض حالة اللعبة الحالية
@@ -38,6 +36,7 @@ public class StatsPanel extends JPanel {
     
     // مؤقت لتحديث الإحصائيات
     private Timer updateTimer;
+    private StatsService statsService;
     private long startTime;
     private int elapsedSeconds;
     
@@ -52,6 +51,7 @@ public class StatsPanel extends JPanel {
         this.gameEngine = gamePanel.getGameEngine();
         this.startTime = System.currentTimeMillis();
         this.elapsedSeconds = 0;
+        this.statsService = new StatsService(this::applyGridStats);
         
         initComponents();
         setupLayout();
@@ -169,10 +169,19 @@ public class StatsPanel extends JPanel {
         scoreLabel.setText("النقاط: " + gameEngine.getScore());
         budgetLabel.setText("الميزانية: $" + gameEngine.getBudget());
         
-        // تحديث حالة المنازل
-        Grid grid = gameEngine.getGrid();
-        int totalHouses = grid.getHouses().size();
-        int poweredHouses = grid.countPoweredHouses();
+        // إحصائيات الشبكة (المسار والكفاءة) تُحسب في الخلفية على النسخة التي نشرها المحرك
+        GridSnapshot snapshot = gameEngine.getGridSnapshot();
+        if (snapshot != null) {
+            statsService.requestUpdate(snapshot);
+        }
+    }
+    
+    /**
+     * تطبيق نتيجة حساب الإحصائيات - تُستدعى على خيط الواجهة
+     */
+    private void applyGridStats(StatsService.Result result) {
+        int totalHouses = result.getTotalHouses();
+        int poweredHouses = result.getPoweredHouses();
         
         housesLabel.setText(String.format("المنازل: %d/%d موصولة", poweredHouses, totalHouses));
         
@@ -187,13 +196,13 @@ public class StatsPanel extends JPanel {
         }
         
         // تحديث معلومات الخوارزميات
-        updateAlgorithmStats();
+        updateAlgorithmStats(result);
         
         // تحديث شريط التقدم
         updateProgressBar(poweredHouses, totalHouses);
         
         // تحديث الكفاءة
-        updateEfficiency();
+        updateEfficiency(result);
         
         // إعادة رسم اللوحة
         revalidate();
@@ -203,30 +212,19 @@ public class StatsPanel extends JPanel {
     /**
      * تحديث إحصائيات الخوارزميات
      */
-    private void updateAlgorithmStats() {
-        Grid grid = gameEngine.getGrid();
-        
+    private void updateAlgorithmStats(StatsService.Result result) {
         // إذا كان هناك منازل ومصادر طاقة
-        if (!grid.getHouses().isEmpty() && !grid.getPowerSources().isEmpty()) {
-            // استخدام الخوارزمية الأولى (BFS) كمثال
-            House firstHouse = grid.getHouses().get(0);
-            PowerSource firstSource = grid.getPowerSources().get(0);
+        if (result.hasPathInput()) {
+            int pathLength = result.getPathLength();
             
-            // حساب المسار باستخدام BFS
-            List<Cell> path = PathFinder.findShortestPathBFS(
-                grid, 
-                firstSource.getX(), firstSource.getY(),
-                firstHouse.getX(), firstHouse.getY()
-            );
-            
-            if (!path.isEmpty()) {
+            if (pathLength > 0) {
                 algorithmLabel.setText("الخوارزمية: BFS");
-                pathLengthLabel.setText("طول المسار: " + path.size() + " خلية");
+                pathLengthLabel.setText("طول المسار: " + pathLength + " خلية");
                 
                 // عرض نوع المسار بناءً على الطول
-                if (path.size() < 5) {
+                if (pathLength < 5) {
                     pathLengthLabel.setForeground(POSITIVE_COLOR);
-                } else if (path.size() < 10) {
+                } else if (pathLength < 10) {
                     pathLengthLabel.setForeground(new Color(255, 140, 0)); // برتقالي
                 } else {
                     pathLengthLabel.setForeground(NEGATIVE_COLOR);
@@ -268,13 +266,9 @@ public class StatsPanel extends JPanel {
     /**
      * تحديث كفاءة الشبكة
      */
-    private void updateEfficiency() {
-        Grid grid = gameEngine.getGrid();
-        int totalHouses = grid.getHouses().size();
-        int poweredHouses = grid.countPoweredHouses();
-        
-        if (totalHouses > 0) {
-            int efficiency = (int)((poweredHouses * 100.0) / totalHouses);
+    private void updateEfficiency(StatsService.Result result) {
+        if (result.getTotalHouses() > 0) {
+            int efficiency = result.getEfficiency();
             efficiencyLabel.setText("الكفاءة: " + efficiency + "%");
             
             // تغيير لون الكفاءة
@@ -470,6 +464,7 @@ public class StatsPanel extends JPanel {
      */
     public void setGameEngine(GameEngine gameEngine) {
         this.gameEngine = gameEngine;
+        statsService.invalidate();
         updateStats();
     }
     
@@ -483,6 +478,7 @@ public class StatsPanel extends JPanel {
         if (updateTimer != null) {
             updateTimer.stop();
         }
+        statsService.shutdown();
     }
     
     public int getElapsedSeconds() {
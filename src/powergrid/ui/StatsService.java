@@ -0,0 +1,113 @@
+package powergrid.ui;
+
+import powergrid.algorithms.PathFinder;
+import powergrid.model.GridSnapshot;
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * خدمة حساب إحصائيات الشبكة في الخلفية
+ * تحسب المسار والكفاءة على نسخة ثابتة من الشبكة خارج خيط الواجهة،
+ * وتدمج الطلبات المتتالية (لا تعيد الحساب إذا لم تتغير الشبكة، وتحسب آخر طلب فقط)،
+ * ثم ترسل النتيجة إلى اللوحة عبر invokeLater
+ */
+public class StatsService {
+
+    /**
+     * نتيجة حساب الإحصائيات
+     */
+    public static final class Result {
+        private final int totalHouses;
+        private final int poweredHouses;
+        private final int pathLength; // -1 لا يوجد مسار، 0 لا توجد منازل أو مصادر
+
+        Result(int totalHouses, int poweredHouses, int pathLength) {
+            this.totalHouses = totalHouses;
+            this.poweredHouses = poweredHouses;
+            this.pathLength = pathLength;
+        }
+
+        public int getTotalHouses() { return totalHouses; }
+        public int getPoweredHouses() { return poweredHouses; }
+        public int getPathLength() { return pathLength; }
+        public boolean hasPathInput() { return pathLength != 0; }
+
+        public int getEfficiency() {
+            if (totalHouses == 0) return 0;
+            return (int)((poweredHouses * 100.0) / totalHouses);
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Consumer<Result> listener;
+    private final AtomicReference<GridSnapshot> pending;
+    private GridSnapshot lastRequested; // يُقرأ ويُكتب من خيط الواجهة فقط
+
+    /**
+     * @param listener يستقبل النتائج على خيط الواجهة
+     */
+    public StatsService(Consumer<Result> listener) {
+        this.listener = listener;
+        this.pending = new AtomicReference<>();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "stats-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * طلب إعادة حساب الإحصائيات لنسخة من الشبكة
+     * يُتجاهل الطلب إذا كانت الشبكة لم تتغير منذ آخر طلب
+     */
+    public void requestUpdate(GridSnapshot snapshot) {
+        if (snapshot.contentEquals(lastRequested)) {
+            return;
+        }
+        lastRequested = snapshot;
+
+        // إذا كان هناك طلب معلق بالفعل فيكفي استبداله بالأحدث
+        if (pending.getAndSet(snapshot) == null) {
+            executor.execute(this::computePending);
+        }
+    }
+
+    /**
+     * إجبار إعادة الحساب في الطلب القادم (مثلاً بعد تغيير المستوى)
+     */
+    public void invalidate() {
+        lastRequested = null;
+    }
+
+    private void computePending() {
+        GridSnapshot snapshot = pending.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+
+        Result result = compute(snapshot);
+        SwingUtilities.invokeLater(() -> listener.accept(result));
+    }
+
+    private static Result compute(GridSnapshot snapshot) {
+        int totalHouses = snapshot.getHouseCount();
+        int poweredHouses = snapshot.getPoweredHouseCount();
+
+        // المسار من أول مصدر طاقة إلى أول منزل (كما في اللوحة سابقاً)
+        int pathLength = 0;
+        if (totalHouses > 0 && snapshot.getPowerSourceCount() > 0) {
+            pathLength = PathFinder.findShortestPathLength(snapshot,
+                snapshot.getPowerSourceX(0), snapshot.getPowerSourceY(0),
+                snapshot.getHouseX(0), snapshot.getHouseY(0));
+        }
+
+        return new Result(totalHouses, poweredHouses, pathLength);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
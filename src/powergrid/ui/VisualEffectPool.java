@@ -0,0 +1,128 @@
+package powergrid.ui;
+
+import java.awt.Color;
+
+/**
+ * مخزن دائري ثابت السعة للتأثيرات البصرية
+ * يحفظ التأثيرات في مصفوفات بدائية بدلاً من إنشاء كائن لكل تأثير،
+ * ويتم تحديثه من مؤقت الرسوم المتحركة الوحيد في GameCanvas
+ */
+public class VisualEffectPool {
+
+    /**
+     * أنواع التأثيرات - كل نوع يحمل لونه الأساسي
+     */
+    public enum Type {
+        EARTHQUAKE_SHAKE(255, 100, 100),
+        SHOCKWAVE(255, 200, 0),
+        DAMAGE(255, 50, 50);
+
+        // جدول ألوان مسبق الحساب لكل قيم الشفافية (0-255) لتجنب new Color أثناء الرسم
+        private final Color[] alphaTable = new Color[256];
+
+        Type(int r, int g, int b) {
+            for (int a = 0; a < 256; a++) {
+                alphaTable[a] = new Color(r, g, b, a);
+            }
+        }
+
+        Color withAlpha(int alpha) {
+            return alphaTable[Math.max(0, Math.min(255, alpha))];
+        }
+    }
+
+    private static final Type[] TYPES = Type.values();
+
+    private final int capacity;
+    private final int[] xs;
+    private final int[] ys;
+    private final byte[] types;
+    private final long[] startTimes;
+    private final int[] durations;
+    private final float[] intensities;
+
+    private int head;  // موقع أقدم تأثير في الحلقة
+    private int size;  // عدد التأثيرات المخزنة
+
+    VisualEffectPool(int capacity) {
+        this.capacity = capacity;
+        this.xs = new int[capacity];
+        this.ys = new int[capacity];
+        this.types = new byte[capacity];
+        this.startTimes = new long[capacity];
+        this.durations = new int[capacity];
+        this.intensities = new float[capacity];
+        this.head = 0;
+        this.size = 0;
+    }
+
+    /**
+     * إضافة تأثير - إذا امتلأت الحلقة يُستبدل أقدم تأثير
+     * @param startTime وقت بدء التأثير (يمكن أن يكون في المستقبل لتأخير ظهوره)
+     */
+    void add(int x, int y, Type type, long startTime, int duration, float intensity) {
+        int slot;
+        if (size == capacity) {
+            slot = head;
+            head = (head + 1) % capacity;
+        } else {
+            slot = (head + size) % capacity;
+            size++;
+        }
+
+        xs[slot] = x;
+        ys[slot] = y;
+        types[slot] = (byte) type.ordinal();
+        startTimes[slot] = startTime;
+        durations[slot] = duration;
+        intensities[slot] = intensity;
+    }
+
+    /**
+     * إزالة التأثيرات المنتهية مع الحفاظ على ترتيب الباقي - بدون أي تخصيص للذاكرة
+     */
+    void update(long now) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int from = (head + i) % capacity;
+            if (now - startTimes[from] >= durations[from]) {
+                continue;
+            }
+
+            int to = (head + kept) % capacity;
+            if (to != from) {
+                xs[to] = xs[from];
+                ys[to] = ys[from];
+                types[to] = types[from];
+                startTimes[to] = startTimes[from];
+                durations[to] = durations[from];
+                intensities[to] = intensities[from];
+            }
+            kept++;
+        }
+        size = kept;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    int size() { return size; }
+
+    // الوصول للتأثير رقم i حسب الترتيب (0 = الأقدم)
+    int slot(int i) { return (head + i) % capacity; }
+    int getX(int slot) { return xs[slot]; }
+    int getY(int slot) { return ys[slot]; }
+    Type getType(int slot) { return TYPES[types[slot]]; }
+    float getIntensity(int slot) { return intensities[slot]; }
+
+    boolean isStarted(int slot, long now) {
+        return now >= startTimes[slot];
+    }
+
+    float getProgress(int slot, long now) {
+        long elapsed = now - startTimes[slot];
+        return Math.min(1.0f, (float) elapsed / durations[slot]);
+    }
+}
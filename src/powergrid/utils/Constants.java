@@ -12,6 +12,13 @@ public class Constants {
     public static final int MOUNTAIN = 7;
     public static final int OBSTACLE = 8;
     
+    // إعدادات اللعبة
+    public static final int GRID_SIZE = 15;
+    public static final int INITIAL_BUDGET = 1000;
+    public static final int WIRE_COST = 10;
+    public static final int TRANSFORMER_COST = 100;
+    public static final int HOUSE_REWARD = 100;
+    
     // أنواع التلف الناتج عن الزلزال
     public static final int RUBBLE = 9;
     public static final int ROCK_FALL = 10;
@@ -19,11 +26,6 @@ public class Constants {
     public static final int CRACK = 12;
     public static final int BROKEN_WIRE = 13;
     
-    // ألوان للتأثيرات
-    public static final Color EARTHQUAKE_COLOR = new Color(255, 100, 100, 150);
-    public static final Color DAMAGE_COLOR = new Color(255, 0, 0, 100);
-    public static final Color REPAIR_COLOR = new Color(0, 255, 0, 100);
-    
     // إعدادات الزلزال
     public static final int MIN_EARTHQUAKE_MAGNITUDE = 1;
     public static final int MAX_EARTHQUAKE_MAGNITUDE = 10;